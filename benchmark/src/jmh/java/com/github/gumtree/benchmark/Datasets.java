@@ -0,0 +1,149 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.jdt.JdtTreeGenerator;
+import com.github.gumtreediff.gen.treesitterng.*;
+import com.github.gumtreediff.io.DirectoryComparator;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Utility class loading the file pairs of the datasets located in the benchmark/datasets folder.
+ * Each dataset contains a before and an after folder. To keep the benchmarks short, only a sample
+ * of the modified files is used: its size is given by the gt.bench.cases system property.
+ * The location of the datasets folder can be changed using the gt.bench.datasets system property.
+ */
+public final class Datasets {
+    public static final String FOLDER_PROPERTY = "gt.bench.datasets";
+
+    public static final String CASES_PROPERTY = "gt.bench.cases";
+
+    private static final int DEFAULT_CASES = 50;
+
+    private Datasets() {}
+
+    /**
+     * Return a sample of the modified file pairs of the given dataset. The sample is
+     * deterministic: the pairs are evenly picked from the pairs sorted by path.
+     */
+    public static List<Pair<File, File>> pairs(String dataset) {
+        File folder = new File(System.getProperty(FOLDER_PROPERTY, "datasets"), dataset);
+        if (!folder.isDirectory())
+            throw new IllegalStateException("Dataset not found: " + folder.getAbsolutePath()
+                    + ". The datasets have to be copied in the benchmark/datasets folder.");
+
+        DirectoryComparator comparator = new DirectoryComparator(
+                new File(folder, "before").getPath(), new File(folder, "after").getPath());
+        comparator.compare();
+        List<Pair<File, File>> all = new ArrayList<>(comparator.getModifiedFiles());
+        all.sort(Comparator.comparing(p -> p.first.getPath()));
+
+        int cases = Math.min(all.size(), Integer.getInteger(CASES_PROPERTY, DEFAULT_CASES));
+        List<Pair<File, File>> sample = new ArrayList<>(cases);
+        for (int i = 0; i < cases; i++)
+            sample.add(all.get((int) ((long) i * all.size() / cases)));
+        return sample;
+    }
+
+    /**
+     * Return the ASTs of a sample of the modified file pairs of the given dataset.
+     * The files that can't be parsed are skipped.
+     *
+     * @see #pairs(String)
+     */
+    public static List<Pair<TreeContext, TreeContext>> trees(String dataset) {
+        TreeGenerator generator = generator(generatorFor(dataset));
+        List<Pair<TreeContext, TreeContext>> trees = new ArrayList<>();
+        for (Pair<File, File> pair : pairs(dataset)) {
+            try {
+                trees.add(new Pair<>(generator.generateFrom().file(pair.first),
+                        generator.generateFrom().file(pair.second)));
+            } catch (IOException e) {
+                System.err.println("Skipping " + pair.first.getPath() + ": " + e);
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Return the id of the generator used to parse the files of the given dataset.
+     */
+    public static String generatorFor(String dataset) {
+        switch (dataset) {
+            case "defects4j":
+            case "gh-java":
+                return "java-jdt";
+            case "bugsinpy":
+            case "gh-python":
+                return "python-treesitter-ng";
+            default:
+                throw new IllegalArgumentException("Unknown dataset: " + dataset);
+        }
+    }
+
+    /**
+     * Instantiate the generator with the given id. The generators are directly instantiated
+     * rather than retrieved from the registry, to measure them in isolation.
+     */
+    public static TreeGenerator generator(String id) {
+        switch (id) {
+            case "java-jdt":
+                return new JdtTreeGenerator();
+            case "c-treesitter-ng":
+                return new CTreeSitterNgTreeGenerator();
+            case "cmake-treesitter-ng":
+                return new CMakeTreeSitterNgTreeGenerator();
+            case "cs-treesitter-ng":
+                return new CSharpTreeSitterNgTreeGenerator();
+            case "go-treesitter-ng":
+                return new GoTreeSitterNgTreeGenerator();
+            case "java-treesitter-ng":
+                return new JavaTreeSitterNgTreeGenerator();
+            case "js-treesitter-ng":
+                return new JavaScriptTreeSitterNgTreeGenerator();
+            case "kotlin-treesitter-ng":
+                return new KotlinTreeSitterNgTreeGenerator();
+            case "ocaml-treesitter-ng":
+                return new OcamlTreeSitterNgTreeGenerator();
+            case "php-treesitter-ng":
+                return new PhpTreeSitterNgTreeGenerator();
+            case "python-treesitter-ng":
+                return new PythonTreeSitterNgTreeGenerator();
+            case "r-treesitter-ng":
+                return new RTreeSitterNgTreeGenerator();
+            case "ruby-treesitter-ng":
+                return new RubyTreeSitterNgTreeGenerator();
+            case "rust-treesitter-ng":
+                return new RustTreeSitterNgTreeGenerator();
+            case "ts-treesitter-ng":
+                return new TypeScriptTreeSitterNgTreeGenerator();
+            default:
+                throw new IllegalArgumentException("Unknown generator: " + id);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.ArrayMappingStore;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.Tree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the hashmap based {@link MappingStore} with the {@link ArrayMappingStore}:
+ * the whole source tree is mapped and then each source and destination node is looked up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingStoreBenchmark {
+    @Param({"1000", "20000", "200000"})
+    public int size;
+
+    @Param({"hash", "array"})
+    public String store;
+
+    private Tree src;
+
+    private Tree dst;
+
+    @Setup
+    public void setup() {
+        src = SyntheticTrees.randomTree(size, 8, 1L);
+        dst = SyntheticTrees.mutate(src, 0.1, 2L);
+        src.getMetrics();
+        dst.getMetrics();
+    }
+
+    private MappingStore newStore() {
+        return "array".equals(store) ? new ArrayMappingStore(src, dst) : new MappingStore(src, dst);
+    }
+
+    @Benchmark
+    public MappingStore addMappings() {
+        MappingStore ms = newStore();
+        ms.addMappingRecursively(src, dst);
+        return ms;
+    }
+
+    @Benchmark
+    public void lookups(Blackhole bh) {
+        MappingStore ms = newStore();
+        ms.addMappingRecursively(src, dst);
+        for (Tree t : src.postOrder()) {
+            bh.consume(ms.isSrcMapped(t));
+            bh.consume(ms.getDstForSrc(t));
+        }
+        for (Tree t : dst.postOrder()) {
+            bh.consume(ms.isDstMapped(t));
+            bh.consume(ms.getSrcForDst(t));
+        }
+    }
+
+    @Benchmark
+    public void iteration(Blackhole bh) {
+        MappingStore ms = newStore();
+        ms.addMappingRecursively(src, dst);
+        for (var m : ms)
+            bh.consume(m);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measure the matchers defined in {@link CompositeMatchers} on a sample of a dataset.
+ * Each operation matches all the file pairs of the sample.
+ *
+ * @see Datasets
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MatcherBenchmark {
+    @Param({"defects4j"})
+    public String dataset;
+
+    @Param({"gumtree-simple", "gumtree-classic", "gumtree-simple-stable", "gumtree-simple-id",
+            "gumtree-hybrid", "gumtree-hybrid-id", "change-distiller", "xy", "theta",
+            "change-distiller-theta", "gumtree-classic-theta", "gumtree-simple-id-theta", "rted-theta",
+            "gumtree-simple-partitioned", "gumtree-classic-partitioned", "gumtree-classic-theta-sparse"})
+    public String matcher;
+
+    private List<Pair<TreeContext, TreeContext>> trees;
+
+    private Matcher instance;
+
+    @Setup
+    public void setup() {
+        trees = Datasets.trees(dataset);
+        instance = matcher(matcher).get();
+        instance.configure(new GumtreeProperties());
+        for (Pair<TreeContext, TreeContext> pair : trees) {
+            pair.first.getRoot().getMetrics();
+            pair.second.getRoot().getMetrics();
+        }
+    }
+
+    @Benchmark
+    public void match(Blackhole bh) {
+        for (Pair<TreeContext, TreeContext> pair : trees) {
+            MappingStore mappings = instance.match(pair.first.getRoot(), pair.second.getRoot());
+            bh.consume(mappings);
+        }
+    }
+
+    static Supplier<Matcher> matcher(String id) {
+        switch (id) {
+            case "gumtree-simple":
+                return CompositeMatchers.SimpleGumtree::new;
+            case "gumtree-classic":
+                return CompositeMatchers.ClassicGumtree::new;
+            case "gumtree-simple-stable":
+                return CompositeMatchers.SimpleGumtreeStable::new;
+            case "gumtree-simple-id":
+                return CompositeMatchers.SimpleIdGumtree::new;
+            case "gumtree-hybrid":
+                return CompositeMatchers.HybridGumtree::new;
+            case "gumtree-hybrid-id":
+                return CompositeMatchers.HybridIdGumtree::new;
+            case "change-distiller":
+                return CompositeMatchers.ChangeDistiller::new;
+            case "xy":
+                return CompositeMatchers.XyMatcher::new;
+            case "theta":
+                return CompositeMatchers.Theta::new;
+            case "change-distiller-theta":
+                return CompositeMatchers.ChangeDistillerTheta::new;
+            case "gumtree-classic-theta":
+                return CompositeMatchers.ClassicGumtreeTheta::new;
+            case "gumtree-simple-id-theta":
+                return CompositeMatchers.SimpleIdGumtreeTheta::new;
+            case "rted-theta":
+                return CompositeMatchers.RtedTheta::new;
+            case "gumtree-simple-partitioned":
+                return CompositeMatchers.PartitionedSimpleGumtree::new;
+            case "gumtree-classic-partitioned":
+                return CompositeMatchers.PartitionedClassicGumtree::new;
+            case "gumtree-classic-theta-sparse":
+                return CompositeMatchers.ClassicGumtreeThetaSparse::new;
+            default:
+                throw new IllegalArgumentException("Unknown matcher: " + id);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the tree generators on the source files of a sample of a dataset. The files are
+ * read in memory beforehand, each operation parses all the files of the sample.
+ *
+ * @see Datasets
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParsingBenchmark {
+    @Param({"defects4j"})
+    public String dataset;
+
+    @Param({"java-jdt", "java-treesitter-ng"})
+    public String generator;
+
+    private final List<String> contents = new ArrayList<>();
+
+    private TreeGenerator instance;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Datasets.generator(generator);
+        for (Pair<File, File> pair : Datasets.pairs(dataset))
+            contents.add(Files.readString(pair.first.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) throws IOException {
+        for (String content : contents)
+            bh.consume(instance.generateFrom().string(content));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.heuristic.gt.BucketPriorityTreeQueue;
+import com.github.gumtreediff.matchers.heuristic.gt.DefaultPriorityTreeQueue;
+import com.github.gumtreediff.matchers.heuristic.gt.PriorityTreeQueue;
+import com.github.gumtreediff.tree.Tree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compare the red-black tree based {@link DefaultPriorityTreeQueue} with the {@link BucketPriorityTreeQueue}
+ * on the synchronization loop of the subtree matchers, where all the trees are eventually opened.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriorityTreeQueueBenchmark {
+    @Param({"1000", "20000", "200000"})
+    public int size;
+
+    @Param({"default", "bucket"})
+    public String queue;
+
+    @Param({"height", "size"})
+    public String calculator;
+
+    private Tree src;
+
+    private Tree dst;
+
+    @Setup
+    public void setup() {
+        src = SyntheticTrees.randomTree(size, 8, 1L);
+        dst = SyntheticTrees.mutate(src, 0.1, 2L);
+        src.getMetrics();
+        dst.getMetrics();
+    }
+
+    private PriorityTreeQueue newQueue(Tree root) {
+        ToIntFunction<Tree> priorityCalculator = PriorityTreeQueue.getPriorityCalculator(calculator);
+        return "bucket".equals(queue)
+                ? new BucketPriorityTreeQueue(root, 1, priorityCalculator)
+                : new DefaultPriorityTreeQueue(root, 1, priorityCalculator);
+    }
+
+    @Benchmark
+    public void synchronize(Blackhole bh) {
+        PriorityTreeQueue srcTrees = newQueue(src);
+        PriorityTreeQueue dstTrees = newQueue(dst);
+        while (PriorityTreeQueue.synchronize(srcTrees, dstTrees)) {
+            bh.consume(srcTrees.popOpen());
+            bh.consume(dstTrees.popOpen());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.optimal.rted.RtedAlgorithm;
+import com.github.gumtreediff.matchers.optimal.rted.RtedWorkspace;
+import com.github.gumtreediff.tree.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure RTED with a fresh workspace per computation and with the workspace of the current thread,
+ * computing either the edit mapping or only the distance. The allocations per operation are
+ * reported by the gc profiler (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RtedBenchmark {
+    @Param({"50", "200", "800"})
+    public int size;
+
+    @Param({"fresh", "thread"})
+    public String workspace;
+
+    private Tree src;
+
+    private Tree dst;
+
+    @Setup
+    public void setup() {
+        src = SyntheticTrees.randomTree(size, 8, 1L);
+        dst = SyntheticTrees.mutate(src, 0.1, 2L);
+        src.getMetrics();
+        dst.getMetrics();
+    }
+
+    private RtedAlgorithm newAlgorithm() {
+        return "thread".equals(workspace)
+                ? new RtedAlgorithm(1D, 1D, 1D, RtedWorkspace.forCurrentThread())
+                : new RtedAlgorithm(1D, 1D, 1D);
+    }
+
+    @Benchmark
+    public ArrayDeque<int[]> mapping() {
+        RtedAlgorithm algorithm = newAlgorithm();
+        algorithm.computeTreeDist(src, dst);
+        return algorithm.computeEditMapping();
+    }
+
+    @Benchmark
+    public double distance() {
+        return newAlgorithm().computeTreeDist(src, dst);
+    }
+}
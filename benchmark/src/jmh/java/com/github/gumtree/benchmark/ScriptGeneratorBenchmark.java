@@ -0,0 +1,72 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.actions.ChawatheScriptGenerator;
+import com.github.gumtreediff.actions.EditScriptGenerator;
+import com.github.gumtreediff.actions.SimplifiedChawatheScriptGenerator;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare {@link ChawatheScriptGenerator} and {@link SimplifiedChawatheScriptGenerator}
+ * on the mappings computed by the simple GumTree matcher on a sample of a dataset.
+ * Each operation computes the edit scripts of all the file pairs of the sample.
+ *
+ * @see Datasets
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScriptGeneratorBenchmark {
+    @Param({"defects4j"})
+    public String dataset;
+
+    @Param({"chawathe", "simplified-chawathe"})
+    public String generator;
+
+    private final List<MappingStore> mappings = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        for (Pair<TreeContext, TreeContext> pair : Datasets.trees(dataset))
+            mappings.add(new CompositeMatchers.SimpleGumtree().match(pair.first.getRoot(), pair.second.getRoot()));
+    }
+
+    @Benchmark
+    public void computeActions(Blackhole bh) {
+        for (MappingStore ms : mappings) {
+            EditScriptGenerator g = "chawathe".equals(generator)
+                    ? new ChawatheScriptGenerator() : new SimplifiedChawatheScriptGenerator();
+            bh.consume(g.computeActions(ms));
+        }
+    }
+}
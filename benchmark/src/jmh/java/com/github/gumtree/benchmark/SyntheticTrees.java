@@ -0,0 +1,80 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.tree.DefaultTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TypeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Utility class building deterministic random ASTs, used by the benchmarks
+ * that do not require real source files.
+ */
+public final class SyntheticTrees {
+    private static final int TYPES = 32;
+
+    private static final int LABELS = 256;
+
+    private SyntheticTrees() {}
+
+    /**
+     * Build a random tree with the given number of nodes, using the given seed.
+     * Each node has at most maxChildren children.
+     */
+    public static Tree randomTree(int size, int maxChildren, long seed) {
+        Random random = new Random(seed);
+        List<Tree> nodes = new ArrayList<>(size);
+        Tree root = newNode(random);
+        nodes.add(root);
+        for (int i = 1; i < size; i++) {
+            Tree parent = nodes.get(random.nextInt(nodes.size()));
+            while (parent.getChildren().size() >= maxChildren)
+                parent = nodes.get(random.nextInt(nodes.size()));
+            Tree node = newNode(random);
+            parent.addChild(node);
+            nodes.add(node);
+        }
+        return root;
+    }
+
+    /**
+     * Return a copy of the given tree where roughly the given ratio of labels
+     * have been changed, using the given seed.
+     */
+    public static Tree mutate(Tree tree, double ratio, long seed) {
+        Random random = new Random(seed);
+        Tree copy = tree.deepCopy();
+        for (Tree t : copy.preOrder())
+            if (t.hasLabel() && random.nextDouble() < ratio)
+                t.setLabel("l" + random.nextInt(LABELS));
+        return copy;
+    }
+
+    private static Tree newNode(Random random) {
+        Tree node = new DefaultTree(TypeSet.type("t" + random.nextInt(TYPES)));
+        if (random.nextBoolean())
+            node.setLabel("l" + random.nextInt(LABELS));
+        return node;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeMetricComputer;
+import com.github.gumtreediff.tree.TreeVisitor;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the computation of the metrics of the ASTs ({@link TreeMetricComputer})
+ * of a sample of a dataset, with or without the 64-bit fingerprints. Each operation computes
+ * the metrics of all the ASTs of the sample.
+ *
+ * @see Datasets
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TreeMetricsBenchmark {
+    @Param({"defects4j"})
+    public String dataset;
+
+    @Param({"true", "false"})
+    public boolean fingerprints;
+
+    private final List<Tree> roots = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        for (Pair<TreeContext, TreeContext> pair : Datasets.trees(dataset)) {
+            roots.add(pair.first.getRoot());
+            roots.add(pair.second.getRoot());
+        }
+    }
+
+    @Benchmark
+    public void computeMetrics() {
+        for (Tree root : roots)
+            TreeVisitor.visitTree(root, new TreeMetricComputer(tree -> null, fingerprints));
+    }
+}
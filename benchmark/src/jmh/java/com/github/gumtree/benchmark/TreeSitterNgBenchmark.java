@@ -0,0 +1,125 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.TreeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the tree-sitter-ng generators on a large synthetic file of each language.
+ * The file is made of a snippet repeated until reaching the given number of lines.
+ * The snippets contain non-ASCII characters, to measure the conversion of the byte
+ * offsets of tree-sitter to char offsets.
+ * The generators being thread-safe, a single instance is also shared by several threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TreeSitterNgBenchmark {
+    @Param({"c", "cmake", "cs", "go", "java", "js", "kotlin", "ocaml", "php", "python", "r", "ruby", "rust", "ts"})
+    public String language;
+
+    @Param({"20000"})
+    public int lines;
+
+    private String content;
+
+    private TreeGenerator instance;
+
+    @Setup
+    public void setup() {
+        instance = Datasets.generator(language + "-treesitter-ng");
+        content = source(language, lines);
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) throws IOException {
+        bh.consume(instance.generateFrom().string(content));
+    }
+
+    /**
+     * Parse with several threads sharing the same generator.
+     */
+    @Benchmark
+    @Threads(4)
+    public void parseConcurrently(Blackhole bh) throws IOException {
+        bh.consume(instance.generateFrom().string(content));
+    }
+
+    /**
+     * Build a source file of the given language having at least the given number of lines.
+     * The $N variable of the snippets is replaced by the index of the repetition.
+     */
+    static String source(String language, int lines) {
+        String[] parts = snippet(language);
+        StringBuilder b = new StringBuilder(parts[0]);
+        int snippetLines = (int) parts[1].chars().filter(c -> c == '\n').count();
+        for (int i = 0; i * snippetLines < lines; i++)
+            b.append(parts[1].replace("$N", Integer.toString(i)));
+        return b.append(parts[2]).toString();
+    }
+
+    private static String[] snippet(String language) {
+        switch (language) {
+            case "c":
+                return new String[] {"", "int f$N(int x) {\n    char *s = \"é\";\n    return x * $N;\n}\n", ""};
+            case "cmake":
+                return new String[] {"", "set(V$N \"é $N\")\nif(V$N)\n  message(STATUS \"${V$N}\")\nendif()\n", ""};
+            case "cs":
+                return new String[] {"class Big {\n",
+                        "    int F$N(int x) {\n        var s = \"é\";\n        return x * $N;\n    }\n", "}\n"};
+            case "go":
+                return new String[] {"package main\n",
+                        "func f$N(x int) int {\n\ts := \"é\"\n\t_ = s\n\treturn x * $N\n}\n", ""};
+            case "java":
+                return new String[] {"class Big {\n",
+                        "    int f$N(int x) {\n        String s = \"é\";\n        return x * $N;\n    }\n", "}\n"};
+            case "js":
+                return new String[] {"", "function f$N(x) {\n  const s = \"é\";\n  return x * $N;\n}\n", ""};
+            case "kotlin":
+                return new String[] {"", "fun f$N(x: Int): Int {\n    val s = \"é\"\n    return x * $N\n}\n", ""};
+            case "ocaml":
+                return new String[] {"", "let f$N x =\n  let s = \"é\" in\n  x * $N\n", ""};
+            case "php":
+                return new String[] {"<?php\n", "function f$N($x) {\n    $s = \"é\";\n    return $x * $N;\n}\n", ""};
+            case "python":
+                return new String[] {"", "def f$N(x):\n    s = \"é\"\n    return x * $N\n\n", ""};
+            case "r":
+                return new String[] {"", "f$N <- function(x) {\n  s <- \"é\"\n  x * $N\n}\n", ""};
+            case "ruby":
+                return new String[] {"", "def f$N(x)\n  s = \"é\"\n  x * $N\nend\n", ""};
+            case "rust":
+                return new String[] {"", "fn f$N(x: i32) -> i32 {\n    let s = \"é\";\n    x * $N\n}\n", ""};
+            case "ts":
+                return new String[] {"",
+                        "function f$N(x: number): number {\n  const s: string = \"é\";\n  return x * $N;\n}\n", ""};
+            default:
+                throw new IllegalArgumentException("Unknown language: " + language);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.TreeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the JDT generator on synthetic Java files whose nodes have many siblings: a class with
+ * many fields, a switch with many cases and an array initializer with many elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WideJavaFileBenchmark {
+    @Param({"fields", "switch", "array"})
+    public String shape;
+
+    @Param({"5000", "20000"})
+    public int width;
+
+    @Param({"java-jdt"})
+    public String generator;
+
+    private String content;
+
+    private TreeGenerator instance;
+
+    @Setup
+    public void setup() {
+        instance = Datasets.generator(generator);
+        content = source(shape, width);
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) throws IOException {
+        bh.consume(instance.generateFrom().string(content));
+    }
+
+    static String source(String shape, int width) {
+        StringBuilder b = new StringBuilder("class Wide {\n");
+        switch (shape) {
+            case "fields":
+                for (int i = 0; i < width; i++)
+                    b.append("    int f").append(i).append(" = ").append(i).append(";\n");
+                break;
+            case "switch":
+                b.append("    int f(int x) {\n        switch (x) {\n");
+                for (int i = 0; i < width; i++)
+                    b.append("            case ").append(i).append(": return x * ").append(i).append(";\n");
+                b.append("            default: return 0;\n        }\n    }\n");
+                break;
+            case "array":
+                b.append("    int[] values = {\n");
+                for (int i = 0; i < width; i++)
+                    b.append("        ").append(i).append(",\n");
+                b.append("    };\n");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return b.append("}\n").toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.client.diff;
+
+import com.github.gumtreediff.actions.BatchDiffRunner;
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.client.Option;
+import com.github.gumtreediff.client.Register;
+import com.github.gumtreediff.io.ActionsIoUtils;
+import com.github.gumtreediff.io.DirectoryComparator;
+import com.github.gumtreediff.utils.Pair;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Register(name = "batchdiff", description = "Diff all the modified files of two folders in parallel.",
+        options = BatchDiff.BatchDiffOptions.class)
+public class BatchDiff extends AbstractDiffClient<BatchDiff.BatchDiffOptions> {
+    public BatchDiff(String[] args) {
+        super(args);
+        if (!Files.isDirectory(Paths.get(opts.srcPath)))
+            throw new Option.OptionException("Source must be a folder: " + opts.srcPath, opts);
+        if (!Files.isDirectory(Paths.get(opts.dstPath)))
+            throw new Option.OptionException("Destination must be a folder: " + opts.dstPath, opts);
+    }
+
+    public static class BatchDiffOptions extends AbstractDiffClient.DiffOptions {
+        protected int threads = Runtime.getRuntime().availableProcessors();
+        protected long maxBytes = BatchDiffRunner.DEFAULT_MAX_CONCURRENT_BYTES;
+        protected String output;
+
+        @Override
+        public Option[] values() {
+            return Option.Context.addValue(super.values(),
+                    new Option("--threads", String.format("Number of threads (default to %d).", threads), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            int t = Integer.parseInt(args[0]);
+                            if (t > 0)
+                                threads = t;
+                            else
+                                System.err.printf("Invalid number of threads (%s), using %d.\n", args[0], threads);
+                        }
+                    },
+                    new Option("--max-bytes", String.format(
+                            "Maximum size of the files diffed at the same time (default to %d).", maxBytes), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            long b = Long.parseLong(args[0]);
+                            if (b > 0)
+                                maxBytes = b;
+                            else
+                                System.err.printf("Invalid maximum size (%s), using %d.\n", args[0], maxBytes);
+                        }
+                    },
+                    new Option("-o", "output folder for the JSON edit scripts", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            output = args[0];
+                        }
+                    }
+            );
+        }
+
+        @Override
+        void dump(PrintStream out) {
+            super.dump(out);
+            out.printf("threads: %d\n", threads);
+            out.printf("max bytes: %d\n", maxBytes);
+            out.printf("output folder: %s\n", output == null ? "<none>" : output);
+        }
+    }
+
+    @Override
+    protected BatchDiffOptions newOptions() {
+        return new BatchDiffOptions();
+    }
+
+    @Override
+    public void run() throws Exception {
+        DirectoryComparator comparator = new DirectoryComparator(opts.srcPath, opts.dstPath);
+        comparator.compare();
+
+        BatchDiffRunner runner = new BatchDiffRunner(opts.threads,
+                (src, dst) -> getDiff(src.getAbsolutePath(), dst.getAbsolutePath()));
+        runner.setMaxConcurrentBytes(opts.maxBytes);
+        int failures = runner.run(comparator, new BatchDiffRunner.DiffConsumer() {
+            @Override
+            public void accept(Pair<File, File> files, Diff diff) {
+                Path file = comparator.getSrc().relativize(files.first.toPath());
+                System.out.printf("%s\t%d\n", file, diff.editScript.size());
+                if (opts.output != null)
+                    write(file, diff);
+            }
+
+            @Override
+            public void failed(Pair<File, File> files, Throwable e) {
+                System.err.printf("Problem diffing %s: %s\n", files.first.getPath(), e);
+            }
+        });
+
+        if (failures > 0)
+            System.err.printf("%d file(s) could not be diffed.\n", failures);
+    }
+
+    private void write(Path file, Diff diff) {
+        try {
+            Path output = Paths.get(opts.output).resolve(file + ".json");
+            Files.createDirectories(output.getParent());
+            ActionsIoUtils.toJson(diff.src, diff.editScript, diff.mappings).writeTo(output.toFile());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
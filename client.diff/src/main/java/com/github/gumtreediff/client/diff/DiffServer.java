@@ -0,0 +1,400 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.client.diff;
+
+import com.github.gumtreediff.actions.ChawatheScriptGenerator;
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.client.Client;
+import com.github.gumtreediff.client.Option;
+import com.github.gumtreediff.client.Register;
+import com.github.gumtreediff.gen.TreeCache;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.ActionsIoUtils;
+import com.github.gumtreediff.matchers.ConfigurationOptions;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.Type;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import spark.Spark;
+
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static spark.Spark.*;
+
+/**
+ * A long-lived diff server, avoiding the startup and warmup costs of the JVM for each diff.
+ * The server listens on localhost and computes the diffs posted on /diff. A request is a JSON object
+ * with the src and dst contents, and optionally the ids of the tree generator and matcher
+ * and the matcher properties:
+ * <pre>
+ * {"src": "...", "dst": "...", "generator": "java-jdt", "matcher": "gumtree", "properties": {"bu_minsim": 0.4}}
+ * </pre>
+ * The response is the edit script in the JSON format of {@link ActionsIoUtils#toJson}. A batch of requests
+ * can be posted as a JSON array, in which case the response is an array of edit scripts (or of objects
+ * with an error field for the failed requests). The diffs are computed on a bounded pool,
+ * with a bounded number of waiting diffs: when it is full, the server answers with the 503 status.
+ * The ASTs are parsed via the {@link TreeCache} of the tree generators (see
+ * {@link TreeGenerators#getTree(java.io.Reader, String)}), keyed on the generator and the hash
+ * of the contents, so that the contents posted several times are parsed only once.
+ */
+@Register(name = "diffserver", description = "Long-lived server computing the diffs posted as JSON.",
+        options = DiffServer.DiffServerOptions.class)
+public class DiffServer extends Client {
+    private static final String SYNTAX = "Syntax: diffserver [options]";
+
+    private static final int WARMUP_TREE_SIZE = 200;
+
+    private final DiffServerOptions opts;
+
+    private ThreadPoolExecutor pool;
+
+    private final AtomicLong diffs = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    public DiffServer(String[] args) {
+        super(args);
+        opts = new DiffServerOptions();
+        args = Option.processCommandLine(args, opts);
+        if (args.length > 0)
+            throw new Option.OptionException("No argument expected. " + SYNTAX, opts);
+
+        if (opts.matcherId != null && Matchers.getInstance().findById(opts.matcherId) == null)
+            throw new Option.OptionException("Error loading matcher: " + opts.matcherId);
+
+        if (opts.treeGeneratorId != null && TreeGenerators.getInstance().findById(opts.treeGeneratorId) == null)
+            throw new Option.OptionException("Error loading tree generator: " + opts.treeGeneratorId);
+    }
+
+    public static class DiffServerOptions implements Option.Context {
+        public static final int DEFAULT_PORT = 4568;
+        public int port = DEFAULT_PORT;
+        public int threads = Runtime.getRuntime().availableProcessors();
+        public int queue = 1024;
+        public int warmup = 100;
+        public String cacheDir;
+        public String matcherId;
+        public String treeGeneratorId;
+        public GumtreeProperties properties = new GumtreeProperties();
+
+        @Override
+        public Option[] values() {
+            return new Option[] {
+                    new Option("--port", String.format("Set server port (default to %d).", DEFAULT_PORT), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            int p = Integer.parseInt(args[0]);
+                            if (p > 0)
+                                port = p;
+                            else
+                                System.err.printf("Invalid port number (%s), using %d.\n", args[0], port);
+                        }
+                    },
+                    new Option("--threads", String.format("Number of threads (default to %d).", threads), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            int t = Integer.parseInt(args[0]);
+                            if (t > 0)
+                                threads = t;
+                            else
+                                System.err.printf("Invalid number of threads (%s), using %d.\n", args[0], threads);
+                        }
+                    },
+                    new Option("--queue", String.format(
+                            "Maximum number of diffs waiting for a thread (default to %d).", queue), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            int q = Integer.parseInt(args[0]);
+                            if (q > 0)
+                                queue = q;
+                            else
+                                System.err.printf("Invalid queue size (%s), using %d.\n", args[0], queue);
+                        }
+                    },
+                    new Option("--warmup", String.format(
+                            "Number of warmup diffs per matcher (default to %d).", warmup), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            int w = Integer.parseInt(args[0]);
+                            if (w >= 0)
+                                warmup = w;
+                            else
+                                System.err.printf("Invalid number of warmup diffs (%s), using %d.\n", args[0], warmup);
+                        }
+                    },
+                    new Option("--cache-dir", "Folder where the parsed ASTs are stored between runs.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            cacheDir = args[0];
+                        }
+                    },
+                    new Option("-m", "Id of the matcher used when a request does not provide one.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            matcherId = args[0];
+                        }
+                    },
+                    new Option("-g", "Id of the tree generator used when a request does not provide one.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            treeGeneratorId = args[0];
+                        }
+                    },
+                    new Option("-M", "Add a default matcher property (-M property value). Available: "
+                            + Arrays.toString(ConfigurationOptions.values()) + ".", 2) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            properties.put(ConfigurationOptions.valueOf(args[0]), args[1]);
+                        }
+                    },
+                    new Option.Help(this) {
+                        @Override
+                        public void process(String name, String[] args) {
+                            System.out.println(SYNTAX);
+                            super.process(name, args);
+                        }
+                    }
+            };
+        }
+
+        void dump(PrintStream out) {
+            out.printf("port: %d\n", port);
+            out.printf("threads: %d\n", threads);
+            out.printf("queue: %d\n", queue);
+            out.printf("warmup: %d\n", warmup);
+            out.printf("Tree generator id: %s\n", treeGeneratorId);
+            out.printf("Matcher id: %s\n", matcherId);
+            out.printf("Properties: %s\n", properties.toString());
+        }
+    }
+
+    @Override
+    public void run() {
+        if (Option.Verbose.verbose)
+            opts.dump(System.out);
+
+        TreeGenerators.getInstance().setCache(new TreeCache(TreeCache.DEFAULT_MAX_NODES,
+                opts.cacheDir == null ? null : Paths.get(opts.cacheDir)));
+        pool = new ThreadPoolExecutor(opts.threads, opts.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(opts.queue));
+        pool.prestartAllCoreThreads();
+        warmup();
+
+        configureSpark(opts.port);
+        Spark.awaitInitialization();
+        System.out.println(String.format("Starting server: %s:%d.", "http://127.0.0.1", opts.port));
+    }
+
+    public void configureSpark(int port) {
+        ipAddress("127.0.0.1");
+        port(port);
+        post("/diff", (request, response) -> {
+            response.type("application/json");
+            JsonElement body;
+            try {
+                body = JsonParser.parseString(request.body());
+            } catch (JsonParseException e) {
+                response.status(400);
+                return error("Malformed request: " + e.getMessage());
+            }
+
+            List<JsonElement> items = new ArrayList<>();
+            if (body.isJsonArray())
+                body.getAsJsonArray().forEach(items::add);
+            else
+                items.add(body);
+
+            List<Future<DiffResult>> results = new ArrayList<>(items.size());
+            try {
+                for (JsonElement item : items)
+                    results.add(pool.submit(() -> diff(item)));
+            } catch (RejectedExecutionException e) {
+                rejections.incrementAndGet();
+                for (Future<DiffResult> result : results)
+                    result.cancel(false);
+                response.status(503);
+                return error("Too many pending diffs, retry later.");
+            }
+
+            List<DiffResult> outputs = new ArrayList<>(results.size());
+            for (Future<DiffResult> result : results)
+                outputs.add(await(result));
+
+            if (body.isJsonArray()) {
+                StringJoiner joiner = new StringJoiner(",\n", "[", "]");
+                for (DiffResult output : outputs)
+                    joiner.add(output.json);
+                return joiner.toString();
+            }
+            DiffResult output = outputs.get(0);
+            if (output.failed)
+                response.status(400);
+            return output.json;
+        });
+        get("/status", (request, response) -> {
+            response.type("application/json");
+            JsonObject status = new JsonObject();
+            status.addProperty("diffs", diffs.get());
+            status.addProperty("failures", failures.get());
+            status.addProperty("rejections", rejections.get());
+            status.addProperty("pending", pool.getQueue().size());
+            status.addProperty("cache", String.valueOf(TreeGenerators.getInstance().getCache()));
+            return status.toString();
+        });
+        get("/quit", (request, response) -> {
+            System.exit(0);
+            return "";
+        });
+    }
+
+    /**
+     * The outcome of a diff: either an edit script or an error, in JSON.
+     */
+    private static final class DiffResult {
+        final String json;
+
+        final boolean failed;
+
+        private DiffResult(String json, boolean failed) {
+            this.json = json;
+            this.failed = failed;
+        }
+
+        static DiffResult success(String json) {
+            return new DiffResult(json, false);
+        }
+
+        static DiffResult failure(String message) {
+            return new DiffResult(error(message), true);
+        }
+    }
+
+    private DiffResult diff(JsonElement item) {
+        try {
+            if (!item.isJsonObject())
+                throw new IllegalArgumentException("Expecting a JSON object.");
+            JsonObject request = item.getAsJsonObject();
+            if (!request.has("src") || !request.has("dst"))
+                throw new IllegalArgumentException("Expecting src and dst fields.");
+
+            String generator = request.has("generator") ? request.get("generator").getAsString()
+                    : opts.treeGeneratorId;
+            if (generator == null)
+                throw new IllegalArgumentException("Expecting a generator field.");
+            String matcher = request.has("matcher") ? request.get("matcher").getAsString() : opts.matcherId;
+
+            GumtreeProperties properties = new GumtreeProperties();
+            for (ConfigurationOptions option : ConfigurationOptions.values())
+                if (opts.properties.get(option) != null)
+                    properties.put(option, opts.properties.get(option));
+            if (request.has("properties"))
+                for (Map.Entry<String, JsonElement> e : request.getAsJsonObject("properties").entrySet())
+                    properties.put(ConfigurationOptions.valueOf(e.getKey()), e.getValue().getAsString());
+
+            Diff diff = Diff.compute(new StringReader(request.get("src").getAsString()),
+                    new StringReader(request.get("dst").getAsString()), generator, matcher, properties);
+            diffs.incrementAndGet();
+            return DiffResult.success(ActionsIoUtils.toJson(diff.src, diff.editScript, diff.mappings).toString());
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            return DiffResult.failure(e.toString());
+        }
+    }
+
+    private static DiffResult await(Future<DiffResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DiffResult.failure("Interrupted.");
+        } catch (ExecutionException e) {
+            return DiffResult.failure(e.getCause().toString());
+        }
+    }
+
+    private static String error(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        return error.toString();
+    }
+
+    /**
+     * Run the default matcher and the script generator on each thread of the pool, so that
+     * the registries are loaded and the code is compiled before the first request. The warmup
+     * trees only use the empty type, so that no type is registered in the global type set.
+     */
+    private void warmup() {
+        if (opts.warmup == 0)
+            return;
+
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < opts.threads; i++)
+            runs.add(pool.submit(() -> {
+                Random random = new Random();
+                for (int j = 0; j < opts.warmup; j++) {
+                    TreeContext src = randomTree(random);
+                    TreeContext dst = randomTree(random);
+                    Matcher m = Matchers.getInstance().getMatcherWithFallback(opts.matcherId);
+                    m.configure(opts.properties);
+                    new ChawatheScriptGenerator().computeActions(m.match(src.getRoot(), dst.getRoot()));
+                }
+            }));
+        for (Future<?> run : runs)
+            awaitWarmup(run);
+    }
+
+    private static void awaitWarmup(Future<?> run) {
+        try {
+            run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.printf("Problem during warmup: %s\n", e.getCause());
+        }
+    }
+
+    private static TreeContext randomTree(Random random) {
+        TreeContext ctx = new TreeContext();
+        List<Tree> nodes = new ArrayList<>();
+        Tree root = ctx.createTree(Type.NO_TYPE);
+        nodes.add(root);
+        for (int i = 1; i < WARMUP_TREE_SIZE; i++) {
+            Tree t = ctx.createTree(Type.NO_TYPE,
+                    random.nextBoolean() ? Tree.NO_LABEL : "l" + random.nextInt(16));
+            nodes.get(random.nextInt(nodes.size())).addChild(t);
+            nodes.add(t);
+        }
+        ctx.setRoot(root);
+        return ctx;
+    }
+}
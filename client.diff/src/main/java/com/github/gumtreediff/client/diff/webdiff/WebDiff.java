@@ -24,6 +24,8 @@ import com.github.gumtreediff.actions.Diff;
 import com.github.gumtreediff.client.Option;
 import com.github.gumtreediff.client.Register;
 import com.github.gumtreediff.client.diff.AbstractDiffClient;
+import com.github.gumtreediff.gen.TreeCache;
+import com.github.gumtreediff.gen.TreeGenerators;
 import com.github.gumtreediff.utils.Registry;
 import com.github.gumtreediff.io.DirectoryComparator;
 import com.github.gumtreediff.utils.Pair;
@@ -51,6 +53,7 @@ public class WebDiff extends AbstractDiffClient<WebDiff.WebDiffOptions> {
     public static class WebDiffOptions extends AbstractDiffClient.DiffOptions {
         public static final int DEFAULT_PORT = 4567;
         public int port = DEFAULT_PORT;
+        public String cacheDir;
 
         @Override
         public Option[] values() {
@@ -64,6 +67,12 @@ public class WebDiff extends AbstractDiffClient<WebDiff.WebDiffOptions> {
                             else
                                 System.err.printf("Invalid port number (%s), using %d.\n", args[0], port);
                         }
+                    },
+                    new Option("--cache-dir", "Folder where the parsed ASTs are stored between runs.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            cacheDir = args[0];
+                        }
                     }
             );
         }
@@ -78,6 +87,8 @@ public class WebDiff extends AbstractDiffClient<WebDiff.WebDiffOptions> {
     public void run() {
         DirectoryComparator comparator = new DirectoryComparator(opts.srcPath, opts.dstPath);
         comparator.compare();
+        TreeGenerators.getInstance().setCache(new TreeCache(TreeCache.DEFAULT_MAX_NODES,
+                opts.cacheDir == null ? null : Paths.get(opts.cacheDir)));
         configureSpark(comparator, opts.port);
         Spark.awaitInitialization();
         System.out.println(String.format("Starting server: %s:%d.", "http://127.0.0.1", opts.port));
@@ -150,6 +150,12 @@ public class ParseClient extends Client {
             TreeIoUtils.TreeSerializer getSerializer(TreeContext ctx) {
                 return TreeIoUtils.toText(ctx);
             }
+        },
+        BINARY {
+            @Override
+            TreeIoUtils.TreeSerializer getSerializer(TreeContext ctx) {
+                return TreeIoUtils.toBinary(ctx);
+            }
         };
 
         abstract TreeIoUtils.TreeSerializer getSerializer(TreeContext ctx);
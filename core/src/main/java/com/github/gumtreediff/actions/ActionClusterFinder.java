@@ -20,12 +20,12 @@
 package com.github.gumtreediff.actions;
 
 import com.github.gumtreediff.actions.model.*;
+import com.github.gumtreediff.tree.Tree;
 import org.jgrapht.alg.connectivity.ConnectivityInspector;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class ActionClusterFinder {
     private DefaultDirectedGraph<Action, DefaultEdge> graph;
@@ -35,64 +35,58 @@ public class ActionClusterFinder {
     public ActionClusterFinder(EditScript actions) {
         graph = new DefaultDirectedGraph<>(DefaultEdge.class);
 
-        for (Action a: actions)
+        // The actions are indexed by the node they are linked to, to avoid comparing all the pairs of actions.
+        Map<Tree, List<Action>> insertsByNode = new HashMap<>();
+        Map<Tree, List<Action>> deletesByNode = new HashMap<>();
+        Map<Tree, List<Action>> movesByParent = new HashMap<>();
+        Map<String, List<Action>> updatesByValue = new HashMap<>();
+        for (Action a: actions) {
             graph.addVertex(a);
+            if (a instanceof Insert)
+                insertsByNode.computeIfAbsent(a.getNode(), k -> new ArrayList<>()).add(a);
+            else if (a instanceof Delete)
+                deletesByNode.computeIfAbsent(a.getNode(), k -> new ArrayList<>()).add(a);
+            else if (a instanceof Move && a.getNode() != null && a.getNode().getParent() != null)
+                movesByParent.computeIfAbsent(a.getNode().getParent(), k -> new ArrayList<>()).add(a);
+            else if (a instanceof Update)
+                updatesByValue.computeIfAbsent(((Update) a).getValue(), k -> new ArrayList<>()).add(a);
+        }
 
-
-        for (Action a1: actions) {
-            for (Action a2: actions) {
-                if (a1 != a2) {
-                    if (embeddedInserts(a1, a2) || sameValueUpdates(a1, a2)
-                            || sameParentMoves(a1, a2) || embeddedDeletes(a1, a2))
-                        graph.addEdge(a1, a2);
-                }
-            }
+        for (Action a2: actions) {
+            if (a2 instanceof Insert)
+                addEdges(insertsByNode.get(((Insert) a2).getParent()), a2);
+            else if (a2 instanceof Delete && a2.getNode().getParent() != null)
+                addEdges(deletesByNode.get(a2.getNode().getParent()), a2);
         }
 
+        // Moves with the same parent and updates with the same value are all connected together,
+        // which is done by linking each action to the next one.
+        for (List<Action> moves : movesByParent.values())
+            addChain(moves);
+        for (List<Action> updates : updatesByValue.values())
+            addChain(updates);
+
         ConnectivityInspector<Action, DefaultEdge> alg = new ConnectivityInspector<>(graph);
         clusters = alg.connectedSets();
     }
 
-    public List<Set<Action>> getClusters() {
-        return clusters;
-    }
-
-    private boolean embeddedInserts(Action a1, Action a2) {
-        if (!(a1 instanceof Insert && a2 instanceof Insert))
-            return false;
-        Insert i1 = (Insert) a1;
-        Insert i2 = (Insert) a2;
-        return i2.getParent().equals(i1.getNode());
-    }
-
-    private boolean embeddedDeletes(Action a1, Action a2) {
-        if (!(a1 instanceof Delete && a2 instanceof Delete))
-            return false;
-        Delete d1 = (Delete) a1;
-        Delete d2 = (Delete) a2;
-        if (d2.getNode().getParent() == null)
-            return false;
-        return d2.getNode().getParent().equals(d1.getNode());
+    private void addEdges(List<Action> sources, Action target) {
+        if (sources == null)
+            return;
+        for (Action source : sources)
+            if (source != target)
+                graph.addEdge(source, target);
     }
 
-    private boolean sameParentMoves(Action a1, Action a2) {
-        if (!(a1 instanceof Move && a2 instanceof Move))
-            return false;
-        Move m1 = (Move) a1;
-        Move m2 = (Move) a2;
-        if (m1.getNode() == null)
-            return false;
-        if (m2.getNode() == null)
-            return false;
-        return m1.getNode().getParent().equals(m2.getNode().getParent());
+    private void addChain(List<Action> chain) {
+        for (int i = 1; i < chain.size(); i++) {
+            graph.addEdge(chain.get(i - 1), chain.get(i));
+            graph.addEdge(chain.get(i), chain.get(i - 1));
+        }
     }
 
-    private boolean sameValueUpdates(Action a1, Action a2) {
-        if (!(a1 instanceof Update && a2 instanceof Update))
-            return false;
-        Update u1 = (Update) a1;
-        Update u2 = (Update) a2;
-        return u1.getValue().equals(u2.getValue());
+    public List<Set<Action>> getClusters() {
+        return clusters;
     }
 
     public String getClusterLabel(Set<Action> cluster) {
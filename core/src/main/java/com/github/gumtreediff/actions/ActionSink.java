@@ -0,0 +1,38 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.actions.model.Action;
+
+/**
+ * Interface for the consumers of the actions computed by a script generator.
+ * Using a sink rather than an edit script, the actions can be processed (e.g. written)
+ * as soon as they are computed, without storing the whole edit script in memory.
+ *
+ * @see EditScriptGenerator#computeActions(com.github.gumtreediff.matchers.MappingStore, ActionSink)
+ * @see com.github.gumtreediff.io.ActionsIoUtils.ActionStreamWriter
+ */
+@FunctionalInterface
+public interface ActionSink {
+    /**
+     * Consume the given action. The actions are given in the order of the edit script.
+     */
+    void accept(Action action);
+}
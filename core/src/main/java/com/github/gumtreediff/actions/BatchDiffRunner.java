@@ -0,0 +1,183 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.io.DirectoryComparator;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.utils.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class to compute the diffs of a batch of file pairs in parallel.
+ * The file pairs are diffed from the largest to the smallest on a work-stealing
+ * pool, to avoid having a large file delaying the end of the batch. Since the memory
+ * required by a diff is roughly proportional to the size of the diffed files,
+ * the total size of the files being diffed at the same time is bounded.
+ *
+ * @see DirectoryComparator
+ */
+public class BatchDiffRunner {
+    /**
+     * The default bound on the size of the files being diffed at the same time.
+     */
+    public static final long DEFAULT_MAX_CONCURRENT_BYTES = 64L * 1024 * 1024;
+
+    private static final int BYTES_PER_PERMIT = 1024;
+
+    /**
+     * Interface for the function computing the diff of a file pair.
+     */
+    @FunctionalInterface
+    public interface DiffFunction {
+        Diff compute(File src, File dst) throws IOException;
+    }
+
+    /**
+     * Interface for the consumer of the diffs. The diffs are given to the consumer
+     * as soon as they are computed, in no particular order. The calls to the consumer
+     * are never concurrent.
+     */
+    public interface DiffConsumer {
+        void accept(Pair<File, File> files, Diff diff);
+
+        /**
+         * Called when the diff of the given file pair has failed, including with an error
+         * such as a {@link StackOverflowError} on a deep AST or an {@link OutOfMemoryError} on a huge pair.
+         */
+        default void failed(Pair<File, File> files, Throwable e) {}
+    }
+
+    private final int threads;
+
+    private final DiffFunction function;
+
+    private long maxConcurrentBytes = DEFAULT_MAX_CONCURRENT_BYTES;
+
+    /**
+     * Instantiate a runner using the given number of threads and diff function.
+     */
+    public BatchDiffRunner(int threads, DiffFunction function) {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least one thread is required, got: " + threads);
+        this.threads = threads;
+        this.function = function;
+    }
+
+    /**
+     * Instantiate a runner using the given number of threads, computing the diffs with
+     * the provided tree generator, matcher and properties.
+     *
+     * @see Diff#compute(String, String, String, String, GumtreeProperties)
+     */
+    public BatchDiffRunner(int threads, String treeGenerator, String matcher, GumtreeProperties properties) {
+        this(threads, (src, dst) -> Diff.compute(src.getPath(), dst.getPath(), treeGenerator, matcher, properties));
+    }
+
+    /**
+     * Set the bound on the total size (in bytes) of the files being diffed at the same time.
+     * A file pair larger than this bound is diffed alone.
+     */
+    public void setMaxConcurrentBytes(long maxConcurrentBytes) {
+        if (maxConcurrentBytes < 1)
+            throw new IllegalArgumentException("Expecting a positive bound, got: " + maxConcurrentBytes);
+        this.maxConcurrentBytes = maxConcurrentBytes;
+    }
+
+    public long getMaxConcurrentBytes() {
+        return maxConcurrentBytes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Compute the diffs of the modified files of the given directory comparator.
+     *
+     * @return the number of file pairs whose diff has failed.
+     * @see DirectoryComparator#getModifiedFiles()
+     */
+    public int run(DirectoryComparator comparator, DiffConsumer consumer) throws InterruptedException {
+        return run(comparator.getModifiedFiles(), consumer);
+    }
+
+    /**
+     * Compute the diffs of the given file pairs, and give them to the consumer as soon as they
+     * are computed. This method returns when all the diffs have been computed.
+     *
+     * @return the number of file pairs whose diff has failed.
+     */
+    public int run(List<Pair<File, File>> pairs, DiffConsumer consumer) throws InterruptedException {
+        List<Pair<File, File>> todo = new ArrayList<>(pairs);
+        todo.sort(Comparator.comparingLong(BatchDiffRunner::sizeOf).reversed());
+
+        int totalPermits = permits(maxConcurrentBytes);
+        Semaphore budget = new Semaphore(totalPermits);
+        CountDownLatch remaining = new CountDownLatch(todo.size());
+        AtomicInteger failures = new AtomicInteger();
+        Object consumerLock = new Object();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Pair<File, File> pair : todo) {
+                int permits = Math.min(permits(sizeOf(pair)), totalPermits);
+                budget.acquire(permits);
+                pool.execute(() -> {
+                    try {
+                        Diff diff = function.compute(pair.first, pair.second);
+                        synchronized (consumerLock) {
+                            consumer.accept(pair, diff);
+                        }
+                    } catch (Throwable e) {
+                        failures.incrementAndGet();
+                        synchronized (consumerLock) {
+                            consumer.failed(pair, e);
+                        }
+                    } finally {
+                        budget.release(permits);
+                        remaining.countDown();
+                    }
+                });
+            }
+            remaining.await();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return failures.get();
+    }
+
+    private static long sizeOf(Pair<File, File> pair) {
+        return pair.first.length() + pair.second.length();
+    }
+
+    private static int permits(long bytes) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / BYTES_PER_PERMIT));
+    }
+}
@@ -25,13 +25,27 @@ import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.tree.FakeTree;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.SequenceAlgorithms;
 
 import java.util.*;
 
 /**
  * An edit script generator based upon Chawathe algorithm.
+ * The actions are given to the sinks as soon as they are computed, therefore the memory
+ * used when generating into a sink only depends on the size of the ASTs.
+ *
+ * @see #computeActions(MappingStore, ActionSink)
  */
 public class ChawatheScriptGenerator implements EditScriptGenerator {
+    /**
+     * Above this number of mapped children, the children are aligned using a
+     * longest increasing subsequence rather than the quadratic dynamic programming algorithm.
+     * Both produce the same alignment.
+     *
+     * @see SequenceAlgorithms#longestCommonSubsequenceOfMatching(int[])
+     */
+    private static final int DYNAMIC_LCS_MAX_CHILDREN = 32;
+
     private Tree origSrc;
 
     private Tree cpySrc;
@@ -46,7 +60,7 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
 
     private Set<Tree> srcInOrder;
 
-    private EditScript actions;
+    private ActionSink actions;
 
     private Map<Tree, Tree> origToCopy;
 
@@ -55,8 +69,13 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
     @Override
     public EditScript computeActions(MappingStore ms) {
         initWith(ms);
-        generate();
-        return actions;
+        return generate();
+    }
+
+    @Override
+    public void computeActions(MappingStore ms, ActionSink sink) {
+        initWith(ms);
+        generate(sink);
     }
 
     public void initWith(MappingStore ms) {
@@ -80,12 +99,21 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
     }
 
     public EditScript generate() {
+        EditScript actions = new EditScript();
+        generate(actions::add);
+        return actions;
+    }
+
+    /**
+     * Generate the edit script, giving its actions to the provided sink as soon as they are computed.
+     */
+    public void generate(ActionSink sink) {
         Tree srcFakeRoot = new FakeTree(cpySrc);
         Tree dstFakeRoot = new FakeTree(origDst);
         cpySrc.setParent(srcFakeRoot);
         origDst.setParent(dstFakeRoot);
 
-        actions = new EditScript();
+        actions = sink;
         dstInOrder = new HashSet<>();
         srcInOrder = new HashSet<>();
 
@@ -104,7 +132,7 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
                 // In order to use the real nodes from the second tree, we
                 // furnish x instead of w
                 Action ins = new Insert(x, copyToOrig.get(z), k);
-                actions.add(ins);
+                actions.accept(ins);
                 copyToOrig.put(w, x);
                 cpyMappings.addMapping(w, x);
                 z.insertChild(w, k);
@@ -113,14 +141,14 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
                 if (!x.equals(origDst)) { // TODO => x != origDst // Case of the root
                     Tree v = w.getParent();
                     if (!w.getLabel().equals(x.getLabel())) {
-                        actions.add(new Update(copyToOrig.get(w), x.getLabel()));
+                        actions.accept(new Update(copyToOrig.get(w), x.getLabel()));
                         w.setLabel(x.getLabel());
                     }
                     // 親が一緒なら子供でlcs、異なるなら移動
                     if (!z.equals(v)) {
                         int k = findPos(x);
                         Action mv = new Move(copyToOrig.get(w), copyToOrig.get(z), k);
-                        actions.add(mv);
+                        actions.accept(mv);
                         int oldk = w.positionInParent();
                         w.getParent().getChildren().remove(oldk);
                         z.insertChild(w, k);
@@ -135,48 +163,50 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
 
         for (Tree w : cpySrc.postOrder())
             if (!cpyMappings.isSrcMapped(w))
-                actions.add(new Delete(copyToOrig.get(w)));
+                actions.accept(new Delete(copyToOrig.get(w)));
 
-        return actions;
+        actions = null;
     }
 
     private void alignChildren(Tree w, Tree x) {
-        srcInOrder.removeAll(w.getChildren());
-        dstInOrder.removeAll(x.getChildren());
+        for (Tree c : w.getChildren())
+            srcInOrder.remove(c);
+        for (Tree c : x.getChildren())
+            dstInOrder.remove(c);
 
         List<Tree> s1 = new ArrayList<>();
         for (Tree c: w.getChildren())
             if (cpyMappings.isSrcMapped(c))
-                if (x.getChildren().contains(cpyMappings.getDstForSrc(c)))
+                if (cpyMappings.getDstForSrc(c).getParent() == x)
                     s1.add(c);
 
         List<Tree> s2 = new ArrayList<>();
         for (Tree c: x.getChildren())
             if (cpyMappings.isDstMapped(c))
-                if (w.getChildren().contains(cpyMappings.getSrcForDst(c)))
+                if (cpyMappings.getSrcForDst(c).getParent() == w)
                     s2.add(c);
 
-        List<Mapping> lcs = lcs(s1, s2);
+        List<Mapping> lcs = s1.size() > DYNAMIC_LCS_MAX_CHILDREN ? matchingLcs(s1, s2) : lcs(s1, s2);
 
+        Set<Tree> lcsDsts = new HashSet<>();
         for (Mapping m : lcs) {
             srcInOrder.add(m.first);
             dstInOrder.add(m.second);
+            lcsDsts.add(m.second);
         }
 
         for (Tree b: s2 ) { // iterate through s2 first, to ensure left-to-right insertions
-            for (Tree a : s1) {
-                if (cpyMappings.has(a, b)) {
-                    if (!lcs.contains(new Mapping(a, b))) {
-                        a.getParent().getChildren().remove(a); // remove this node directly.
-                        int k = findPos(b); // find insert position AFTER removing node from old place.
-                        Action mv = new Move(copyToOrig.get(a), copyToOrig.get(w), k);
-                        actions.add(mv);
-                        w.getChildren().add(k, a);
-                        a.setParent(w);
-                        srcInOrder.add(a);
-                        dstInOrder.add(b);
-                    }
-                }
+            // b is mapped to exactly one node of s1
+            Tree a = cpyMappings.getSrcForDst(b);
+            if (!lcsDsts.contains(b)) {
+                a.getParent().getChildren().remove(a); // remove this node directly.
+                int k = findPos(b); // find insert position AFTER removing node from old place.
+                Action mv = new Move(copyToOrig.get(a), copyToOrig.get(w), k);
+                actions.accept(mv);
+                w.getChildren().add(k, a);
+                a.setParent(w);
+                srcInOrder.add(a);
+                dstInOrder.add(b);
             }
         }
     }
@@ -237,4 +267,18 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
 
         return lcs;
     }
+
+    private List<Mapping> matchingLcs(List<Tree> x, List<Tree> y) {
+        Map<Tree, Integer> positions = new HashMap<>(x.size() * 2);
+        for (int i = 0; i < x.size(); i++)
+            positions.put(x.get(i), i);
+        int[] matches = new int[y.size()];
+        for (int j = 0; j < y.size(); j++)
+            matches[j] = positions.get(cpyMappings.getSrcForDst(y.get(j)));
+
+        List<Mapping> lcs = new ArrayList<>();
+        for (int[] m : SequenceAlgorithms.longestCommonSubsequenceOfMatching(matches))
+            lcs.add(new Mapping(x.get(m[0]), y.get(m[1])));
+        return lcs;
+    }
 }
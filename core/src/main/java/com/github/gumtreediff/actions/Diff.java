@@ -93,12 +93,16 @@ public class Diff {
         Matcher m = Matchers.getInstance().getMatcherWithFallback(matcher);
         m.configure(properties);
         MappingStore mappings = m.match(src.getRoot(), dst.getRoot());
+        return new Diff(src, dst, mappings, computeEditScript(mappings));
+    }
+
+    static EditScript computeEditScript(MappingStore mappings) {
 //        Matcher rm = new TokenMatcher();
 //        var remappings = rm.match(src.getRoot(), dst.getRoot(), mappings);
         EditScript editScript = new SimplifiedChawatheScriptGenerator().computeActions(mappings);
 //        removeUnnecessaryMove(editScript, remappings);
         removeMove(editScript, mappings);
-        return new Diff(src, dst, mappings, editScript);
+        return editScript;
     }
 
     private static void removeMove(EditScript editScript, MappingStore mappings) {
@@ -158,7 +162,7 @@ public class Diff {
 
     private static boolean isInOtherMove(Move rm, List<Move> moveActions) {
         for (var ma : moveActions) {
-            if (ma.getNode().getDescendants().contains(rm.getNode())) {
+            if (rm.getNode().isDescendantOf(ma.getNode())) {
                 return true;
             }
         }
@@ -332,7 +336,7 @@ public class Diff {
 
     private static boolean treeIncludedOtherMove(List<Tree> moveTrees, Tree target) {
         for (Tree t : moveTrees) {
-            if (t.getDescendants().contains(target)) {
+            if (target.isDescendantOf(t)) {
                 return true;
             }
         }
@@ -0,0 +1,207 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.gen.IncrementalTreeGenerator;
+import com.github.gumtreediff.gen.TextEdit;
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.matchers.*;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Class to maintain a diff between a source text and a destination text being edited,
+ * for instance in an editor. After each edit of the destination text, the diff is updated
+ * incrementally:
+ * <ul>
+ *     <li>the destination text is reparsed, incrementally if the tree generator
+ *     is an {@link IncrementalTreeGenerator},</li>
+ *     <li>the mappings of the subtrees located before and after the edit are kept, when their
+ *     hash is unchanged,</li>
+ *     <li>the matcher is only run on the deepest subtree containing the edit.</li>
+ * </ul>
+ * This class is not thread-safe.
+ *
+ * @see Diff
+ */
+public class DiffSession {
+    private final TreeGenerator generator;
+
+    private final Matcher matcher;
+
+    private String dstContent;
+
+    private Diff diff;
+
+    private int reusedMappings;
+
+    /**
+     * Instantiate a session between the provided source and destination texts, using the
+     * tree generator and the matcher with the provided ids, configured with the provided options.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public DiffSession(String srcContent, String dstContent, String treeGenerator,
+                       String matcher, GumtreeProperties properties) throws IOException {
+        this.generator = TreeGenerators.getInstance().getGenerator(treeGenerator);
+        this.matcher = Matchers.getInstance().getMatcherWithFallback(matcher);
+        this.matcher.configure(properties);
+        this.dstContent = dstContent;
+
+        TreeContext src = generator.generateFrom().string(srcContent);
+        TreeContext dst = generator instanceof IncrementalTreeGenerator
+                ? ((IncrementalTreeGenerator) generator).generateReparsable(dstContent)
+                : generator.generateFrom().string(dstContent);
+        MappingStore mappings = this.matcher.match(src.getRoot(), dst.getRoot());
+        diff = new Diff(src, dst, mappings, Diff.computeEditScript(mappings));
+    }
+
+    /**
+     * Return the current diff.
+     */
+    public Diff getDiff() {
+        return diff;
+    }
+
+    /**
+     * Return the current destination text.
+     */
+    public String getDstContent() {
+        return dstContent;
+    }
+
+    /**
+     * Return the number of mappings of the current diff that have been kept from the previous one.
+     */
+    public int getReusedMappings() {
+        return reusedMappings;
+    }
+
+    /**
+     * Replace the length characters of the destination text starting at the provided offset
+     * by the provided text, and return the updated diff.
+     */
+    public Diff edit(int offset, int length, String text) throws IOException {
+        return edit(new TextEdit(offset, length, text));
+    }
+
+    /**
+     * Apply the provided edit to the destination text, and return the updated diff.
+     */
+    public Diff edit(TextEdit edit) throws IOException {
+        String content = edit.apply(dstContent);
+        TreeContext previous = diff.dst;
+        TreeContext dst = generator instanceof IncrementalTreeGenerator
+                ? ((IncrementalTreeGenerator) generator).reparse(previous, edit, content)
+                : generator.generateFrom().string(content);
+
+        MappingStore mappings = rematch(previous.getRoot(), dst.getRoot(), edit);
+        diff = new Diff(diff.src, dst, mappings, Diff.computeEditScript(mappings));
+        dstContent = content;
+        return diff;
+    }
+
+    private MappingStore rematch(Tree previousDst, Tree dst, TextEdit edit) {
+        Tree src = diff.src.getRoot();
+        MappingStore mappings = new ArrayMappingStore(src, dst);
+        reusedMappings = 0;
+
+        Tree[] dirty = previousDst.hasSameType(dst) ? alignSpine(previousDst, dst, edit, mappings) : null;
+        Tree dirtySrc = dirty == null ? null : diff.mappings.getSrcForDst(dirty[0]);
+        if (dirtySrc == null) {
+            reusedMappings = 0;
+            return matcher.match(src, dst);
+        }
+
+        for (Mapping m : matcher.match(dirtySrc, dirty[1]))
+            if (!mappings.isSrcMapped(m.first) && !mappings.isDstMapped(m.second))
+                mappings.addMapping(m.first, m.second);
+        return mappings;
+    }
+
+    /**
+     * Walk down the previous and new destination ASTs along the nodes containing the edit,
+     * keeping the mappings of the nodes of this spine and of the unchanged subtrees located
+     * before and after the edit. Return the deepest pair of nodes of the spine.
+     */
+    private Tree[] alignSpine(Tree previous, Tree current, TextEdit edit, MappingStore mappings) {
+        while (true) {
+            keep(previous, current, mappings);
+
+            List<Tree> previousChildren = previous.getChildren();
+            List<Tree> currentChildren = current.getChildren();
+            int max = Math.min(previousChildren.size(), currentChildren.size());
+
+            int before = 0;
+            while (before < max && previousChildren.get(before).getEndPos() <= edit.offset
+                    && isUnchanged(previousChildren.get(before), currentChildren.get(before), 0)) {
+                keepSubtree(previousChildren.get(before), currentChildren.get(before), mappings);
+                before++;
+            }
+
+            int after = 0;
+            while (after < max - before) {
+                Tree p = previousChildren.get(previousChildren.size() - 1 - after);
+                Tree c = currentChildren.get(currentChildren.size() - 1 - after);
+                if (p.getPos() < edit.getEndOffset() || !isUnchanged(p, c, edit.getDelta()))
+                    break;
+                keepSubtree(p, c, mappings);
+                after++;
+            }
+
+            if (previousChildren.size() - before - after != 1 || currentChildren.size() - before - after != 1)
+                return new Tree[] {previous, current};
+            Tree p = previousChildren.get(before);
+            Tree c = currentChildren.get(before);
+            if (!p.hasSameType(c))
+                return new Tree[] {previous, current};
+            previous = p;
+            current = c;
+        }
+    }
+
+    private static boolean isUnchanged(Tree previous, Tree current, int delta) {
+        return previous.getPos() != Tree.NO_POS
+                && previous.getPos() + delta == current.getPos()
+                && previous.getLength() == current.getLength()
+                && previous.hasSameType(current)
+                && previous.getMetrics().size == current.getMetrics().size
+                && previous.getMetrics().fingerprint == current.getMetrics().fingerprint;
+    }
+
+    private void keepSubtree(Tree previous, Tree current, MappingStore mappings) {
+        Iterator<Tree> currents = current.preOrder().iterator();
+        for (Tree p : previous.preOrder())
+            keep(p, currents.next(), mappings);
+    }
+
+    private void keep(Tree previous, Tree current, MappingStore mappings) {
+        Tree src = diff.mappings.getSrcForDst(previous);
+        if (src != null && !mappings.isSrcMapped(src)) {
+            mappings.addMapping(src, current);
+            reusedMappings++;
+        }
+    }
+}
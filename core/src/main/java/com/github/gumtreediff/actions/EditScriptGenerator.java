@@ -19,6 +19,7 @@
 
 package com.github.gumtreediff.actions;
 
+import com.github.gumtreediff.actions.model.Action;
 import com.github.gumtreediff.matchers.MappingStore;
 
 /**
@@ -32,4 +33,15 @@ public interface EditScriptGenerator {
      * Compute and return the edit script for the provided mappings.
      */
     EditScript computeActions(MappingStore mappings);
+
+    /**
+     * Compute the edit script for the provided mappings, and give its actions to the provided sink.
+     * By default, the whole edit script is computed before giving the actions to the sink.
+     * Script generators that are able to give the actions as soon as they are computed
+     * override this method.
+     */
+    default void computeActions(MappingStore mappings, ActionSink sink) {
+        for (Action action : computeActions(mappings))
+            sink.accept(action);
+    }
 }
@@ -19,6 +19,9 @@
 
 package com.github.gumtreediff.gen;
 
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.TreeContext;
+
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -27,23 +30,52 @@ import java.nio.file.Files;
 public abstract class ExternalProcessTreeGenerator extends TreeGenerator {
 
     public String readStandardOutput(Reader r) throws IOException {
+        return runProcess(r, output -> {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+                StringBuilder buf = new StringBuilder();
+                String line = null;
+                while ((line = br.readLine()) != null)
+                    buf.append(line + System.lineSeparator());
+                return buf.toString();
+            }
+        });
+    }
+
+    /**
+     * Return the raw bytes written on the standard output by the external process.
+     */
+    public byte[] readRawStandardOutput(Reader r) throws IOException {
+        return runProcess(r, InputStream::readAllBytes);
+    }
+
+    /**
+     * Return the AST written on the standard output by the external process,
+     * either in the XML format or in the compact binary format.
+     *
+     * @see TreeIoUtils#isBinary(byte[])
+     */
+    protected TreeContext readTree(Reader r) throws IOException {
+        byte[] output = readRawStandardOutput(r);
+        if (TreeIoUtils.isBinary(output))
+            return TreeIoUtils.fromBinary().bytes(output);
+        else
+            return TreeIoUtils.fromXml().generateFrom().string(new String(output, StandardCharsets.UTF_8));
+    }
+
+    private <T> T runProcess(Reader r, OutputReader<T> reader) throws IOException {
         // TODO avoid recreating file if supplied reader is already a file
         File f = dumpReaderInTempFile(r);
         ProcessBuilder b = new ProcessBuilder(getCommandLine(f.getAbsolutePath()));
         b.directory(f.getParentFile());
         Process p = b.start();
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder buf = new StringBuilder();
-            String line = null;
-            while ((line = br.readLine()) != null)
-                buf.append(line + System.lineSeparator());
+        try (InputStream output = p.getInputStream()) {
+            T result = reader.read(output);
             p.waitFor();
             if (p.exitValue() != 0)
                 throw new SyntaxException(this, r, null);
             r.close();
             p.destroy();
-            return buf.toString();
+            return result;
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } finally {
@@ -51,6 +83,11 @@ public abstract class ExternalProcessTreeGenerator extends TreeGenerator {
         }
     }
 
+    @FunctionalInterface
+    private interface OutputReader<T> {
+        T read(InputStream output) throws IOException;
+    }
+
     private File dumpReaderInTempFile(Reader r) throws IOException {
         File f = File.createTempFile("gumtree", "");
         try (
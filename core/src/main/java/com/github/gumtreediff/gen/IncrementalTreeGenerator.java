@@ -0,0 +1,48 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen;
+
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.IOException;
+
+/**
+ * Interface for the tree generators able to update an AST after an edit of the parsed text,
+ * only reparsing the region affected by the edit.
+ *
+ * @see com.github.gumtreediff.actions.DiffSession
+ */
+public interface IncrementalTreeGenerator {
+    /**
+     * Return the AST of the given content, keeping the data needed to reparse it incrementally
+     * (e.g. the parser state). The ASTs generated otherwise are not required to keep this data,
+     * which can be large.
+     */
+    TreeContext generateReparsable(String content) throws IOException;
+
+    /**
+     * Return the AST of the given content, which is the result of applying the given edit
+     * to the content from which the previous AST has been generated. The previous AST must not be
+     * modified, but the returned AST can share the data (e.g. the parser state stored in its metadata)
+     * of the previous one. The previous AST is expected to be returned by {@link #generateReparsable(String)}
+     * or by this method, and the returned AST can be reparsed in turn.
+     */
+    TreeContext reparse(TreeContext previous, TextEdit edit, String content) throws IOException;
+}
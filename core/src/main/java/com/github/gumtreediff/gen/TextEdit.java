@@ -0,0 +1,84 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen;
+
+/**
+ * Class representing an edit of a text: the replacement of a range of characters
+ * by a new text. Insertions and deletions are replacements of an empty range and
+ * by an empty text, respectively.
+ */
+public final class TextEdit {
+    /**
+     * The offset of the first replaced character.
+     */
+    public final int offset;
+
+    /**
+     * The number of replaced characters.
+     */
+    public final int length;
+
+    /**
+     * The text inserted in place of the replaced characters.
+     */
+    public final String text;
+
+    /**
+     * Instantiate an edit replacing the length characters starting at the given offset by the given text.
+     */
+    public TextEdit(int offset, int length, String text) {
+        if (offset < 0 || length < 0)
+            throw new IllegalArgumentException(String.format("Invalid range: %d, %d", offset, length));
+        this.offset = offset;
+        this.length = length;
+        this.text = text == null ? "" : text;
+    }
+
+    /**
+     * Return the offset following the last replaced character, in the original text.
+     */
+    public int getEndOffset() {
+        return offset + length;
+    }
+
+    /**
+     * Return the difference between the length of the edited text and the length of the original text.
+     */
+    public int getDelta() {
+        return text.length() - length;
+    }
+
+    /**
+     * Return the result of this edit on the provided text.
+     *
+     * @throws IllegalArgumentException if the replaced range is not in the text.
+     */
+    public String apply(String content) {
+        if (getEndOffset() > content.length())
+            throw new IllegalArgumentException(String.format("Invalid range: %d, %d for a text of length %d",
+                    offset, length, content.length()));
+        return content.substring(0, offset) + text + content.substring(getEndOffset());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d,%d] -> \"%s\"", offset, getEndOffset(), text);
+    }
+}
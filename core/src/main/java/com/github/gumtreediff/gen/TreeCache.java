@@ -0,0 +1,247 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the ASTs produced by the tree generators. The ASTs are identified
+ * by the id of the generator and the SHA-256 hash of the parsed content.
+ * The cache keeps the most recently used ASTs in memory, up to a given total number of nodes,
+ * and can optionally store them in a folder (using the compact binary format) to be reused between runs.
+ * The cached ASTs are never given to the clients: a copy is returned instead, since
+ * clients such as the edit script generators modify the ASTs they work on. The copies do not
+ * reference the parser's AST nodes (see {@link Tree#getASTNode()}), so that the cache does not retain them.
+ *
+ * @see TreeGenerators#setCache(TreeCache)
+ */
+public class TreeCache {
+    /**
+     * The default maximum number of nodes kept in memory.
+     */
+    public static final long DEFAULT_MAX_NODES = 1_000_000;
+
+    private static final String DISK_EXTENSION = ".gtb";
+
+    /**
+     * Interface for the function parsing the content when it is not in the cache.
+     */
+    @FunctionalInterface
+    public interface Parser {
+        TreeContext parse() throws IOException;
+    }
+
+    private final long maxNodes;
+
+    private final Path folder;
+
+    private final LinkedHashMap<String, TreeContext> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long nodes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong diskHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Instantiate an in-memory cache containing at most the default number of nodes.
+     *
+     * @see #DEFAULT_MAX_NODES
+     */
+    public TreeCache() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Instantiate an in-memory cache containing at most the given number of nodes.
+     */
+    public TreeCache(long maxNodes) {
+        this(maxNodes, null);
+    }
+
+    /**
+     * Instantiate a cache containing at most the given number of nodes in memory, and storing
+     * all the ASTs in the given folder. If the folder is null, the cache is in-memory only.
+     */
+    public TreeCache(long maxNodes, Path folder) {
+        if (maxNodes < 1)
+            throw new IllegalArgumentException("Expecting a positive number of nodes, got: " + maxNodes);
+        this.maxNodes = maxNodes;
+        this.folder = folder;
+    }
+
+    /**
+     * Return a copy of the AST of the given content parsed by the given generator. If the AST
+     * is not in the cache, it is computed using the given parser and added to the cache.
+     */
+    public TreeContext get(String generator, byte[] content, Parser parser) throws IOException {
+        String key = key(content);
+        String entry = generator + "/" + key;
+
+        TreeContext ctx;
+        synchronized (this) {
+            ctx = entries.get(entry);
+        }
+        if (ctx != null) {
+            hits.incrementAndGet();
+            return copy(ctx);
+        }
+
+        Path file = folder == null ? null : folder.resolve(generator).resolve(key + DISK_EXTENSION);
+        if (file != null && Files.exists(file)) {
+            diskHits.incrementAndGet();
+            ctx = TreeIoUtils.fromBinary().file(file);
+        } else {
+            misses.incrementAndGet();
+            ctx = parser.parse();
+            if (file != null)
+                store(ctx, file);
+        }
+
+        put(entry, ctx);
+        return copy(ctx);
+    }
+
+    /**
+     * Return the number of requests answered using the memory.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Return the number of requests answered using the folder.
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Return the number of requests that required a parsing.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return the number of ASTs kept in memory.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Return the total number of nodes of the ASTs kept in memory.
+     */
+    public synchronized long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Remove all the ASTs kept in memory. The ASTs stored in the folder are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        nodes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits: %d, disk hits: %d, misses: %d, entries: %d, nodes: %d",
+                getHits(), getDiskHits(), getMisses(), size(), getNodes());
+    }
+
+    private synchronized void put(String entry, TreeContext ctx) {
+        TreeContext previous = entries.put(entry, ctx);
+        if (previous != null)
+            nodes -= previous.getRoot().getMetrics().size;
+        nodes += ctx.getRoot().getMetrics().size;
+
+        Iterator<Map.Entry<String, TreeContext>> it = entries.entrySet().iterator();
+        while (nodes > maxNodes && entries.size() > 1) {
+            TreeContext eldest = it.next().getValue();
+            nodes -= eldest.getRoot().getMetrics().size;
+            it.remove();
+        }
+    }
+
+    private static void store(TreeContext ctx, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            TreeIoUtils.toBinary(ctx).writeTo(tmp.toFile());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static TreeContext copy(TreeContext ctx) {
+        TreeContext copy = new TreeContext();
+        copy.export(ctx.getSerializers());
+        for (Iterator<Map.Entry<String, Object>> it = ctx.getMetadata(); it.hasNext();) {
+            Map.Entry<String, Object> e = it.next();
+            copy.setMetadata(e.getKey(), e.getValue());
+        }
+
+        Tree root = ctx.getRoot().deepCopy();
+        Iterator<Tree> copies = TreeUtils.preOrderIterator(root);
+        for (Tree original : ctx.getRoot().preOrder()) {
+            Tree t = copies.next();
+            for (Iterator<Map.Entry<String, Object>> it = original.getMetadata(); it.hasNext();) {
+                Map.Entry<String, Object> e = it.next();
+                t.setMetadata(e.getKey(), e.getValue());
+            }
+            t.setNodeProperty(original.getNodeProperty());
+        }
+        copy.setRoot(root);
+        return copy;
+    }
+
+    private static String key(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder b = new StringBuilder();
+            for (byte x : digest.digest(content))
+                b.append(String.format("%02x", x));
+            return b.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -20,12 +20,15 @@
 
 package com.github.gumtreediff.gen;
 
-import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.tree.TreeContext;
 import com.github.gumtreediff.utils.Registry;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
@@ -36,6 +39,8 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
 
     private static TreeGenerators registry;
 
+    private TreeCache cache;
+
     /**
      * Return the tree generators registry instance (singleton pattern).
      */
@@ -52,10 +57,10 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
      * @throws UnsupportedOperationException if no suitable generator is found
      */
     public TreeContext getTree(String file) throws UnsupportedOperationException, IOException {
-        TreeGenerator p = get(file);
-        if (p == null)
+        Entry e = find(file);
+        if (e == null)
             throw new UnsupportedOperationException("No generator found for file: " + file);
-        return p.generateFrom().file(file);
+        return generate(e, file);
     }
 
     /**
@@ -71,7 +76,7 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
 
         for (Entry e : entries)
             if (e.id.equals(generator))
-                return e.instantiate(null).generateFrom().file(file);
+                return generate(e, file);
 
         throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
     }
@@ -86,11 +91,63 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
     public TreeContext getTree(Reader stream, String generator) throws UnsupportedOperationException, IOException {
         for (Entry e : entries)
             if (e.id.equals(generator))
-                return e.instantiate(null).generateFrom().reader(stream);
+                return generate(e, stream);
 
         throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
     }
 
+    /**
+     * Instantiate the tree generator with the provided name.
+     *
+     * @param generator the tree generator's name. It can't be null
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeGenerator getGenerator(String generator) throws UnsupportedOperationException {
+        Entry e = findById(generator);
+        if (e == null)
+            throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
+        return e.instantiate(null);
+    }
+
+    private TreeContext generate(Entry e, String file) throws IOException {
+        TreeGenerator g = e.instantiate(null);
+        if (cache == null)
+            return g.generateFrom().file(file);
+
+        byte[] content = Files.readAllBytes(Paths.get(file));
+        return cache.get(e.id, content,
+                () -> g.generateFrom().string(new String(content, StandardCharsets.UTF_8)));
+    }
+
+    private TreeContext generate(Entry e, Reader stream) throws IOException {
+        TreeGenerator g = e.instantiate(null);
+        if (cache == null)
+            return g.generateFrom().reader(stream);
+
+        // The content is read once, to be both hashed and parsed.
+        StringWriter writer = new StringWriter();
+        stream.transferTo(writer);
+        String content = writer.toString();
+        return cache.get(e.id, content.getBytes(StandardCharsets.UTF_8), () -> g.generateFrom().string(content));
+    }
+
+    /**
+     * Set the cache used when producing the AST of a file or of the content of a reader.
+     * If the cache is null (the default), the contents are parsed each time their AST is requested.
+     *
+     * @see TreeCache
+     */
+    public void setCache(TreeCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Return the cache used when producing the AST of a file, or null if there is no cache.
+     */
+    public TreeCache getCache() {
+        return cache;
+    }
+
     public TreeContext getTreeFromCommand(String file, String command) throws IOException {
         TreeGenerator g = new ExternalProcessTreeGenerator() {
             @Override
@@ -100,9 +157,7 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
 
             @Override
             protected TreeContext generate(Reader r) throws IOException {
-                String output = readStandardOutput(r);
-                TreeContext ctx = TreeIoUtils.fromXml().generateFrom().string(output);
-                return ctx;
+                return readTree(r);
             }
         };
         return g.generateFrom().file(file);
@@ -20,6 +20,7 @@
 
 package com.github.gumtreediff.io;
 
+import com.github.gumtreediff.actions.ActionSink;
 import com.github.gumtreediff.actions.EditScript;
 import com.github.gumtreediff.actions.model.*;
 import com.github.gumtreediff.io.TreeIoUtils.AbstractSerializer;
@@ -32,7 +33,9 @@ import com.google.gson.stream.JsonWriter;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 
 public final class ActionsIoUtils {
@@ -73,6 +76,37 @@ public final class ActionsIoUtils {
         };
     }
 
+    /**
+     * Return a sink writing the mappings and the actions given to it in the XML format.
+     */
+    public static ActionStreamWriter toXmlStream(TreeContext sctx, MappingStore mappings,
+                                                 Writer writer) throws IOException {
+        try {
+            return new ActionStreamWriter(writer, mappings, new XmlFormatter(sctx, writer));
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Return a sink writing the mappings and the actions given to it in the JSON format.
+     */
+    public static ActionStreamWriter toJsonStream(TreeContext sctx, MappingStore mappings,
+                                                  Writer writer) throws IOException {
+        return new ActionStreamWriter(writer, mappings, new JsonFormatter(sctx, writer));
+    }
+
+    /**
+     * Return a sink writing the mappings and the actions given to it in the JSON Lines format:
+     * one JSON object per line, first the mappings (with the src and dest fields) then the actions
+     * (with the action and tree fields). These objects are the same as the elements of the matches
+     * and actions arrays of the JSON format.
+     */
+    public static ActionStreamWriter toJsonLinesStream(TreeContext sctx, MappingStore mappings,
+                                                       Writer writer) throws IOException {
+        return new ActionStreamWriter(writer, mappings, new JsonLinesFormatter(sctx, writer));
+    }
+
     public abstract static class ActionSerializer extends AbstractSerializer {
         final TreeContext context;
         final MappingStore mappings;
@@ -101,32 +135,8 @@ public final class ActionsIoUtils {
 
             // Write the actions
             fmt.startActions();
-            for (Action a : actions) {
-                Tree src = a.getNode();
-                if (a instanceof Move) {
-                    Tree dst = mappings.getDstForSrc(src);
-                    fmt.moveAction((Move) a, src, dst.getParent(), ((Move) a).getPosition());
-                } else if (a instanceof Update) {
-                    Tree dst = mappings.getDstForSrc(src);
-                    fmt.updateAction((Update) a, src, dst);
-                } else if (a instanceof Insert) {
-                    Tree dst = a.getNode();
-                    if (dst.isRoot())
-                        fmt.insertRoot((Insert) a, src);
-                    else
-                        fmt.insertAction((Insert) a, src, dst.getParent(), dst.getParent().getChildPosition(dst));
-                } else if (a instanceof Delete) {
-                    fmt.deleteAction((Delete) a, src);
-                } else if (a instanceof TreeInsert) {
-                    Tree dst = a.getNode();
-                    fmt.insertTreeAction((TreeInsert) a, src, dst.getParent(), dst.getParent().getChildPosition(dst));
-                } else if (a instanceof  TreeDelete) {
-                    fmt.deleteTreeAction((TreeDelete) a, src);
-                } else if (a instanceof Rematch) {
-                    fmt.rematchTree((Rematch) a, ((Rematch) a).getRight(), ((Rematch) a).getLeft());
-                }
-
-            }
+            for (Action a : actions)
+                writeAction(fmt, mappings, a);
             fmt.endActions();
 
             // Finish up
@@ -134,6 +144,93 @@ public final class ActionsIoUtils {
         }
     }
 
+    static void writeAction(ActionFormatter fmt, MappingStore mappings, Action a) throws Exception {
+        Tree src = a.getNode();
+        if (a instanceof Move) {
+            Tree dst = mappings.getDstForSrc(src);
+            fmt.moveAction((Move) a, src, dst.getParent(), ((Move) a).getPosition());
+        } else if (a instanceof Update) {
+            Tree dst = mappings.getDstForSrc(src);
+            fmt.updateAction((Update) a, src, dst);
+        } else if (a instanceof Insert) {
+            Tree dst = a.getNode();
+            if (dst.isRoot())
+                fmt.insertRoot((Insert) a, src);
+            else
+                fmt.insertAction((Insert) a, src, dst.getParent(), dst.getParent().getChildPosition(dst));
+        } else if (a instanceof Delete) {
+            fmt.deleteAction((Delete) a, src);
+        } else if (a instanceof TreeInsert) {
+            Tree dst = a.getNode();
+            fmt.insertTreeAction((TreeInsert) a, src, dst.getParent(), dst.getParent().getChildPosition(dst));
+        } else if (a instanceof  TreeDelete) {
+            fmt.deleteTreeAction((TreeDelete) a, src);
+        } else if (a instanceof Rematch) {
+            fmt.rematchTree((Rematch) a, ((Rematch) a).getRight(), ((Rematch) a).getLeft());
+        }
+    }
+
+    /**
+     * An action sink writing the actions as soon as they are given. The mappings are written
+     * at construction time, and the output is completed by {@link #close()}, that flushes
+     * but does not close the underlying writer. Since neither the mappings nor the actions are
+     * buffered, the memory used does not depend on the size of the edit script.
+     *
+     * @see com.github.gumtreediff.actions.EditScriptGenerator#computeActions(MappingStore, ActionSink)
+     */
+    public static final class ActionStreamWriter implements ActionSink, Closeable {
+        private final Writer writer;
+        private final MappingStore mappings;
+        private final ActionFormatter fmt;
+
+        private ActionStreamWriter(Writer writer, MappingStore mappings, ActionFormatter fmt) throws IOException {
+            this.writer = writer;
+            this.mappings = mappings;
+            this.fmt = fmt;
+            try {
+                fmt.startOutput();
+                fmt.startMatches();
+                for (Mapping m: mappings)
+                    fmt.match(m.first, m.second);
+                fmt.endMatches();
+                fmt.startActions();
+            } catch (Exception e) {
+                throw asIoException(e);
+            }
+        }
+
+        /**
+         * Write the given action.
+         *
+         * @throws UncheckedIOException if the action cannot be written.
+         */
+        @Override
+        public void accept(Action action) {
+            try {
+                writeAction(fmt, mappings, action);
+            } catch (Exception e) {
+                throw new UncheckedIOException(asIoException(e));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                fmt.endActions();
+                fmt.endOutput();
+                writer.flush();
+            } catch (Exception e) {
+                throw asIoException(e);
+            }
+        }
+
+        private static IOException asIoException(Exception e) {
+            if (e instanceof IOException)
+                return (IOException) e;
+            return new IOException(e);
+        }
+    }
+
     interface ActionFormatter {
         void startOutput() throws Exception;
 
@@ -184,6 +281,7 @@ public final class ActionsIoUtils {
         @Override
         public void endOutput() throws XMLStreamException {
             writer.writeEndDocument();
+            writer.flush();
         }
 
         @Override
@@ -367,7 +465,7 @@ public final class ActionsIoUtils {
     }
 
     static class JsonFormatter implements ActionFormatter {
-        private final JsonWriter writer;
+        JsonWriter writer;
 
         JsonFormatter(TreeContext ctx, Writer writer) {
 
@@ -463,13 +561,13 @@ public final class ActionsIoUtils {
             end(src);
         }
 
-        private void start(Action action, Tree src) throws IOException {
+        void start(Action action, Tree src) throws IOException {
             writer.beginObject();
             writer.name("action").value(action.getName());
             writer.name("tree").value(src.toString());
         }
 
-        private void end(Tree node) throws IOException {
+        void end(Tree node) throws IOException {
             writer.endObject();
         }
 
@@ -478,4 +576,66 @@ public final class ActionsIoUtils {
             writer.endArray();
         }
     }
+
+    static class JsonLinesFormatter extends JsonFormatter {
+        private final Writer out;
+
+        JsonLinesFormatter(TreeContext ctx, Writer writer) {
+            super(ctx, writer);
+            this.out = writer;
+        }
+
+        @Override
+        public void startOutput() {
+        }
+
+        @Override
+        public void endOutput() {
+        }
+
+        @Override
+        public void startMatches() {
+        }
+
+        @Override
+        public void match(Tree srcNode, Tree destNode) throws Exception {
+            startLine();
+            super.match(srcNode, destNode);
+            endLine();
+        }
+
+        @Override
+        public void endMatches() {
+        }
+
+        @Override
+        public void startActions() {
+        }
+
+        @Override
+        void start(Action action, Tree src) throws IOException {
+            startLine();
+            super.start(action, src);
+        }
+
+        @Override
+        void end(Tree node) throws IOException {
+            super.end(node);
+            endLine();
+        }
+
+        @Override
+        public void endActions() {
+        }
+
+        private void startLine() {
+            // A new JSON writer per line, since a JSON writer accepts only one top-level value.
+            writer = new JsonWriter(out);
+        }
+
+        private void endLine() throws IOException {
+            writer.flush();
+            out.write('\n');
+        }
+    }
 }
@@ -35,13 +35,22 @@ import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicLong;
@@ -67,6 +76,31 @@ public final class TreeIoUtils {
         return generator;
     }
 
+    /**
+     * Return a reader for the compact binary format.
+     *
+     * @see #toBinary(TreeContext)
+     */
+    public static BinaryTreeReader fromBinary() {
+        return new BinaryTreeReader();
+    }
+
+    public static BinaryTreeReader fromBinary(MetadataUnserializers unserializers) {
+        BinaryTreeReader reader = new BinaryTreeReader();
+        reader.getUnserializers().addAll(unserializers);
+        return reader;
+    }
+
+    /**
+     * Indicate whether or not the provided content starts with the header
+     * of the compact binary format.
+     */
+    public static boolean isBinary(byte[] content) {
+        if (content.length < BINARY_MAGIC.length)
+            return false;
+        return Arrays.equals(BINARY_MAGIC, Arrays.copyOf(content, BINARY_MAGIC.length));
+    }
+
     public static TreeSerializer toXml(TreeContext ctx) {
         return toXml(ctx, ctx.getRoot());
     }
@@ -161,6 +195,20 @@ public final class TreeIoUtils {
         };
     }
 
+    /**
+     * Return a serializer for the compact binary format. This format only supports
+     * byte streams, the serializer can't be written to a character stream.
+     *
+     * @see BinaryFormatter
+     */
+    public static TreeSerializer toBinary(TreeContext ctx) {
+        return toBinary(ctx, ctx.getRoot());
+    }
+
+    public static TreeSerializer toBinary(TreeContext ctx, Tree root) {
+        return new BinarySerializer(ctx, root);
+    }
+
     public static TreeSerializer toShortText(Tree root) {
         return new TreeSerializer(null, root) {
             @Override
@@ -207,7 +255,7 @@ public final class TreeIoUtils {
 
     public abstract static class TreeSerializer extends AbstractSerializer {
         private final TreeContext context;
-        private final Tree root;
+        final Tree root;
         final MetadataSerializers serializers = new MetadataSerializers();
 
         public TreeSerializer(TreeContext ctx, Tree root) {
@@ -287,6 +335,54 @@ public final class TreeIoUtils {
         }
     }
 
+    static class BinarySerializer extends TreeSerializer {
+        BinarySerializer(TreeContext ctx, Tree root) {
+            super(ctx, root);
+        }
+
+        @Override
+        protected TreeFormatter newFormatter(TreeContext ctx, MetadataSerializers serializers, Writer writer) {
+            throw new UnsupportedOperationException("The binary format can't be written to a character stream.");
+        }
+
+        /**
+         * Returns the binary serialization of the tree encoded in Base64, since the binary format
+         * can't be represented as a character stream.
+         */
+        @Override
+        public String toString() {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            try {
+                writeTo(stream);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return Base64.getEncoder().encodeToString(stream.toByteArray());
+        }
+
+        @Override
+        public void writeTo(OutputStream stream) throws Exception {
+            BinaryFormatter formatter = new BinaryFormatter(stream);
+            try {
+                writeTree(formatter, root);
+            } finally {
+                formatter.close();
+            }
+        }
+
+        @Override
+        public void writeTo(String file) throws Exception {
+            writeTo(new File(file));
+        }
+
+        @Override
+        public void writeTo(File file) throws Exception {
+            try (OutputStream stream = Files.newOutputStream(file.toPath())) {
+                writeTo(stream);
+            }
+        }
+    }
+
     public interface TreeFormatter {
         void startSerialization() throws Exception;
 
@@ -512,6 +608,131 @@ public final class TreeIoUtils {
         }
     }
 
+    static final byte[] BINARY_MAGIC = {'G', 'T', 'B', 1};
+
+    /**
+     * Formatter for the compact binary format. The tree is written in pre-order, each node being
+     * encoded as: a reference to its type, a reference to its label, its position and length,
+     * its metadata and its number of children. All the integers are written as unsigned varints.
+     * The types and the labels are written the first time they are encountered and then
+     * referred to using their index in the type table and the string pool. The metadata keys
+     * are also stored in the string pool. The output is buffered and flushed (not closed)
+     * at the end of the serialization.
+     */
+    static class BinaryFormatter extends TreeFormatterAdapter {
+        private static final int NO_STRING = 0;
+        private static final int NEW_STRING = 1;
+        private static final int NEW_TYPE = 0;
+
+        private final OutputStream stream;
+        private final byte[] buffer = new byte[1 << 16];
+        private int count = 0;
+
+        private final Map<Type, Integer> types = new HashMap<>();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        BinaryFormatter(OutputStream stream) {
+            super(null);
+            this.stream = stream;
+        }
+
+        @Override
+        public void startSerialization() throws IOException {
+            writeBytes(BINARY_MAGIC);
+        }
+
+        @Override
+        public void endProlog() throws IOException {
+            writeVarint(NO_STRING);
+        }
+
+        @Override
+        public void startTree(Tree tree) throws IOException {
+            Integer type = types.get(tree.getType());
+            if (type == null) {
+                types.put(tree.getType(), types.size());
+                writeVarint(NEW_TYPE);
+                writeString(tree.getType().name);
+            } else
+                writeVarint(type + 1);
+
+            if (tree.hasLabel())
+                writePooledString(tree.getLabel());
+            else
+                writeVarint(NO_STRING);
+
+            writeVarint(tree.getPos() + 1);
+            if (Tree.NO_POS != tree.getPos())
+                writeVarint(tree.getLength());
+        }
+
+        @Override
+        public void serializeAttribute(String name, String value) throws IOException {
+            writePooledString(name);
+            writeString(value);
+        }
+
+        @Override
+        public void endTreeProlog(Tree tree) throws IOException {
+            writeVarint(NO_STRING);
+            writeVarint(tree.getChildren().size());
+        }
+
+        @Override
+        public void stopSerialization() throws IOException {
+            flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            stream.flush();
+        }
+
+        private void writePooledString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index == null) {
+                strings.put(value, strings.size());
+                writeVarint(NEW_STRING);
+                writeString(value);
+            } else
+                writeVarint(index + 2);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes);
+        }
+
+        private void writeVarint(int value) throws IOException {
+            if (count + 5 > buffer.length)
+                flush();
+            while ((value & ~0x7F) != 0) {
+                buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[count++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            if (count + bytes.length > buffer.length) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    stream.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, count, bytes.length);
+            count += bytes.length;
+        }
+
+        private void flush() throws IOException {
+            stream.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
     static class LispFormatter extends TreeFormatterAdapter {
         protected final Writer writer;
         protected final Pattern protectChars = Pattern.compile("[ ,\"]");
@@ -822,4 +1043,155 @@ public final class TreeIoUtils {
             return unserializers;
         }
     }
+
+    /**
+     * Reader for the compact binary format. The content is decoded directly from a byte buffer,
+     * that can be a memory-mapped file. The types and labels are decoded only once.
+     *
+     * @see BinaryFormatter
+     */
+    public static class BinaryTreeReader {
+        final MetadataUnserializers unserializers = new MetadataUnserializers();
+
+        private byte[] scratch = new byte[256];
+
+        public BinaryTreeReader() {
+            unserializers.addAll(XmlInternalGenerator.defaultUnserializers);
+        }
+
+        public MetadataUnserializers getUnserializers() {
+            return unserializers;
+        }
+
+        /**
+         * Return the AST stored in the provided file, which is memory-mapped.
+         */
+        public TreeContext file(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return buffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        public TreeContext file(String path) throws IOException {
+            return file(Paths.get(path));
+        }
+
+        public TreeContext file(File file) throws IOException {
+            return file(file.toPath());
+        }
+
+        public TreeContext stream(InputStream stream) throws IOException {
+            return bytes(stream.readAllBytes());
+        }
+
+        public TreeContext bytes(byte[] content) throws IOException {
+            return buffer(ByteBuffer.wrap(content));
+        }
+
+        /**
+         * Return the AST stored in the provided buffer, starting at its current position.
+         */
+        public TreeContext buffer(ByteBuffer in) throws IOException {
+            try {
+                return read(in);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated binary tree.", e);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Invalid binary tree.", e);
+            }
+        }
+
+        private TreeContext read(ByteBuffer in) throws Exception {
+            for (byte b : BINARY_MAGIC)
+                if (in.get() != b)
+                    throw new IOException("Invalid binary tree header.");
+
+            TreeContext context = new TreeContext();
+            List<Type> types = new ArrayList<>();
+            List<String> strings = new ArrayList<>();
+
+            int key;
+            while ((key = readVarint(in)) != BinaryFormatter.NO_STRING)
+                context.setMetadata(readPooledString(in, key, strings), readString(in));
+
+            ArrayDeque<Tree> parents = new ArrayDeque<>();
+            ArrayDeque<int[]> remaining = new ArrayDeque<>();
+            do {
+                int typeRef = readVarint(in);
+                Type type;
+                if (typeRef == BinaryFormatter.NEW_TYPE) {
+                    type = type(readString(in));
+                    types.add(type);
+                } else
+                    type = types.get(typeRef - 1);
+
+                int labelRef = readVarint(in);
+                String label = labelRef == BinaryFormatter.NO_STRING
+                        ? Tree.NO_LABEL : readPooledString(in, labelRef, strings);
+                Tree t = context.createTree(type, label);
+
+                int pos = readVarint(in) - 1;
+                if (Tree.NO_POS != pos) {
+                    t.setPos(pos);
+                    t.setLength(readVarint(in));
+                }
+
+                while ((key = readVarint(in)) != BinaryFormatter.NO_STRING)
+                    unserializers.load(t, readPooledString(in, key, strings), readString(in));
+
+                if (parents.isEmpty())
+                    context.setRoot(t);
+                else {
+                    t.setParentAndUpdateChildren(parents.peekFirst());
+                    remaining.peekFirst()[0]--;
+                }
+
+                int children = readVarint(in);
+                if (children > 0) {
+                    parents.addFirst(t);
+                    remaining.addFirst(new int[] {children});
+                }
+                while (!remaining.isEmpty() && remaining.peekFirst()[0] == 0) {
+                    parents.removeFirst();
+                    remaining.removeFirst();
+                }
+            } while (!parents.isEmpty());
+            return context;
+        }
+
+        private String readPooledString(ByteBuffer in, int ref, List<String> strings) {
+            if (ref != BinaryFormatter.NEW_STRING)
+                return strings.get(ref - 2);
+            String value = readString(in);
+            strings.add(value);
+            return value;
+        }
+
+        private String readString(ByteBuffer in) {
+            int length = readVarint(in);
+            if (in.hasArray()) {
+                String value = new String(in.array(), in.arrayOffset() + in.position(), length,
+                        StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return value;
+            }
+            if (scratch.length < length)
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static int readVarint(ByteBuffer in) {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+            throw new IllegalStateException("Malformed varint.");
+        }
+    }
 }
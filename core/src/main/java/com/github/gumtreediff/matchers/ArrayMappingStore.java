@@ -0,0 +1,233 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import java.util.*;
+
+import com.github.gumtreediff.tree.FrozenTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeMetrics;
+
+/**
+ * Class dedicated to store mappings between two ASTs.
+ * Internally, each node of the source and destination ASTs is identified by
+ * its post-order position (see {@link TreeMetrics#position}) and the mappings
+ * are stored via two int arrays indexed by these positions.
+ * Nodes that do not belong to the ASTs given at construction time (or nodes added
+ * after the construction) are handled by the hashmaps of {@link MappingStore}.
+ *
+ * @see MappingStore
+ * @see TreeMetrics#position
+ */
+public class ArrayMappingStore extends MappingStore {
+    private static final int NO_MAPPING = -1;
+
+    private final Tree[] srcs;
+    private final Tree[] dsts;
+
+    private final int srcOffset;
+    private final int dstOffset;
+
+    private final int[] srcToDst;
+    private final int[] dstToSrc;
+
+    private int size;
+
+    /**
+     * Instantiate a mapping store using the mappings of the provided
+     * mapping store.
+     * The references to the source and destination AST are also copied
+     * from the provided mapping store.
+     */
+    public ArrayMappingStore(MappingStore ms) {
+        this(ms.src, ms.dst);
+        for (Mapping m : ms)
+            addMapping(m.first, m.second);
+    }
+
+    /**
+     * Instantiate a new empty mapping store between the provided
+     * source and destination AST.
+     */
+    public ArrayMappingStore(Tree src, Tree dst) {
+        super(src, dst);
+        TreeMetrics srcMetrics = src.getMetrics();
+        TreeMetrics dstMetrics = dst.getMetrics();
+        srcOffset = srcMetrics.position - srcMetrics.size + 1;
+        dstOffset = dstMetrics.position - dstMetrics.size + 1;
+        srcs = index(src, srcOffset);
+        dsts = index(dst, dstOffset);
+        srcToDst = new int[srcs.length];
+        dstToSrc = new int[dsts.length];
+        Arrays.fill(srcToDst, NO_MAPPING);
+        Arrays.fill(dstToSrc, NO_MAPPING);
+    }
+
+    private static Tree[] index(Tree root, int offset) {
+        Tree[] nodes = new Tree[root.getMetrics().size];
+        for (Tree t : root.postOrder()) {
+            int id = FrozenTree.position(t) - offset;
+            if (id >= 0 && id < nodes.length && nodes[id] == null)
+                nodes[id] = t;
+        }
+        return nodes;
+    }
+
+    private static int idOf(Tree t, Tree[] nodes, int offset) {
+        if (t == null)
+            return NO_MAPPING;
+        int id = FrozenTree.position(t) - offset;
+        if (id >= 0 && id < nodes.length && nodes[id] == t)
+            return id;
+        return NO_MAPPING;
+    }
+
+    private int srcId(Tree src) {
+        return idOf(src, srcs, srcOffset);
+    }
+
+    private int dstId(Tree dst) {
+        return idOf(dst, dsts, dstOffset);
+    }
+
+    private boolean hasFallbackMappings() {
+        return super.size() > 0;
+    }
+
+    @Override
+    public int size() {
+        return size + super.size();
+    }
+
+    @Override
+    public Set<Mapping> asSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Mapping> iterator() {
+                Iterator<Mapping> fallback = ArrayMappingStore.super.asSet().iterator();
+                return new Iterator<>() {
+                    int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < srcToDst.length && srcToDst[from] == NO_MAPPING)
+                            from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < srcToDst.length || fallback.hasNext();
+                    }
+
+                    @Override
+                    public Mapping next() {
+                        if (next < srcToDst.length) {
+                            Mapping m = new Mapping(srcs[next], dsts[srcToDst[next]]);
+                            next = advance(next + 1);
+                            return m;
+                        }
+                        return fallback.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ArrayMappingStore.this.size();
+            }
+        };
+    }
+
+    @Override
+    public void addMapping(Tree src, Tree dst) {
+        int srcId = srcId(src);
+        int dstId = dstId(dst);
+        if (srcId == NO_MAPPING || dstId == NO_MAPPING) {
+            // An indexed node mapped to a foreign node overrides its indexed mapping.
+            if (srcId != NO_MAPPING && srcToDst[srcId] != NO_MAPPING) {
+                srcToDst[srcId] = NO_MAPPING;
+                size--;
+            }
+            if (dstId != NO_MAPPING)
+                dstToSrc[dstId] = NO_MAPPING;
+            super.addMapping(src, dst);
+            return;
+        }
+
+        if (hasFallbackMappings() && super.isSrcMapped(src))
+            super.removeMapping(src, super.getDstForSrc(src));
+        if (srcToDst[srcId] == NO_MAPPING)
+            size++;
+        srcToDst[srcId] = dstId;
+        dstToSrc[dstId] = srcId;
+    }
+
+    @Override
+    public void removeMapping(Tree src, Tree dst) {
+        // As in MappingStore, both sides are cleared independently.
+        int srcId = srcId(src);
+        int dstId = dstId(dst);
+        if (srcId != NO_MAPPING && srcToDst[srcId] != NO_MAPPING) {
+            srcToDst[srcId] = NO_MAPPING;
+            size--;
+        }
+        if (dstId != NO_MAPPING)
+            dstToSrc[dstId] = NO_MAPPING;
+        if (srcId == NO_MAPPING || dstId == NO_MAPPING)
+            super.removeMapping(src, dst);
+    }
+
+    @Override
+    public Tree getDstForSrc(Tree src) {
+        int srcId = srcId(src);
+        if (srcId != NO_MAPPING && srcToDst[srcId] != NO_MAPPING)
+            return dsts[srcToDst[srcId]];
+        return hasFallbackMappings() ? super.getDstForSrc(src) : null;
+    }
+
+    @Override
+    public Tree getSrcForDst(Tree dst) {
+        int dstId = dstId(dst);
+        if (dstId != NO_MAPPING && dstToSrc[dstId] != NO_MAPPING)
+            return srcs[dstToSrc[dstId]];
+        return hasFallbackMappings() ? super.getSrcForDst(dst) : null;
+    }
+
+    @Override
+    public boolean isSrcMapped(Tree src) {
+        int srcId = srcId(src);
+        if (srcId != NO_MAPPING && srcToDst[srcId] != NO_MAPPING)
+            return true;
+        return hasFallbackMappings() && super.isSrcMapped(src);
+    }
+
+    @Override
+    public boolean isDstMapped(Tree dst) {
+        int dstId = dstId(dst);
+        if (dstId != NO_MAPPING && dstToSrc[dstId] != NO_MAPPING)
+            return true;
+        return hasFallbackMappings() && super.isDstMapped(dst);
+    }
+
+    @Override
+    public boolean has(Tree src, Tree dst) {
+        return getDstForSrc(src) == dst;
+    }
+}
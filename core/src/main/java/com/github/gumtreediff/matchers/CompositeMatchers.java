@@ -35,6 +35,7 @@ import com.github.gumtreediff.matchers.optimizations.IdenticalSubtreeMatcherThet
 import com.github.gumtreediff.matchers.optimizations.InnerNodesMatcherThetaD;
 import com.github.gumtreediff.matchers.optimizations.LcsOptMatcherThetaB;
 import com.github.gumtreediff.matchers.optimizations.LeafMoveMatcherThetaE;
+import com.github.gumtreediff.matchers.optimizations.SparseLcsOptMatcherThetaB;
 import com.github.gumtreediff.matchers.optimizations.UnmappedLeavesMatcherThetaC;
 import com.github.gumtreediff.tree.Tree;
 
@@ -92,6 +93,26 @@ public class CompositeMatchers {
         }
     }
 
+    @Register(id = "gumtree-simple-partitioned")
+    public static class PartitionedSimpleGumtree extends PartitionedCompositeMatcher {
+        /**
+         * Instantiates the simple GumTree running the bottom-up phase concurrently on disjoint subtrees.
+         */
+        public PartitionedSimpleGumtree() {
+            super(new GreedySubtreeMatcher(), SimpleBottomUpMatcher::new);
+        }
+    }
+
+    @Register(id = "gumtree-classic-partitioned")
+    public static class PartitionedClassicGumtree extends PartitionedCompositeMatcher {
+        /**
+         * Instantiates the classic GumTree running the bottom-up phase concurrently on disjoint subtrees.
+         */
+        public PartitionedClassicGumtree() {
+            super(new GreedySubtreeMatcher(), GreedyBottomUpMatcher::new);
+        }
+    }
+
     @Register(id = "gumtree-simple-stable", priority = Registry.Priority.HIGH)
     public static class SimpleGumtreeStable extends CompositeMatcher {
         public SimpleGumtreeStable() {
@@ -172,6 +193,20 @@ public class CompositeMatchers {
         }
     }
 
+    @Register(id = "gumtree-classic-theta-sparse")
+    public static class ClassicGumtreeThetaSparse extends CompositeMatcher {
+        /**
+         * Instantiates GumTree with Theta B-F, using the sparse variant of Theta B for large ASTs.
+         * It is not used by the other Theta pipelines since it can find fewer mappings
+         * when mapped pairs cross each other (e.g. after moves).
+         */
+        public ClassicGumtreeThetaSparse() {
+            super(new GreedySubtreeMatcher(), new GreedyBottomUpMatcher(), new SparseLcsOptMatcherThetaB(),
+                    new UnmappedLeavesMatcherThetaC(), new InnerNodesMatcherThetaD(), new LeafMoveMatcherThetaE(),
+                    new CrossMoveMatcherThetaF());
+        }
+    }
+
     @Register(id = "gumtree-simple-id-theta")
     public static class SimpleIdGumtreeTheta extends CompositeMatcher {
         /**
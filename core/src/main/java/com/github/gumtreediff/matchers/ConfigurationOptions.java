@@ -35,6 +35,22 @@ public enum ConfigurationOptions {
      */
     bu_minsize,
 
+    /**
+     * Property defining the optimal algorithm used by the last chance match
+     * in bottom-up matchers. It has a string value that can be either zs or lean-zs (the default).
+     * @see com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher
+     * @see com.github.gumtreediff.matchers.optimal.zs.LeanZsMatcher
+     */
+    bu_lastchance,
+
+    /**
+     * Property defining the maximum ratio between the edit distance of two subtrees and
+     * their total size for the lean-zs last chance match to be applied. It has a double value.
+     * @see com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher
+     * @see com.github.gumtreediff.matchers.optimal.zs.LeanZsMatcher
+     */
+    bu_maxted,
+
     /**
      * Property defining the minimum priority threshold in subtree matchers
      * in order to be considered for matching. Priority relates to the
@@ -197,7 +197,7 @@ public class MappingStore implements Iterable<Mapping> {
      * Return whether or not the given source node has unmapped descendants.
      */
     public boolean hasUnmappedSrcChildren(Tree t) {
-        for (Tree c : t.getDescendants())
+        for (Tree c : t.descendants())
             if (!isSrcMapped(c))
                 return true;
 
@@ -208,7 +208,7 @@ public class MappingStore implements Iterable<Mapping> {
      * Return whether or not the given destination node has unmapped descendants.
      */
     public boolean hasUnmappedDstChildren(Tree t) {
-        for (Tree c : t.getDescendants())
+        for (Tree c : t.descendants())
             if (!isDstMapped(c))
                 return true;
 
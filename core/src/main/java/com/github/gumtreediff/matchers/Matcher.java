@@ -45,8 +45,9 @@ public interface Matcher extends Configurable {
      * src and dst AST in a new mapping store.
      * 
      * @see #match(Tree, Tree, MappingStore) 
+     * @see ArrayMappingStore
      */
     default MappingStore match(Tree src, Tree dst) {
-        return match(src, dst, new MappingStore(src, dst));
+        return match(src, dst, new ArrayMappingStore(src, dst));
     }
 }
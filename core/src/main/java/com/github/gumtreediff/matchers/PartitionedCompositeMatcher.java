@@ -0,0 +1,274 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.matchers;
+
+import com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.utils.Pair;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A pipeline of matchers running its last stages concurrently on disjoint pairs of subtrees.
+ * The first stage (the anchoring stage, e.g. {@link GreedySubtreeMatcher}) is run on the whole ASTs.
+ * Its mappings are used to pair the largest source subtrees below a size bound with the destination
+ * subtree having the same type and the highest dice similarity, as in {@link GreedyBottomUpMatcher}.
+ * The remaining stages are then run concurrently on each pair of subtrees, using fresh instances
+ * of the stages and a dedicated mapping store. The mappings found in the pairs are merged in the
+ * pre-order of the source subtrees, and the last stage (the recovery stage, e.g. a bottom-up matcher)
+ * is finally run on the whole ASTs to match the nodes located outside of the pairs.
+ * The result is deterministic, but can differ from the one of the sequential pipeline since
+ * the nodes of a pair can only be matched with nodes of the same pair before the final pass.
+ * The remaining stages are given as factories, called once for the final pass and once per pair,
+ * so that they can set up their instances freely. When {@link #configure(GumtreeProperties)} has been called,
+ * the instances built for the pairs are also configured with the given properties, as the ones of the final pass.
+ *
+ * @see CompositeMatchers.CompositeMatcher
+ */
+public class PartitionedCompositeMatcher extends CompositeMatchers.CompositeMatcher {
+    /**
+     * The default minimum value of the size bound of the source subtrees.
+     */
+    public static final int DEFAULT_MIN_PARTITION_SIZE = 64;
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private static final double SIM_THRESHOLD = 0.5;
+
+    private GumtreeProperties properties;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private int minPartitionSize = DEFAULT_MIN_PARTITION_SIZE;
+
+    private final Supplier<? extends Matcher>[] stages;
+
+    /**
+     * Instantiate a pipeline made of the given anchoring stage followed by the stages built
+     * by the given factories.
+     */
+    @SafeVarargs
+    public PartitionedCompositeMatcher(Matcher anchoring, Supplier<? extends Matcher>... stages) {
+        super(instantiate(anchoring, stages));
+        this.stages = stages;
+    }
+
+    private static Matcher[] instantiate(Matcher anchoring, Supplier<? extends Matcher>[] stages) {
+        if (anchoring == null)
+            throw new IllegalArgumentException("An anchoring matcher is required.");
+        Matcher[] matchers = new Matcher[stages.length + 1];
+        matchers[0] = anchoring;
+        for (int i = 0; i < stages.length; i++)
+            matchers[i + 1] = stages[i].get();
+        return matchers;
+    }
+
+    @Override
+    public void configure(GumtreeProperties properties) {
+        this.properties = properties;
+        super.configure(properties);
+    }
+
+    /**
+     * Set the pool running the stages on the pairs of subtrees. The common pool is used by default.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Set the minimum value of the size bound of the source subtrees. The size bound is
+     * computed so that each thread of the pool has several pairs to match, but is never below this value.
+     */
+    public void setMinPartitionSize(int minPartitionSize) {
+        if (minPartitionSize < 1)
+            throw new IllegalArgumentException("Expecting a positive size, got: " + minPartitionSize);
+        this.minPartitionSize = minPartitionSize;
+    }
+
+    public int getMinPartitionSize() {
+        return minPartitionSize;
+    }
+
+    @Override
+    public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
+        mappings = matchers[0].match(src, dst, mappings);
+
+        List<Pair<Tree, Tree>> partitions = partitions(src, mappings);
+        if (partitions.size() > 1 && pool.getParallelism() > 1) {
+            merge(partitions, matchPartitions(partitions, mappings), mappings);
+            // Only the recovery stage is needed for the nodes outside of the pairs.
+            if (matchers.length > 1)
+                mappings = matchers[matchers.length - 1].match(src, dst, mappings);
+        }
+        else {
+            for (int i = 1; i < matchers.length; i++)
+                mappings = matchers[i].match(src, dst, mappings);
+        }
+        return mappings;
+    }
+
+    /**
+     * Return the pairs of disjoint source and destination subtrees, in the pre-order of the source subtrees.
+     */
+    private List<Pair<Tree, Tree>> partitions(Tree src, MappingStore mappings) {
+        List<Pair<Tree, Tree>> partitions = new ArrayList<>();
+        int maxSize = Math.max(minPartitionSize,
+                src.getMetrics().size / (PARTITIONS_PER_THREAD * pool.getParallelism()));
+        if (src.getMetrics().size <= maxSize)
+            return partitions;
+
+        List<Tree> dstRoots = new ArrayList<>();
+        Deque<Tree> stack = new ArrayDeque<>();
+        stack.push(src);
+        while (!stack.isEmpty()) {
+            Tree t = stack.pop();
+            if (t.getMetrics().size > maxSize) {
+                for (int i = t.getChildren().size() - 1; i >= 0; i--)
+                    stack.push(t.getChild(i));
+            }
+            else if (!(t.isLeaf() || mappings.isSrcMapped(t))) {
+                Tree counterpart = counterpart(t, mappings, dstRoots);
+                if (counterpart != null) {
+                    partitions.add(new Pair<>(t, counterpart));
+                    dstRoots.add(counterpart);
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static Tree counterpart(Tree src, MappingStore mappings, List<Tree> dstRoots) {
+        Tree best = null;
+        double max = -1D;
+        Set<Tree> visited = new HashSet<>();
+        for (Tree c : src.descendants()) {
+            Tree seed = mappings.getDstForSrc(c);
+            while (seed != null && seed.getParent() != null) {
+                Tree parent = seed.getParent();
+                if (!visited.add(parent))
+                    break;
+                if (parent.getType() == src.getType() && !(mappings.isDstMapped(parent) || parent.isRoot())
+                        && isDisjoint(parent, dstRoots)) {
+                    double sim = SimilarityMetrics.diceSimilarity(src, parent, mappings);
+                    if (sim > max && sim >= SIM_THRESHOLD) {
+                        max = sim;
+                        best = parent;
+                    }
+                }
+                seed = parent;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isDisjoint(Tree t, List<Tree> roots) {
+        for (Tree root : roots)
+            if (isInside(t, root) || root.isDescendantOf(t))
+                return false;
+        return true;
+    }
+
+    private static boolean isInside(Tree t, Tree root) {
+        return t == root || t.isDescendantOf(root);
+    }
+
+    private List<MappingStore> matchPartitions(List<Pair<Tree, Tree>> partitions, MappingStore mappings) {
+        // The stages are instantiated and configured here since the factories and the properties
+        // are not required to be thread-safe.
+        List<Callable<MappingStore>> tasks = new ArrayList<>(partitions.size());
+        for (Pair<Tree, Tree> partition : partitions) {
+            Matcher[] stages = newStages();
+            tasks.add(() -> {
+                MappingStore buffer = seed(partition, mappings);
+                for (Matcher stage : stages)
+                    buffer = stage.match(partition.first, partition.second, buffer);
+                return buffer;
+            });
+        }
+
+        List<MappingStore> results = new ArrayList<>(partitions.size());
+        try {
+            for (Future<MappingStore> result : pool.invokeAll(tasks))
+                results.add(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching the partitions.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private Matcher[] newStages() {
+        Matcher[] instances = new Matcher[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            instances[i] = stages[i].get();
+            if (properties != null)
+                instances[i].configure(properties);
+        }
+        return instances;
+    }
+
+    /**
+     * Return a mapping store for the given pair containing the mappings of its nodes,
+     * including the ones to nodes outside of the pair, so that the stages do not map them again.
+     */
+    private static MappingStore seed(Pair<Tree, Tree> partition, MappingStore mappings) {
+        MappingStore buffer = new ArrayMappingStore(partition.first, partition.second);
+        for (Tree t : partition.first.preOrder())
+            if (mappings.isSrcMapped(t))
+                buffer.addMapping(t, mappings.getDstForSrc(t));
+        for (Tree t : partition.second.preOrder())
+            if (mappings.isDstMapped(t) && !buffer.isDstMapped(t))
+                buffer.addMapping(mappings.getSrcForDst(t), t);
+        return buffer;
+    }
+
+    private static void merge(List<Pair<Tree, Tree>> partitions, List<MappingStore> results,
+                              MappingStore mappings) {
+        for (int i = 0; i < partitions.size(); i++) {
+            Pair<Tree, Tree> partition = partitions.get(i);
+            List<Mapping> found = new ArrayList<>();
+            for (Mapping m : results.get(i))
+                if (isInside(m.first, partition.first) && isInside(m.second, partition.second)
+                        && !mappings.has(m.first, m.second))
+                    found.add(m);
+
+            found.sort(Comparator.comparingInt(m -> m.first.getMetrics().position));
+            for (Mapping m : found)
+                if (mappings.isMappingAllowed(m.first, m.second))
+                    mappings.addMapping(m.first, m.second);
+        }
+    }
+}
@@ -21,30 +21,37 @@ package com.github.gumtreediff.matchers;
 
 import com.github.gumtreediff.tree.Tree;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
+/**
+ * Similarity metrics between two nodes, according to their mapped descendants.
+ * The number of descendants of a node is given by its metrics, and the descendants
+ * of the destination node are identified in constant time using {@link Tree#isDescendantOf(Tree)}.
+ * Therefore, the computation of a similarity only visits the source subtree and does not
+ * allocate anything. It requires that the mapped nodes of the destination node belong to the
+ * same AST than the destination node, which is the case for the mappings built by the matchers.
+ */
 public class SimilarityMetrics {
     private SimilarityMetrics() {}
 
     public static double chawatheSimilarity(Tree src, Tree dst, MappingStore mappings) {
-        int max = Math.max(src.getDescendants().size(), dst.getDescendants().size());
+        int max = Math.max(src.numberOfDescendants(), dst.numberOfDescendants());
         return (double) numberOfMappedDescendants(src, dst, mappings) / (double) max;
     }
 
     public static double overlapSimilarity(Tree src, Tree dst, MappingStore mappings) {
-        int min = Math.min(src.getDescendants().size(), dst.getDescendants().size());
+        int min = Math.min(src.numberOfDescendants(), dst.numberOfDescendants());
         return (double) numberOfMappedDescendants(src, dst, mappings) / (double) min;
     }
 
     public static double diceSimilarity(Tree src, Tree dst, MappingStore mappings) {
         return diceCoefficient(numberOfMappedDescendants(src, dst, mappings),
-                src.getDescendants().size(), dst.getDescendants().size());
+                src.numberOfDescendants(), dst.numberOfDescendants());
     }
 
     public static double jaccardSimilarity(Tree src, Tree dst, MappingStore mappings) {
         return jaccardIndex(numberOfMappedDescendants(src, dst, mappings),
-                src.getDescendants().size(), dst.getDescendants().size());
+                src.numberOfDescendants(), dst.numberOfDescendants());
     }
 
     public static double diceCoefficient(int commonElementsNb, int leftElementsNb, int rightElementsNb) {
@@ -58,17 +65,22 @@ public class SimilarityMetrics {
     }
 
     private static int numberOfMappedDescendants(Tree src, Tree dst, MappingStore mappings) {
-        Set<Tree> dstDescendants = new HashSet<>(dst.getDescendants());
-        int mappedDescendants = 0;
+        return numberOfMappedNodes(src.getChildren(), dst, mappings);
+    }
 
-        for (var srcDescendant : src.getDescendants()) {
-            if (mappings.isSrcMapped(srcDescendant)) {
-                var dstForSrcDescendant = mappings.getDstForSrc(srcDescendant);
-                if (dstDescendants.contains(dstForSrcDescendant))
-                    mappedDescendants++;
-            }
+    /**
+     * Return the number of nodes of the given subtrees mapped to a descendant of the given node.
+     */
+    private static int numberOfMappedNodes(List<Tree> trees, Tree dst, MappingStore mappings) {
+        int mapped = 0;
+        for (int i = 0; i < trees.size(); i++) {
+            Tree t = trees.get(i);
+            Tree mappedDst = mappings.getDstForSrc(t);
+            if (mappedDst != null && mappedDst.isDescendantOf(dst))
+                mapped++;
+            if (!t.isLeaf())
+                mapped += numberOfMappedNodes(t.getChildren(), dst, mappings);
         }
-
-        return mappedDescendants;
+        return mapped;
     }
 }
@@ -80,7 +80,7 @@ public class XyBottomUpMatcher implements Matcher {
 
     private Set<Tree> getDstCandidates(MappingStore mappings, Tree src) {
         Set<Tree> mappedSrcDescendantsInDst = new HashSet<>();
-        for (var srcDescendant : src.getDescendants()) {
+        for (var srcDescendant : src.descendants()) {
             var dstMappedToSrcDescendant = mappings.getDstForSrc(srcDescendant);
             if (dstMappedToSrcDescendant != null)
                 mappedSrcDescendantsInDst.add(dstMappedToSrcDescendant);
@@ -80,7 +80,7 @@ public class ChangeDistillerBottomUpMatcher implements ConfigurableMatcher {
 
     private int numberOfLeaves(Tree root) {
         int numberOfLeaves = 0;
-        for (Tree tree : root.getDescendants())
+        for (Tree tree : root.descendants())
             if (tree.isLeaf())
                 numberOfLeaves++;
         return numberOfLeaves;
@@ -21,7 +21,7 @@
 package com.github.gumtreediff.matchers.heuristic.gt;
 
 import java.util.*;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import com.github.gumtreediff.matchers.*;
 import com.github.gumtreediff.tree.Tree;
@@ -33,7 +33,7 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
     protected int minPriority = DEFAULT_MIN_PRIORITY;
 
     private static final String DEFAULT_PRIORITY_CALCULATOR = "height";
-    protected Function<Tree, Integer> priorityCalculator = PriorityTreeQueue
+    protected ToIntFunction<Tree> priorityCalculator = PriorityTreeQueue
             .getPriorityCalculator(DEFAULT_PRIORITY_CALCULATOR);
 
     protected Tree src;
@@ -58,8 +58,8 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
 
         List<Pair<Set<Tree>, Set<Tree>>> ambiguousMappings = new ArrayList<>();
 
-        PriorityTreeQueue srcTrees = new DefaultPriorityTreeQueue(src, this.minPriority, this.priorityCalculator);
-        PriorityTreeQueue dstTrees = new DefaultPriorityTreeQueue(dst, this.minPriority, this.priorityCalculator);
+        PriorityTreeQueue srcTrees = new BucketPriorityTreeQueue(src, this.minPriority, this.priorityCalculator);
+        PriorityTreeQueue dstTrees = new BucketPriorityTreeQueue(dst, this.minPriority, this.priorityCalculator);
 
         while (PriorityTreeQueue.synchronize(srcTrees, dstTrees)) {
             var localHashMappings = new HashBasedMapper();
@@ -0,0 +1,132 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.heuristic.gt;
+
+import com.github.gumtreediff.tree.Tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A priority tree queue storing the trees in an array of lists indexed by their priority.
+ * Since the priority of a tree is greater than the priority of its children, the priority
+ * of the root bounds all the priorities, and the greatest priority is tracked by a pointer
+ * that only moves down when the trees are popped. The queue is therefore well suited to
+ * small bounded priorities such as the height or the size of the trees.
+ * Priorities are expected to be non-negative.
+ *
+ * @see DefaultPriorityTreeQueue
+ */
+public class BucketPriorityTreeQueue implements PriorityTreeQueue {
+    private static final int EMPTY = -1;
+
+    private ToIntFunction<Tree> priorityCalculator;
+    private List<Tree>[] buckets;
+    private int current = EMPTY;
+    private int minimumPriority;
+
+    public BucketPriorityTreeQueue(Tree root, int minimumPriority, ToIntFunction<Tree> priorityCalculator) {
+        this.setMinimumPriority(minimumPriority);
+        this.setPriorityCalculator(priorityCalculator);
+        this.buckets = newBuckets(priorityCalculator.applyAsInt(root) + 1);
+        add(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Tree>[] newBuckets(int size) {
+        return (List<Tree>[]) new List[Math.max(size, 1)];
+    }
+
+    @Override
+    public List<Tree> popOpen() {
+        List<Tree> pop = pop();
+        for (Tree t: pop)
+            open(t);
+        return pop;
+    }
+
+    @Override
+    public void setPriorityCalculator(ToIntFunction<Tree> priorityCalculator) {
+        this.priorityCalculator = priorityCalculator;
+    }
+
+    @Override
+    public List<Tree> pop() {
+        List<Tree> pop = buckets[currentPriority()];
+        buckets[current] = null;
+        current--;
+        while (current >= 0 && buckets[current] == null)
+            current--;
+        return pop;
+    }
+
+    @Override
+    public void open(Tree tree) {
+        for (Tree c: tree.getChildren())
+            add(c);
+    }
+
+    @Override
+    public int currentPriority() {
+        if (current == EMPTY)
+            throw new NoSuchElementException();
+        return current;
+    }
+
+    @Override
+    public void setMinimumPriority(int minimumPriority) {
+        this.minimumPriority = minimumPriority;
+    }
+
+    @Override
+    public int getMinimumPriority() {
+        return this.minimumPriority;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current == EMPTY;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(buckets, 0, current + 1, null);
+        current = EMPTY;
+    }
+
+    private void add(Tree t) {
+        int priority = priorityCalculator.applyAsInt(t);
+        if (priority < this.getMinimumPriority())
+            return;
+        if (priority < 0)
+            throw new IllegalArgumentException("Expecting a non-negative priority, got: " + priority);
+
+        if (priority >= buckets.length)
+            buckets = Arrays.copyOf(buckets, Math.max(priority + 1, buckets.length * 2));
+        if (buckets[priority] == null)
+            buckets[priority] = new ArrayList<>();
+        buckets[priority].add(t);
+        if (priority > current)
+            current = priority;
+    }
+}
@@ -25,14 +25,14 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public class DefaultPriorityTreeQueue implements PriorityTreeQueue {
-    private Function<Tree, Integer> priorityCalculator;
+    private ToIntFunction<Tree> priorityCalculator;
     private final Int2ObjectSortedMap<List<Tree>> trees;
     private int minimumPriority;
 
-    public DefaultPriorityTreeQueue(Tree root, int minimumPriority, Function<Tree, Integer> priorityCalculator) {
+    public DefaultPriorityTreeQueue(Tree root, int minimumPriority, ToIntFunction<Tree> priorityCalculator) {
         this.trees = new Int2ObjectRBTreeMap<>();
         this.setMinimumPriority(minimumPriority);
         this.setPriorityCalculator(priorityCalculator);
@@ -48,7 +48,7 @@ public class DefaultPriorityTreeQueue implements PriorityTreeQueue {
     }
 
     @Override
-    public void setPriorityCalculator(Function<Tree, Integer> priorityCalculator) {
+    public void setPriorityCalculator(ToIntFunction<Tree> priorityCalculator) {
         this.priorityCalculator = priorityCalculator;
     }
 
@@ -89,7 +89,7 @@ public class DefaultPriorityTreeQueue implements PriorityTreeQueue {
     }
 
     private void add(Tree t) {
-        int priority = priorityCalculator.apply(t);
+        int priority = priorityCalculator.applyAsInt(t);
         if (priority < this.getMinimumPriority())
             return;
 
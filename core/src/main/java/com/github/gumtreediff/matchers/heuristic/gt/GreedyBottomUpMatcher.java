@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 
 import com.github.gumtreediff.matchers.*;
+import com.github.gumtreediff.matchers.optimal.zs.LeanZsMatcher;
 import com.github.gumtreediff.matchers.optimal.zs.ZsMatcher;
 import com.github.gumtreediff.tree.Tree;
 import com.google.common.collect.Sets;
@@ -36,19 +37,25 @@ import com.google.common.collect.Sets;
  * selected nodes might be mapped. The two nodes are mapped if they are mappable
  * and have a similarity greater than SIM_THRESHOLD. Whenever two trees
  * are mapped, an optimal TED algorithm is applied to look for possibly forgotten
- * nodes.
+ * nodes. This algorithm is either {@link ZsMatcher} or {@link LeanZsMatcher}.
  */
 public class GreedyBottomUpMatcher implements Matcher {
     private static final int DEFAULT_SIZE_THRESHOLD = 1000;
     private static final double DEFAULT_SIM_THRESHOLD = 0.5;
+    private static final String DEFAULT_LAST_CHANCE_MATCHER = "lean-zs";
+    private static final double DEFAULT_MAX_DISTANCE = LeanZsMatcher.DEFAULT_MAX_DISTANCE;
 
     protected int sizeThreshold = DEFAULT_SIZE_THRESHOLD;
     protected double simThreshold = DEFAULT_SIM_THRESHOLD;
+    protected String lastChanceMatcher = DEFAULT_LAST_CHANCE_MATCHER;
+    protected double maxDistance = DEFAULT_MAX_DISTANCE;
 
     @Override
     public void configure(GumtreeProperties properties) {
         sizeThreshold = properties.tryConfigure(ConfigurationOptions.bu_minsize, sizeThreshold);
         simThreshold = properties.tryConfigure(ConfigurationOptions.bu_minsim, simThreshold);
+        lastChanceMatcher = properties.tryConfigure(ConfigurationOptions.bu_lastchance, lastChanceMatcher);
+        maxDistance = properties.tryConfigure(ConfigurationOptions.bu_maxted, maxDistance);
     }
 
     @Override
@@ -82,7 +89,7 @@ public class GreedyBottomUpMatcher implements Matcher {
 
     protected List<Tree> getDstCandidates(MappingStore mappings, Tree src) {
         List<Tree> seeds = new ArrayList<>();
-        for (Tree c : src.getDescendants()) {
+        for (Tree c : src.descendants()) {
             if (mappings.isSrcMapped(c))
                 seeds.add(mappings.getDstForSrc(c));
         }
@@ -105,7 +112,7 @@ public class GreedyBottomUpMatcher implements Matcher {
 
     protected void lastChanceMatch(MappingStore mappings, Tree src, Tree dst) {
         if (src.getMetrics().size < sizeThreshold || dst.getMetrics().size < sizeThreshold) {
-            Matcher m = new ZsMatcher();
+            Matcher m = newLastChanceMatcher();
             MappingStore zsMappings = m.match(src, dst, new MappingStore(src, dst));
             for (Mapping candidate : zsMappings) {
                 Tree srcCand = candidate.first;
@@ -116,6 +123,13 @@ public class GreedyBottomUpMatcher implements Matcher {
         }
     }
 
+    protected Matcher newLastChanceMatcher() {
+        if ("lean-zs".equals(lastChanceMatcher))
+            return new LeanZsMatcher(maxDistance, sizeThreshold);
+        else
+            return new ZsMatcher();
+    }
+
     public int getSizeThreshold() {
         return sizeThreshold;
     }
@@ -132,8 +146,25 @@ public class GreedyBottomUpMatcher implements Matcher {
         this.simThreshold = simThreshold;
     }
 
+    public String getLastChanceMatcher() {
+        return lastChanceMatcher;
+    }
+
+    public void setLastChanceMatcher(String lastChanceMatcher) {
+        this.lastChanceMatcher = lastChanceMatcher;
+    }
+
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    public void setMaxDistance(double maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
     @Override
     public Set<ConfigurationOptions> getApplicableOptions() {
-        return Sets.newHashSet(ConfigurationOptions.bu_minsize, ConfigurationOptions.bu_minsim);
+        return Sets.newHashSet(ConfigurationOptions.bu_minsize, ConfigurationOptions.bu_minsim,
+                ConfigurationOptions.bu_lastchance, ConfigurationOptions.bu_maxted);
     }
 }
@@ -32,11 +32,10 @@ public class GreedySubtreeMatcher extends AbstractSubtreeMatcher {
 
     @Override
     public void handleAmbiguousMappings(List<Pair<Set<Tree>, Set<Tree>>> ambiguousMappings) {
-        MappingComparators.FullMappingComparator comparator = new MappingComparators.FullMappingComparator(mappings);
         ambiguousMappings.sort(new AmbiguousMappingsComparator());
         ambiguousMappings.forEach((pair) -> {
             List<Mapping> candidates = convertToMappings(pair);
-            candidates.sort(comparator);
+            MappingComparators.sortWithFullComparison(candidates, mappings);
             candidates.forEach(mapping -> {
                 if (mappings.areBothUnmapped(mapping.first, mapping.second))
                     mappings.addMappingRecursively(mapping.first, mapping.second);
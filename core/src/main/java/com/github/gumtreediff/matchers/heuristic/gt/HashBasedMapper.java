@@ -19,6 +19,7 @@
 
 package com.github.gumtreediff.matchers.heuristic.gt;
 
+import com.github.gumtreediff.tree.FrozenTree;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.utils.Pair;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
@@ -47,13 +48,15 @@ public class HashBasedMapper {
     }
 
     public void addSrc(Tree src) {
-        mappings.putIfAbsent(src.getMetrics().hash, new Pair<>(new HashSet<>(), new HashSet<>()));
-        mappings.get(src.getMetrics().hash).first.add(src);
+        long fingerprint = FrozenTree.fingerprint(src);
+        mappings.putIfAbsent(fingerprint, new Pair<>(new HashSet<>(), new HashSet<>()));
+        mappings.get(fingerprint).first.add(src);
     }
 
     public void addDst(Tree dst) {
-        mappings.putIfAbsent(dst.getMetrics().hash, new Pair<>(new HashSet<>(), new HashSet<>()));
-        mappings.get(dst.getMetrics().hash).second.add(dst);
+        long fingerprint = FrozenTree.fingerprint(dst);
+        mappings.putIfAbsent(fingerprint, new Pair<>(new HashSet<>(), new HashSet<>()));
+        mappings.get(fingerprint).second.add(dst);
     }
 
     public Stream<Pair<Set<Tree>, Set<Tree>>> unique() {
@@ -73,10 +76,10 @@ public class HashBasedMapper {
     }
 
     public boolean isSrcMapped(Tree src) {
-        return mappings.get(src.getMetrics().hash).second.size() > 0;
+        return mappings.get(FrozenTree.fingerprint(src)).second.size() > 0;
     }
 
     public boolean isDstMapped(Tree dst) {
-        return mappings.get(dst.getMetrics().hash).first.size() > 0;
+        return mappings.get(FrozenTree.fingerprint(dst)).first.size() > 0;
     }
 }
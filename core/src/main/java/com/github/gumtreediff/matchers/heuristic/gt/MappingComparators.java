@@ -26,10 +26,97 @@ import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.utils.SequenceAlgorithms;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 public class MappingComparators {
+    /**
+     * Above this number of mappings, the sort keys are computed in parallel.
+     */
+    private static final int PARALLEL_KEYS_THRESHOLD = 64;
+
+    /**
+     * Sort the given mappings in the order defined by {@link FullMappingComparator}. Instead of
+     * being computed inside each comparison, the criteria of each mapping are computed once
+     * (in parallel using the common fork-join pool when there are many mappings), then the mappings
+     * are sorted using these precomputed keys. As with the comparator, the sort is stable.
+     * The given mapping store must not be modified during the sort.
+     */
+    public static void sortWithFullComparison(List<Mapping> mappings, MappingStore ms) {
+        int size = mappings.size();
+        if (size < 2)
+            return;
+
+        Map<Tree, List<Tree>> ancestors = new HashMap<>();
+        Map<Tree, double[]> posVectors = new HashMap<>();
+        for (Mapping m : mappings) {
+            for (Tree t : new Tree[] {m.first, m.second}) {
+                if (!ancestors.containsKey(t)) {
+                    ancestors.put(t, t.getParents());
+                    DoubleList posVector = PositionInParentsSimilarityMappingComparator.posVector(t);
+                    double[] positions = new double[posVector.size()];
+                    for (int i = 0; i < positions.length; i++)
+                        positions[i] = posVector.getDouble(i);
+                    posVectors.put(t, positions);
+                }
+            }
+        }
+
+        double[] siblingsSimilarities = new double[size];
+        double[] parentsSimilarities = new double[size];
+        double[] parentsPositionDistances = new double[size];
+        int[] textualPositionDistances = new int[size];
+        int[] positionDistances = new int[size];
+        IntStream indexes = IntStream.range(0, size);
+        if (size >= PARALLEL_KEYS_THRESHOLD)
+            indexes = indexes.parallel();
+        indexes.forEach(i -> {
+            Mapping m = mappings.get(i);
+            Tree srcParent = m.first.getParent();
+            Tree dstParent = m.second.getParent();
+            siblingsSimilarities[i] = srcParent == null || dstParent == null
+                    ? Double.NaN : SimilarityMetrics.diceSimilarity(srcParent, dstParent, ms);
+            List<Tree> srcAncestors = ancestors.get(m.first);
+            List<Tree> dstAncestors = ancestors.get(m.second);
+            parentsSimilarities[i] = SimilarityMetrics.diceCoefficient(
+                    SequenceAlgorithms.longestCommonSubsequenceWithType(srcAncestors, dstAncestors).size(),
+                    srcAncestors.size(), dstAncestors.size());
+            parentsPositionDistances[i] = PositionInParentsSimilarityMappingComparator.distance(
+                    posVectors.get(m.first), posVectors.get(m.second));
+            textualPositionDistances[i] = TextualPositionDistanceMappingComparator.textualPositionDistance(
+                    m.first, m.second);
+            positionDistances[i] = AbsolutePositionDistanceMappingComparator.absolutePositionDistance(
+                    m.first, m.second);
+        });
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        IntArrays.mergeSort(order, (i, j) -> {
+            int result = Double.compare(siblingsSimilarities[j], siblingsSimilarities[i]);
+            if (result != 0)
+                return result;
+            result = Double.compare(parentsSimilarities[j], parentsSimilarities[i]);
+            if (result != 0)
+                return result;
+            result = Double.compare(parentsPositionDistances[i], parentsPositionDistances[j]);
+            if (result != 0)
+                return result;
+            result = Integer.compare(textualPositionDistances[i], textualPositionDistances[j]);
+            if (result != 0)
+                return result;
+            return Integer.compare(positionDistances[i], positionDistances[j]);
+        });
+
+        Mapping[] sorted = new Mapping[size];
+        for (int i = 0; i < size; i++)
+            sorted[i] = mappings.get(order[i]);
+        for (int i = 0; i < size; i++)
+            mappings.set(i, sorted[i]);
+    }
+
     public static class FullMappingComparator implements Comparator<Mapping> {
 
         private final SiblingsSimilarityMappingComparator siblingsComparator;
@@ -76,8 +163,6 @@ public class MappingComparators {
     public static class SiblingsSimilarityMappingComparator implements Comparator<Mapping> {
         private final MappingStore ms;
 
-        private final Map<Tree, Set<Tree>> srcDescendants = new HashMap<>();
-        private final Map<Tree, Set<Tree>> dstDescendants = new HashMap<>();
         private final Map<Mapping, Double> cachedSimilarities = new HashMap<>();
 
         public SiblingsSimilarityMappingComparator(MappingStore ms) {
@@ -91,34 +176,15 @@ public class MappingComparators {
                 return 0;
 
             if (!cachedSimilarities.containsKey(m1))
-                cachedSimilarities.put(m1, SimilarityMetrics.diceCoefficient(commonDescendantsNb(m1.first.getParent(),
-                        m1.second.getParent()),
-                        srcDescendants.get(m1.first.getParent()).size(),
-                        dstDescendants.get(m1.second.getParent()).size()));
+                cachedSimilarities.put(m1, SimilarityMetrics.diceSimilarity(
+                        m1.first.getParent(), m1.second.getParent(), ms));
 
             if (!cachedSimilarities.containsKey(m2))
-                cachedSimilarities.put(m2, SimilarityMetrics.diceCoefficient(commonDescendantsNb(m2.first.getParent(),
-                        m2.second.getParent()),
-                        srcDescendants.get(m2.first.getParent()).size(),
-                        dstDescendants.get(m2.second.getParent()).size()));
+                cachedSimilarities.put(m2, SimilarityMetrics.diceSimilarity(
+                        m2.first.getParent(), m2.second.getParent(), ms));
 
             return Double.compare(cachedSimilarities.get(m2), cachedSimilarities.get(m1));
         }
-
-        private int commonDescendantsNb(Tree src, Tree dst) {
-            srcDescendants.putIfAbsent(src, new HashSet<>(src.getDescendants()));
-            dstDescendants.putIfAbsent(dst, new HashSet<>(dst.getDescendants()));
-
-            int common = 0;
-
-            for (Tree t: srcDescendants.get(src)) {
-                Tree m = ms.getDstForSrc(t);
-                if (m != null && dstDescendants.get(dst).contains(m))
-                    common++;
-            }
-
-            return common;
-        }
     }
 
     public static class ParentsSimilarityMappingComparator implements Comparator<Mapping> {
@@ -182,7 +248,15 @@ public class MappingComparators {
             return Math.sqrt(sum);
         }
 
-        private DoubleList posVector(Tree src) {
+        private static double distance(double[] posVector1, double[] posVector2) {
+            double sum = 0;
+            for (int i = 0; i < Math.min(posVector1.length, posVector2.length); i++) {
+                sum += (posVector1[i] - posVector2[i]) * (posVector1[i] - posVector2[i]);
+            }
+            return Math.sqrt(sum);
+        }
+
+        private static DoubleList posVector(Tree src) {
             DoubleList posVector = new DoubleArrayList();
             Tree current = src;
             while (current != null && current.getParent() != null) {
@@ -203,7 +277,7 @@ public class MappingComparators {
             return Integer.compare(m1PosDist, m2PosDist);
         }
 
-        private int textualPositionDistance(Tree src, Tree dst) {
+        private static int textualPositionDistance(Tree src, Tree dst) {
             return Math.abs(src.getPos() - dst.getPos()) + Math.abs(src.getEndPos() - dst.getEndPos());
         }
     }
@@ -216,7 +290,7 @@ public class MappingComparators {
             return Integer.compare(m1PosDist, m2PosDist);
         }
 
-        private int absolutePositionDistance(Tree src, Tree dst) {
+        private static int absolutePositionDistance(Tree src, Tree dst) {
             return Math.abs(src.getMetrics().position - dst.getMetrics().position);
         }
     }
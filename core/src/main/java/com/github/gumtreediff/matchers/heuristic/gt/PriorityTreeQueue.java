@@ -19,10 +19,11 @@
 
 package com.github.gumtreediff.matchers.heuristic.gt;
 
+import com.github.gumtreediff.tree.FrozenTree;
 import com.github.gumtreediff.tree.Tree;
 
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * A priority queue for trees. Priority must be a metric such as the value of a child tree is always
@@ -31,10 +32,10 @@ import java.util.function.Function;
  * to the queue.
  */
 public interface PriorityTreeQueue {
-    Function<Tree, Integer> HEIGHT_PRIORITY_CALCULATOR = (Tree t) -> t.getMetrics().height;
-    Function<Tree, Integer> SIZE_PRIORITY_CALCULATOR = (Tree t) -> t.getMetrics().size;
+    ToIntFunction<Tree> HEIGHT_PRIORITY_CALCULATOR = FrozenTree::height;
+    ToIntFunction<Tree> SIZE_PRIORITY_CALCULATOR = FrozenTree::size;
 
-    static Function<Tree, Integer> getPriorityCalculator(String name) {
+    static ToIntFunction<Tree> getPriorityCalculator(String name) {
         if ("size".equals(name))
             return SIZE_PRIORITY_CALCULATOR;
         else if ("height".equals(name))
@@ -52,7 +53,7 @@ public interface PriorityTreeQueue {
     /**
      * Set the function that computes the priority on a given tree.
      */
-    void setPriorityCalculator(Function<Tree, Integer> calculator);
+    void setPriorityCalculator(ToIntFunction<Tree> calculator);
 
     /**
      * Return the list of trees with the greatest priority.
@@ -53,11 +53,11 @@ public class SimpleBottomUpMatcher implements Matcher {
                 List<Tree> candidates = getDstCandidates(mappings, t);
                 Tree best = null;
                 var max = -1D;
-                var tSize = t.getDescendants().size();
+                var tSize = t.numberOfDescendants();
 
                 for (var candidate : candidates) {
                     var threshold = Double.isNaN(simThreshold)
-                            ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                            ? 1D / (1D + Math.log(candidate.numberOfDescendants() + tSize))
                             : simThreshold;
                     var sim = SimilarityMetrics.chawatheSimilarity(t, candidate, mappings);
                     if (sim > max && sim >= threshold) {
@@ -80,7 +80,7 @@ public class SimpleBottomUpMatcher implements Matcher {
 
     protected List<Tree> getDstCandidates(MappingStore mappings, Tree src) {
         List<Tree> seeds = new ArrayList<>();
-        for (Tree c : src.getDescendants()) {
+        for (Tree c : src.descendants()) {
             Tree m = mappings.getDstForSrc(c);
             if (m != null)
                 seeds.add(m);
@@ -67,11 +67,11 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
         List<Tree> candidates = getDstCandidates(mappings, src);
         Tree dst = null;
         var maxSim = -1D;
-        var tSize = src.getDescendants().size();
+        var tSize = src.numberOfDescendants();
 
         for (var candidate : candidates) {
             var threshold = Double.isNaN(simThreshold)
-                    ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                    ? 1D / (1D + Math.log(candidate.numberOfDescendants() + tSize))
                     : simThreshold;
             var sim = SimilarityMetrics.chawatheSimilarity(src, candidate, mappings);
             if (sim > maxSim && sim >= threshold) {
@@ -87,11 +87,11 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
         List<Tree> candidates = getSrcCandidates(mappings, dst);
         Tree src = null;
         var maxSim = -1D;
-        var tSize = dst.getDescendants().size();
+        var tSize = dst.numberOfDescendants();
 
         for (var candidate : candidates) {
             var threshold = Double.isNaN(simThreshold)
-                    ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                    ? 1D / (1D + Math.log(candidate.numberOfDescendants() + tSize))
                     : simThreshold;
             // swap candidate and dst as chawatheSimilarity is not symmetric
             var sim = SimilarityMetrics.chawatheSimilarity(candidate, dst, mappings);
@@ -106,7 +106,7 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
 
     protected List<Tree> getDstCandidates(MappingStore mappings, Tree src) {
         List<Tree> seeds = new ArrayList<>();
-        for (Tree c : src.getDescendants()) {
+        for (Tree c : src.descendants()) {
             Tree m = mappings.getDstForSrc(c);
             if (m != null)
                 seeds.add(m);
@@ -130,7 +130,7 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
 
     protected List<Tree> getSrcCandidates(MappingStore mappings, Tree dst) {
         List<Tree> seeds = new ArrayList<>();
-        for (Tree c : dst.getDescendants()) {
+        for (Tree c : dst.descendants()) {
             Tree m = mappings.getSrcForDst(c);
             if (m != null)
                 seeds.add(m);
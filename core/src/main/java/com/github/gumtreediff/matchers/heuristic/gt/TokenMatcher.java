@@ -60,7 +60,7 @@ public class TokenMatcher implements Matcher {
             Tree t = stack.pop();
             if (mappings.isSrcMapped(t)) {
                 var treeInDst = mappings.getDstForSrc(t);
-                if (dst.getDescendants().contains(treeInDst) || dst.equals(treeInDst)) {
+                if (treeInDst.isDescendantOf(dst) || dst.equals(treeInDst)) {
                     remappings.addMapping(t, treeInDst);
                 }
             }
@@ -265,7 +265,7 @@ public class TokenMatcher implements Matcher {
             }
             if (mappings.isSrcMapped(t)) {
                 var treeInDst = mappings.getDstForSrc(t);
-                if (dst.getParent().getDescendants().contains(treeInDst)) {
+                if (treeInDst.isDescendantOf(dst.getParent())) {
                     remappings.addMapping(t, treeInDst);
                 }
             } else if (t.isLeaf()) {
@@ -94,6 +94,7 @@ public class RtedAlgorithm {
 	private int[] strStat = new int[5]; // statistics for strategies
 										// LEFT,RIGHT,HEAVY,SUM
 	private double costDel, costIns, costMatch; // edit operations costs
+	private final RtedWorkspace workspace; // the arrays reused between computations
 
 	/**
 	 * The constructor. Parameters passed are the edit operation costs.
@@ -103,9 +104,30 @@ public class RtedAlgorithm {
 	 * @param matchCost
 	 */
 	public RtedAlgorithm(double delCost, double insCost, double matchCost) {
+		this(delCost, insCost, matchCost, new RtedWorkspace());
+	}
+
+	/**
+	 * Instantiate an algorithm using the given workspace, for instance the one
+	 * of the current thread, to reuse the arrays of the previous computations.
+	 * 
+	 * @see RtedWorkspace#forCurrentThread()
+	 */
+	public RtedAlgorithm(double delCost, double insCost, double matchCost, RtedWorkspace workspace) {
 		this.costDel = delCost;
 		this.costIns = insCost;
 		this.costMatch = matchCost;
+		this.workspace = workspace;
+	}
+
+	/**
+	 * Compute the tree edit distance between the two trees, without computing
+	 * the edit mapping.
+	 */
+	public double computeTreeDist(Tree src, Tree dst) {
+		init(src, dst);
+		computeOptimalStrategy();
+		return nonNormalizedTreeDist();
 	}
 
 	public double nonNormalizedTreeDist() {
@@ -124,11 +146,12 @@ public class RtedAlgorithm {
 		it2 = new InfoTree(dst, ld);
 		size1 = it1.getSize();
 		size2 = it2.getSize();
-		ij = new int[Math.max(size1, size2)][Math.max(size1, size2)];
-		delta = new double[size1][size2];
-		deltaBit = new byte[size1][size2];
-		costV = new long[3][size1][size2];
-		costW = new long[3][size2];
+		workspace.ensureTrees(size1, size2);
+		ij = workspace.ij;
+		delta = workspace.delta;
+		deltaBit = workspace.deltaBit;
+		costV = workspace.costV;
+		costW = workspace.costW;
 
 		// Calculate delta between every leaf in G (empty tree) and all the
 		// nodes in F.
@@ -156,6 +179,7 @@ public class RtedAlgorithm {
 				if (sizes1[x] == 1 && sizes2[y] == 1) { // both nodes are leafs
 					delta[x][y] = 0;
 				} else {
+					delta[x][y] = 0; // the workspace may contain a previous value
 					if (sizes1[x] == 1) {
 						delta[x][y] = sizes2[y] - 1;
 					}
@@ -193,7 +217,9 @@ public class RtedAlgorithm {
 		int[] post2parent1 = it1.info[POST2_PARENT];
 		int[] post2parent2 = it2.info[POST2_PARENT];
 
-		str = new int[size1][size2];
+		str = workspace.str;
+		long[] mins = new long[7]; // costs of the strategies, BOTH is never chosen
+		mins[BOTH] = Long.MAX_VALUE;
 
 		// v represents nodes of left input tree in postorder
 		// w represents nodes of right input tree in postorder
@@ -233,8 +259,12 @@ public class RtedAlgorithm {
 				revRightMin = (long) post2size2[w] * (long) post2revkrSum1[v]
 						+ costW[RIGHT][w];
 
-				long[] mins = { leftMin, rightMin, heavyMin, Long.MAX_VALUE,
-						revLeftMin, revRightMin, revHeavyMin };
+				mins[LEFT] = leftMin;
+				mins[RIGHT] = rightMin;
+				mins[HEAVY] = heavyMin;
+				mins[REVLEFT] = revLeftMin;
+				mins[REVRIGHT] = revRightMin;
+				mins[REVHEAVY] = revHeavyMin;
 
 				min = leftMin;
 				strategy = 0;
@@ -452,7 +482,8 @@ public class RtedAlgorithm {
 	private void treeEditDist(InfoTree it1, InfoTree it2, int i, int j) {
 		int m = i - it1.info[POST2_LLD][i] + 2;
 		int n = j - it2.info[POST2_LLD][j] + 2;
-		double[][] forestdist = new double[m][n];
+		workspace.ensureForest(m, n);
+		double[][] forestdist = workspace.forestdist;
 		int ioff = it1.info[POST2_LLD][i] - 1;
 		int joff = it2.info[POST2_LLD][j] - 1;
 		boolean switched = it1.isSwitched();
@@ -512,7 +543,8 @@ public class RtedAlgorithm {
 	private void treeEditDistRev(InfoTree it1, InfoTree it2, int i, int j) {
 		int m = i - it1.info[RPOST2_RLD][i] + 2;
 		int n = j - it2.info[RPOST2_RLD][j] + 2;
-		double[][] forestdist = new double[m][n];
+		workspace.ensureForest(m, n);
+		double[][] forestdist = workspace.forestdist;
 		int ioff = it1.info[RPOST2_RLD][i] - 1;
 		int joff = it2.info[RPOST2_RLD][j] - 1;
 		boolean switched = it1.isSwitched();
@@ -586,10 +618,11 @@ public class RtedAlgorithm {
 
 		// Initialize arrays to their maximal possible size for current pairs of
 		// subtrees.
-		t = new double[gSize][gSize];
-		tCOPY = new double[gSize][gSize];
-		s = new double[fSize][gSize];
-		q = new double[fSize];
+		workspace.ensureHeavyPath(fSize, gSize);
+		t = workspace.t;
+		tCOPY = workspace.tCOPY;
+		s = workspace.s;
+		q = workspace.q;
 
 		int vp = -1;
 		int nextVp = -1;
@@ -861,8 +894,8 @@ public class RtedAlgorithm {
 			// compute table T => add row to T
 			// we have to copy the values, otherwise they may be overwritten t
 			// early
-			t[i] = (realStrategy == BOTH && aStrategy == LEFT) ? s[k - 1 - 1]
-					.clone() : s[k - 1].clone();
+			System.arraycopy((realStrategy == BOTH && aStrategy == LEFT) ? s[k - 1 - 1]
+					: s[k - 1], 0, t[i], 0, gSize);
 
 			if (i > 0) {
 				// compute table Q
@@ -1044,8 +1077,9 @@ public class RtedAlgorithm {
 	public ArrayDeque<int[]> computeEditMapping() {
 
 		// initialize tree and forest distance arrays
-		double[][] treedist = new double[size1 + 1][size2 + 1];
-		double[][] forestdist = new double[size1 + 1][size2 + 1];
+		workspace.ensureMapping(size1 + 1, size2 + 1);
+		double[][] treedist = workspace.mappingTreedist;
+		double[][] forestdist = workspace.mappingForestdist;
 		
 		boolean rootNodePair = true;
 
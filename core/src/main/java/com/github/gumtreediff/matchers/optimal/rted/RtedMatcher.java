@@ -29,15 +29,35 @@ import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeUtils;
 
 public class RtedMatcher implements Matcher {
+    /**
+     * Return the tree edit distance between the two trees, without computing the mappings.
+     * It is computed using the workspace of the current thread, which is then trimmed
+     * to {@link RtedWorkspace#MAX_RETAINED_CELLS}.
+     *
+     * @see RtedWorkspace#forCurrentThread()
+     */
+    public static double distance(Tree src, Tree dst) {
+        RtedWorkspace workspace = RtedWorkspace.forCurrentThread();
+        try {
+            return new RtedAlgorithm(1D, 1D, 1D, workspace).computeTreeDist(src, dst);
+        } finally {
+            workspace.trim(RtedWorkspace.MAX_RETAINED_CELLS);
+        }
+    }
 
     @Override
     public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
-
-        RtedAlgorithm a = new RtedAlgorithm(1D, 1D, 1D);
-        a.init(src, dst);
-        a.computeOptimalStrategy();
-        a.nonNormalizedTreeDist();
-        ArrayDeque<int[]> arrayMappings = a.computeEditMapping();
+        RtedWorkspace workspace = RtedWorkspace.forCurrentThread();
+        ArrayDeque<int[]> arrayMappings;
+        try {
+            RtedAlgorithm a = new RtedAlgorithm(1D, 1D, 1D, workspace);
+            a.init(src, dst);
+            a.computeOptimalStrategy();
+            a.nonNormalizedTreeDist();
+            arrayMappings = a.computeEditMapping();
+        } finally {
+            workspace.trim(RtedWorkspace.MAX_RETAINED_CELLS);
+        }
         List<Tree> srcs = TreeUtils.postOrder(src);
         List<Tree> dsts = TreeUtils.postOrder(dst);
         for (int[] m : arrayMappings) {
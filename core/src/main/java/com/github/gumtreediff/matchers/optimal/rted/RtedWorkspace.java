@@ -0,0 +1,179 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.optimal.rted;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * The arrays used by {@link RtedAlgorithm}, which are quadratic in the size of the trees.
+ * A workspace only grows, so that successive computations reuse the arrays allocated by
+ * the previous ones, until it is trimmed (see {@link #trim(long)}). A workspace must not be shared
+ * by several algorithms used concurrently, or whose computations are interleaved.
+ *
+ * @see #forCurrentThread()
+ */
+public final class RtedWorkspace {
+    /**
+     * The maximum number of cells retained by the workspaces of the threads after a computation
+     * of {@link RtedMatcher}, which bounds the memory they retain to 16 MB.
+     */
+    public static final long MAX_RETAINED_CELLS = 1L << 21;
+
+    private static final ThreadLocal<RtedWorkspace> WORKSPACES = ThreadLocal.withInitial(RtedWorkspace::new);
+
+    int[][] ij = new int[0][0];
+    double[][] delta = new double[0][0];
+    byte[][] deltaBit = new byte[0][0];
+    long[][][] costV = new long[3][0][0];
+    long[][] costW = new long[3][0];
+    int[][] str = new int[0][0];
+    double[][] t = new double[0][0];
+    double[][] tCOPY = new double[0][0];
+    double[][] s = new double[0][0];
+    double[] q = new double[0];
+    double[][] forestdist = new double[0][0];
+    double[][] mappingTreedist = new double[0][0];
+    double[][] mappingForestdist = new double[0][0];
+
+    /**
+     * Return the workspace of the current thread.
+     */
+    public static RtedWorkspace forCurrentThread() {
+        return WORKSPACES.get();
+    }
+
+    /**
+     * Return the number of cells of the arrays currently held by the workspace.
+     */
+    public long capacity() {
+        long cells = cells(ij) + cells(delta) + cells(deltaBit) + cells(str) + cells(t) + cells(tCOPY) + cells(s)
+                + cells(forestdist) + cells(mappingTreedist) + cells(mappingForestdist) + q.length;
+        for (long[][] a : costV)
+            cells += a.length == 0 ? 0 : (long) a.length * a[0].length;
+        for (long[] a : costW)
+            cells += a.length;
+        return cells;
+    }
+
+    /**
+     * Release the arrays of the workspace if they hold more than the given number of cells.
+     */
+    public void trim(long maxCells) {
+        if (capacity() > maxCells)
+            release();
+    }
+
+    /**
+     * Release all the arrays of the workspace.
+     */
+    public void release() {
+        ij = new int[0][0];
+        delta = new double[0][0];
+        deltaBit = new byte[0][0];
+        costV = new long[3][0][0];
+        costW = new long[3][0];
+        str = new int[0][0];
+        t = new double[0][0];
+        tCOPY = new double[0][0];
+        s = new double[0][0];
+        q = new double[0];
+        forestdist = new double[0][0];
+        mappingTreedist = new double[0][0];
+        mappingForestdist = new double[0][0];
+    }
+
+    private static long cells(Object[] a) {
+        if (a.length == 0)
+            return 0;
+        return (long) a.length * Array.getLength(a[0]);
+    }
+
+    void ensureTrees(int size1, int size2) {
+        int max = Math.max(size1, size2);
+        if (!fits(ij, max, max))
+            ij = new int[Math.max(max, ij.length)][Math.max(max, width(ij))];
+        if (!fits(delta, size1, size2))
+            delta = new double[Math.max(size1, delta.length)][Math.max(size2, width(delta))];
+        if (!fits(deltaBit, size1, size2))
+            deltaBit = new byte[Math.max(size1, deltaBit.length)][Math.max(size2, width(deltaBit))];
+        if (!fits(str, size1, size2))
+            str = new int[Math.max(size1, str.length)][Math.max(size2, width(str))];
+        for (int k = 0; k < costV.length; k++) {
+            if (!fits(costV[k], size1, size2))
+                costV[k] = new long[Math.max(size1, costV[k].length)][Math.max(size2, width(costV[k]))];
+            else
+                for (int v = 0; v < size1; v++)
+                    Arrays.fill(costV[k][v], 0, size2, 0);
+            if (costW[k].length < size2)
+                costW[k] = new long[size2];
+        }
+    }
+
+    void ensureHeavyPath(int fSize, int gSize) {
+        if (!fits(t, gSize, gSize))
+            t = new double[Math.max(gSize, t.length)][Math.max(gSize, width(t))];
+        else
+            clear(t, gSize, gSize);
+        if (!fits(tCOPY, gSize, gSize))
+            tCOPY = new double[Math.max(gSize, tCOPY.length)][Math.max(gSize, width(tCOPY))];
+        else
+            clear(tCOPY, gSize, gSize);
+        if (!fits(s, fSize, gSize))
+            s = new double[Math.max(fSize, s.length)][Math.max(gSize, width(s))];
+        else
+            clear(s, fSize, gSize);
+        if (q.length < fSize)
+            q = new double[fSize];
+        else
+            Arrays.fill(q, 0, fSize, 0);
+    }
+
+    void ensureForest(int rows, int cols) {
+        if (!fits(forestdist, rows, cols))
+            forestdist = new double[Math.max(rows, forestdist.length)][Math.max(cols, width(forestdist))];
+    }
+
+    void ensureMapping(int rows, int cols) {
+        if (!fits(mappingTreedist, rows, cols))
+            mappingTreedist = new double[Math.max(rows, mappingTreedist.length)]
+                    [Math.max(cols, width(mappingTreedist))];
+        else
+            clear(mappingTreedist, rows, cols);
+        if (!fits(mappingForestdist, rows, cols))
+            mappingForestdist = new double[Math.max(rows, mappingForestdist.length)]
+                    [Math.max(cols, width(mappingForestdist))];
+        else
+            clear(mappingForestdist, rows, cols);
+    }
+
+    private static boolean fits(Object[] a, int rows, int cols) {
+        return a.length >= rows && width(a) >= cols;
+    }
+
+    private static int width(Object[] a) {
+        return a.length == 0 ? 0 : Array.getLength(a[0]);
+    }
+
+    private static void clear(double[][] a, int rows, int cols) {
+        for (int r = 0; r < rows; r++)
+            Arrays.fill(a[r], 0, cols, 0);
+    }
+}
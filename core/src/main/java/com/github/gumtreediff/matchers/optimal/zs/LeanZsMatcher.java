@@ -0,0 +1,297 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.optimal.zs;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.StringMetrics;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.Type;
+
+/**
+ * A memory-lean version of {@link ZsMatcher}, computing the same mappings. The distances
+ * are stored as doubles, as in {@link ZsMatcher}, in flat matrices that are reused by the successive
+ * matchings performed on a same thread when they are small enough (see {@link #LeanZsMatcher(double, int)}),
+ * and the leftmost leaf descendants
+ * are deduced from the post-order numbering instead of being looked up in a map.
+ * Additionally, the matching can be skipped when the edit distance between the two trees
+ * provably exceeds a given ratio of their total size (see {@link #lowerBound(Tree, Tree)}),
+ * in which case no mapping is produced. The trees whose product of sizes exceeds {@link #MAX_CELLS}
+ * are rejected with an {@link IllegalArgumentException}, since their matrices can't be allocated.
+ *
+ * @see ZsMatcher
+ */
+public class LeanZsMatcher implements Matcher {
+    /**
+     * The default maximum ratio between the edit distance and the total size of the trees.
+     * Since the edit distance is at most the total size, it disables the early exit.
+     */
+    public static final double DEFAULT_MAX_DISTANCE = 1D;
+
+    /**
+     * The maximum number of cells of the distance matrices, that is the maximum product
+     * of the sizes of the trees.
+     */
+    public static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    /**
+     * The default maximum size of the trees whose matrices are kept for reuse. It is the default
+     * size threshold of the last chance match of the bottom-up matchers, so that the matrices of
+     * their last chance matches are reused.
+     */
+    public static final int DEFAULT_MAX_POOLED_SIZE = 1000;
+
+    private static final ThreadLocal<double[][]> POOL = ThreadLocal.withInitial(() -> new double[2][0]);
+
+    private final double maxDistance;
+
+    private final long maxPooledCells;
+
+    private final StringMetric labelMetric = StringMetrics.qGramsDistance();
+
+    private Tree[] srcs;
+    private Tree[] dsts;
+    private int[] srcLlds;
+    private int[] dstLlds;
+
+    private int cols;
+    private double[] treeDist;
+    private double[] forestDist;
+
+    public LeanZsMatcher() {
+        this(DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * Instantiate a matcher that does not produce any mapping when the edit distance is
+     * known to exceed the given ratio of the total size of the trees.
+     */
+    public LeanZsMatcher(double maxDistance) {
+        this(maxDistance, DEFAULT_MAX_POOLED_SIZE);
+    }
+
+    /**
+     * Instantiate a matcher with the given maximum distance ratio, reusing the matrices of
+     * the trees whose product of sizes is at most the square of the given size. The other matrices
+     * are allocated for a single matching. Each thread retains at most the two matrices of
+     * the largest such matching, that is 16 * (maxPooledSize + 1)^2 bytes (about 16 MB
+     * for the default size).
+     */
+    public LeanZsMatcher(double maxDistance, int maxPooledSize) {
+        this.maxDistance = maxDistance;
+        this.maxPooledCells = Math.min((long) (maxPooledSize + 1) * (maxPooledSize + 1), MAX_CELLS);
+    }
+
+    @Override
+    public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
+        if (maxDistance < DEFAULT_MAX_DISTANCE
+                && lowerBound(src, dst) > maxDistance * (src.getMetrics().size + dst.getMetrics().size))
+            return mappings;
+
+        long cells = (long) (src.getMetrics().size + 1) * (dst.getMetrics().size + 1);
+        if (cells > MAX_CELLS)
+            throw new IllegalArgumentException("Trees too large for the Zhang-Shasha algorithm: "
+                    + src.getMetrics().size + " and " + dst.getMetrics().size + " nodes.");
+
+        srcs = postOrder(src);
+        dsts = postOrder(dst);
+        srcLlds = llds(srcs);
+        dstLlds = llds(dsts);
+        cols = dsts.length;
+
+        if (cells > maxPooledCells) {
+            treeDist = new double[(int) cells];
+            forestDist = new double[(int) cells];
+        } else {
+            double[][] pool = POOL.get();
+            if (pool[0].length < cells) {
+                pool[0] = new double[(int) cells];
+                pool[1] = new double[(int) cells];
+            }
+            treeDist = pool[0];
+            forestDist = pool[1];
+        }
+        try {
+            match(mappings);
+        } finally {
+            treeDist = null;
+            forestDist = null;
+            srcs = null;
+            dsts = null;
+        }
+        return mappings;
+    }
+
+    /**
+     * Return a lower bound of the edit distance between the two trees. Since a node can only be
+     * updated into a node of the same type, each node whose type is more frequent in its tree
+     * than in the other one has to be deleted or inserted, at a unit cost.
+     */
+    public static int lowerBound(Tree src, Tree dst) {
+        Map<Type, int[]> counts = new HashMap<>();
+        for (Tree t : src.preOrder())
+            counts.computeIfAbsent(t.getType(), k -> new int[1])[0]++;
+        for (Tree t : dst.preOrder())
+            counts.computeIfAbsent(t.getType(), k -> new int[1])[0]--;
+        int bound = 0;
+        for (int[] count : counts.values())
+            bound += Math.abs(count[0]);
+        return bound;
+    }
+
+    /**
+     * Return the nodes of the given tree in post-order, starting at index 1.
+     */
+    private static Tree[] postOrder(Tree root) {
+        Tree[] nodes = new Tree[root.getMetrics().size + 1];
+        int i = 1;
+        for (Tree t : root.postOrder())
+            nodes[i++] = t;
+        return nodes;
+    }
+
+    /**
+     * Return the leftmost leaf descendants of the nodes. In post-order, the subtree of a node
+     * is numbered contiguously and ends with the node, hence starts with its leftmost leaf.
+     */
+    private static int[] llds(Tree[] nodes) {
+        int[] llds = new int[nodes.length];
+        for (int i = 1; i < nodes.length; i++)
+            llds[i] = i - nodes[i].getMetrics().size + 1;
+        return llds;
+    }
+
+    private static int[] keyRoots(int[] llds) {
+        int leaves = 0;
+        for (int i = 1; i < llds.length; i++)
+            if (llds[i] == i)
+                leaves++;
+        int[] kr = new int[leaves];
+        boolean[] visited = new boolean[llds.length];
+        int k = kr.length - 1;
+        for (int i = llds.length - 1; i >= 1; i--) {
+            if (!visited[llds[i]]) {
+                kr[k] = i;
+                visited[llds[i]] = true;
+                k--;
+            }
+        }
+        return kr;
+    }
+
+    private void computeTreeDist() {
+        int[] srcKr = keyRoots(srcLlds);
+        int[] dstKr = keyRoots(dstLlds);
+        for (int i : srcKr)
+            for (int j : dstKr)
+                forestDist(i, j);
+    }
+
+    private void forestDist(int i, int j) {
+        int li = srcLlds[i];
+        int lj = dstLlds[j];
+        forestDist[(li - 1) * cols + lj - 1] = 0;
+        for (int di = li; di <= i; di++) {
+            int row = di * cols;
+            int previousRow = row - cols;
+            forestDist[row + lj - 1] = forestDist[previousRow + lj - 1] + 1D;
+            for (int dj = lj; dj <= j; dj++) {
+                forestDist[(li - 1) * cols + dj] = forestDist[(li - 1) * cols + dj - 1] + 1D;
+
+                double insDel = Math.min(forestDist[previousRow + dj] + 1D, forestDist[row + dj - 1] + 1D);
+                if (srcLlds[di] == li && dstLlds[dj] == lj) {
+                    double costUpd = getUpdateCost(srcs[di], dsts[dj]);
+                    forestDist[row + dj] = Math.min(insDel, forestDist[previousRow + dj - 1] + costUpd);
+                    treeDist[row + dj] = forestDist[row + dj];
+                } else {
+                    forestDist[row + dj] = Math.min(insDel,
+                            forestDist[(srcLlds[di] - 1) * cols + dstLlds[dj] - 1] + treeDist[row + dj]);
+                }
+            }
+        }
+    }
+
+    private void match(MappingStore mappings) {
+        computeTreeDist();
+
+        boolean rootNodePair = true;
+
+        ArrayDeque<int[]> treePairs = new ArrayDeque<>();
+        treePairs.addFirst(new int[] {srcs.length - 1, dsts.length - 1});
+
+        while (!treePairs.isEmpty()) {
+            int[] treePair = treePairs.removeFirst();
+
+            int lastRow = treePair[0];
+            int lastCol = treePair[1];
+
+            if (!rootNodePair)
+                forestDist(lastRow, lastCol);
+
+            rootNodePair = false;
+
+            int firstRow = srcLlds[lastRow] - 1;
+            int firstCol = dstLlds[lastCol] - 1;
+
+            int row = lastRow;
+            int col = lastCol;
+
+            while ((row > firstRow) || (col > firstCol)) {
+                if ((row > firstRow) && (forestDist[(row - 1) * cols + col] + 1D == forestDist[row * cols + col])) {
+                    row--;
+                } else if ((col > firstCol)
+                        && (forestDist[row * cols + col - 1] + 1D == forestDist[row * cols + col])) {
+                    col--;
+                } else {
+                    if (srcLlds[row] - 1 == firstRow && dstLlds[col] - 1 == firstCol) {
+                        Tree tSrc = srcs[row];
+                        Tree tDst = dsts[col];
+                        if (tSrc.getType() == tDst.getType())
+                            mappings.addMapping(tSrc, tDst);
+                        else
+                            throw new RuntimeException("Should not map incompatible nodes.");
+                        row--;
+                        col--;
+                    } else {
+                        treePairs.addFirst(new int[] {row, col});
+                        row = srcLlds[row] - 1;
+                        col = dstLlds[col] - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    private double getUpdateCost(Tree n1, Tree n2) {
+        if (n1.getType() == n2.getType())
+            if ("".equals(n1.getLabel()) || "".equals(n2.getLabel()))
+                return 1D;
+            else
+                return 1D - labelMetric.compare(n1.getLabel(), n2.getLabel());
+        else
+            return Double.MAX_VALUE;
+    }
+}
@@ -20,19 +20,20 @@
 
 package com.github.gumtreediff.matchers.optimizations;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ToIntFunction;
 
-import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.tree.Tree;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 /**
  * This implements the cross move matcher Theta F.
+ * The mappings are processed in the breadth-first order of their source nodes, then of
+ * their destination nodes. They are packed into longs containing the breadth-first positions
+ * of their nodes, so that they are sorted using a primitive sort.
  */
 public class CrossMoveMatcherThetaF implements Matcher {
 
@@ -50,11 +51,31 @@ public class CrossMoveMatcherThetaF implements Matcher {
     }
 
     private void thetaF() {
-        LinkedList<Mapping> workList = new LinkedList<>(mappings.asSet());
-        Collections.sort(workList, new BfsComparator(src, dst));
-        for (Mapping pair : workList) {
-            Tree parentOld = pair.first.getParent();
-            Tree parentNew = pair.second.getParent();
+        // The nodes in breadth-first order, and their breadth-first positions indexed by post-order id.
+        PackedMappings packer = new PackedMappings(src, dst);
+        Tree[] srcNodes = new Tree[packer.srcSize()];
+        int[] srcPositions = breadthFirstPositions(src, srcNodes, packer::srcId);
+        Tree[] dstNodes = new Tree[packer.dstSize()];
+        int[] dstPositions = breadthFirstPositions(dst, dstNodes, packer::dstId);
+
+        LongArrayList workList = new LongArrayList(mappings.size());
+        for (int id = 0; id < packer.srcSize(); id++) {
+            Tree mapped = mappings.getDstForSrc(packer.srcNode(id));
+            if (mapped != null) {
+                int dstId = packer.dstId(mapped);
+                if (dstId < packer.dstSize()) {
+                    workList.add(((long) srcPositions[id] << 32) | dstPositions[dstId]);
+                }
+            }
+        }
+        PackedMappings.sort(workList);
+
+        for (int i = 0; i < workList.size(); i++) {
+            long pair = workList.getLong(i);
+            Tree first = srcNodes[(int) (pair >>> 32)];
+            Tree second = dstNodes[(int) pair];
+            Tree parentOld = first.getParent();
+            Tree parentNew = second.getParent();
             if (mappings.isSrcMapped(parentOld) && mappings.getDstForSrc(parentOld) != parentNew) {
                 if (mappings.isDstMapped(parentNew) && mappings.getSrcForDst(parentNew) != parentOld) {
                     Tree parentOldOther = mappings.getSrcForDst(parentNew);
@@ -65,16 +86,16 @@ public class CrossMoveMatcherThetaF implements Matcher {
                         for (Tree childOldOther : parentOldOther.getChildren()) {
                             if (mappings.isSrcMapped(childOldOther)) {
                                 Tree childNewOther = mappings.getDstForSrc(childOldOther);
-                                if (pair.first.getLabel().equals(childNewOther.getLabel())
-                                        && childOldOther.getLabel().equals(pair.second.getLabel())
-                                        || !(pair.first.getLabel().equals(pair.second.getLabel())
+                                if (first.getLabel().equals(childNewOther.getLabel())
+                                        && childOldOther.getLabel().equals(second.getLabel())
+                                        || !(first.getLabel().equals(second.getLabel())
                                         || childOldOther.getLabel().equals(childNewOther.getLabel()))) {
                                     if (childNewOther.getParent() == parentNewOther) {
-                                        if (childOldOther.getType() == pair.first.getType()) {
-                                            mappings.removeMapping(pair.first, pair.second);
+                                        if (childOldOther.getType() == first.getType()) {
+                                            mappings.removeMapping(first, second);
                                             mappings.removeMapping(childOldOther, childNewOther);
-                                            mappings.addMapping(pair.first, childNewOther);
-                                            mappings.addMapping(childOldOther, pair.second);
+                                            mappings.addMapping(first, childNewOther);
+                                            mappings.addMapping(childOldOther, second);
                                             // done = true;
                                         }
                                     }
@@ -86,16 +107,16 @@ public class CrossMoveMatcherThetaF implements Matcher {
                                 if (mappings.isDstMapped(childNewOther)) {
                                     Tree childOldOther = mappings.getSrcForDst(childNewOther);
                                     if (childOldOther.getParent() == parentOldOther) {
-                                        if (childNewOther.getType() == pair.second.getType()) {
-                                            if (pair.first.getLabel().equals(childNewOther.getLabel())
-                                                    && childOldOther.getLabel().equals(pair.second.getLabel())
-                                                    || !(pair.first.getLabel().equals(pair.second.getLabel())
+                                        if (childNewOther.getType() == second.getType()) {
+                                            if (first.getLabel().equals(childNewOther.getLabel())
+                                                    && childOldOther.getLabel().equals(second.getLabel())
+                                                    || !(first.getLabel().equals(second.getLabel())
                                                     || childOldOther.getLabel()
                                                     .equals(childNewOther.getLabel()))) {
-                                                mappings.removeMapping(pair.first, pair.second);
+                                                mappings.removeMapping(first, second);
                                                 mappings.removeMapping(childOldOther, childNewOther);
-                                                mappings.addMapping(childOldOther, pair.second);
-                                                mappings.addMapping(pair.first, childNewOther);
+                                                mappings.addMapping(childOldOther, second);
+                                                mappings.addMapping(first, childNewOther);
                                             }
                                         }
                                     }
@@ -108,42 +129,17 @@ public class CrossMoveMatcherThetaF implements Matcher {
         }
     }
 
-    private class BfsComparator implements Comparator<Mapping> {
-
-        private HashMap<Integer, Integer> positionSrc;
-        private HashMap<Integer, Integer> positionDst;
-
-        private HashMap<Integer, Integer> getHashSet(Tree tree) {
-            HashMap<Integer, Integer> map = new HashMap<>();
-            ArrayList<Tree> list = new ArrayList<>();
-            LinkedList<Tree> workList = new LinkedList<>();
-            workList.add(tree);
-            while (!workList.isEmpty()) {
-                Tree node = workList.removeFirst();
-                list.add(node);
-                workList.addAll(node.getChildren());
-            }
-            for (int i = 0; i < list.size(); i++) {
-                int position = -1;
-                map.put(list.get(i).getMetrics().position, i);
-            }
-            return map;
-        }
-
-        public BfsComparator(Tree src, Tree dst) {
-            positionSrc = getHashSet(src);
-            positionDst = getHashSet(dst);
+    private static int[] breadthFirstPositions(Tree root, Tree[] nodes, ToIntFunction<Tree> ids) {
+        int[] positions = new int[nodes.length];
+        Deque<Tree> workList = new ArrayDeque<>();
+        workList.add(root);
+        int position = 0;
+        while (!workList.isEmpty()) {
+            Tree node = workList.removeFirst();
+            nodes[position] = node;
+            positions[ids.applyAsInt(node)] = position++;
+            workList.addAll(node.getChildren());
         }
-
-        @Override
-        public int compare(Mapping o1, Mapping o2) {
-            if (o1.first.getMetrics().position != o2.first.getMetrics().position) {
-                return Integer.compare(positionSrc.get(o1.first.getMetrics().position),
-                        positionSrc.get(o2.first.getMetrics().position));
-            }
-            return Integer.compare(positionDst.get(o1.second.getMetrics().position),
-                    positionDst.get(o2.second.getMetrics().position));
-        }
-
+        return positions;
     }
 }
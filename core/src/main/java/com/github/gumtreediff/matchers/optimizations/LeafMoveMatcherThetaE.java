@@ -20,133 +20,137 @@
 
 package com.github.gumtreediff.matchers.optimizations;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
-
-import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.tree.Tree;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 /**
  * This implements the unmapped leaves optimization (Theta C), the inner node
  * repair optimization (Theta D) and the leaf move optimization (Theta E).
+ * The work lists contain mappings packed into longs (see {@link PackedMappings}),
+ * which are sorted by source position, then by destination position.
  */
 public class LeafMoveMatcherThetaE implements Matcher {
 
     private Tree src;
     private Tree dst;
     private MappingStore mappings;
+    private PackedMappings packer;
 
     @Override
     public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
         this.src = src;
         this.dst = dst;
         this.mappings = mappings;
+        this.packer = new PackedMappings(src, dst);
         thetaE();
+        this.packer = null;
         return mappings;
     }
 
-    private class MappingComparator implements Comparator<Mapping> {
-
-        @Override
-        public int compare(Mapping o1, Mapping o2) {
-
-            int posO1 = o1.first.getMetrics().position;
-            int posO2 = o2.first.getMetrics().position;
-            if (posO1 != posO2) {
-                return Integer.compare(posO1, posO2);
-            }
-
-            return Integer.compare(o1.second.getMetrics().position, o2.second.getMetrics().position);
-        }
-
-    }
-
     private void thetaE() {
-        LinkedList<Mapping> workList = new LinkedList<>();
-        LinkedList<Mapping> workListTmp = null;
-        LinkedList<Mapping> changeMap = new LinkedList<>();
+        LongArrayList changeMap = new LongArrayList();
 
-        for (Mapping pair : mappings.asSet()) {
-            if (pair.first.isLeaf() && pair.second.isLeaf()) {
-                if (!pair.first.getLabel().equals(pair.second.getLabel())) {
-                    workList.add(pair);
-                }
-            }
-
-        }
+        LongArrayList workList = leafMappingsWithDifferentLabels();
         while (!workList.isEmpty()) {
-            Collections.sort(workList, new MappingComparator());
-            workListTmp = new LinkedList<>();
-            for (Mapping pair : workList) {
-                Tree firstParent = pair.first.getParent();
+            PackedMappings.sort(workList);
+            for (int i = 0; i < workList.size(); i++) {
+                long pair = workList.getLong(i);
+                Tree first = packer.src(pair);
+                Tree firstParent = first.getParent();
                 if (!mappings.isDstMapped(firstParent)) {
                     continue;
                 }
-                Tree secondParent = mappings.getDstForSrc(pair.first.getParent());
-                reevaluateLeaves(firstParent, secondParent, pair, changeMap);
+                Tree secondParent = mappings.getDstForSrc(first.getParent());
+                reevaluateLeaves(firstParent, secondParent, first, packer.dst(pair), changeMap);
             }
-            Collections.sort(changeMap, new MappingComparator());
-            for (Mapping entry : changeMap) {
-                if (mappings.areBothUnmapped(entry.first, entry.second)) {
-                    mappings.addMapping(entry.first, entry.second);
-                }
-                if (!entry.first.getLabel().equals(entry.second.getLabel()) && entry.first.isLeaf()
-                        && entry.second.isLeaf()) {
-                    workListTmp.add(new Mapping(entry.first, entry.second));
-                }
-            }
-            changeMap.clear();
-            workList = workListTmp;
+            workList = applyChanges(changeMap);
         }
 
-        workList = new LinkedList<>();
-        workListTmp = null;
+        workList = leafMappingsWithDifferentLabels();
+        while (!workList.isEmpty()) {
+            PackedMappings.sort(workList);
+            for (int i = 0; i < workList.size(); i++) {
+                long pair = workList.getLong(i);
+                Tree first = packer.src(pair);
+                Tree second = packer.dst(pair);
+                reevaluateLeaves(first.getParent(), second.getParent(), first, second, changeMap);
+            }
+            workList = applyChanges(changeMap);
+        }
+    }
 
-        for (Mapping pair : mappings.asSet()) {
-            if (pair.first.isLeaf() && pair.second.isLeaf()) {
-                if (!pair.first.getLabel().equals(pair.second.getLabel())) {
-                    workList.add(pair);
+    /**
+     * Return the mappings between leaves having different labels. The source leaves are scanned
+     * in post-order, which avoids allocating the mappings of the whole mapping store.
+     */
+    private LongArrayList leafMappingsWithDifferentLabels() {
+        LongArrayList workList = new LongArrayList();
+        for (int i = 0; i < packer.srcSize(); i++) {
+            Tree first = packer.srcNode(i);
+            if (first.isLeaf()) {
+                Tree second = mappings.getDstForSrc(first);
+                if (second != null && second.isLeaf() && !first.getLabel().equals(second.getLabel())) {
+                    workList.add(packer.pack(first, second));
                 }
             }
-
         }
-        while (!workList.isEmpty()) {
-            Collections.sort(workList, new MappingComparator());
-            workListTmp = new LinkedList<>();
-            for (Mapping pair : workList) {
-                Tree firstParent = pair.first.getParent();
-                Tree secondParent = pair.second.getParent();
-                reevaluateLeaves(firstParent, secondParent, pair, changeMap);
+        return workList;
+    }
+
+    /**
+     * Add the changed mappings to the mapping store, clear them, and return the ones that
+     * are still between leaves having different labels.
+     */
+    private LongArrayList applyChanges(LongArrayList changeMap) {
+        LongArrayList workList = new LongArrayList();
+        PackedMappings.sort(changeMap);
+        for (int i = 0; i < changeMap.size(); i++) {
+            long entry = changeMap.getLong(i);
+            Tree first = packer.src(entry);
+            Tree second = packer.dst(entry);
+            if (mappings.areBothUnmapped(first, second)) {
+                mappings.addMapping(first, second);
             }
-            Collections.sort(changeMap, new MappingComparator());
-            for (Mapping entry : changeMap) {
-                if (mappings.areBothUnmapped(entry.first, entry.second)) {
-                    mappings.addMapping(entry.first, entry.second);
-                }
-                if (!entry.first.getLabel().equals(entry.second.getLabel()) && entry.first.isLeaf()
-                        && entry.second.isLeaf()) {
-                    workListTmp.add(new Mapping(entry.first, entry.second));
-                }
+            if (!first.getLabel().equals(second.getLabel()) && first.isLeaf() && second.isLeaf()) {
+                workList.add(entry);
             }
-            changeMap.clear();
-            workList = workListTmp;
         }
+        changeMap.clear();
+        return workList;
     }
 
-    private void reevaluateLeaves(Tree firstParent, Tree secondParent, Mapping pair, List<Mapping> changeMap) {
+    /**
+     * Remove from the changed mappings the ones involving the given source or destination node
+     * whose nodes have different labels.
+     */
+    private void removeChanges(LongArrayList changeMap, Tree first, Tree second) {
+        int kept = 0;
+        for (int i = 0; i < changeMap.size(); i++) {
+            long entry = changeMap.getLong(i);
+            Tree entryFirst = packer.src(entry);
+            Tree entrySecond = packer.dst(entry);
+            boolean remove = (entryFirst == first || entrySecond == second)
+                    && !entryFirst.getLabel().equals(entrySecond.getLabel());
+            if (!remove) {
+                changeMap.set(kept++, entry);
+            }
+        }
+        changeMap.size(kept);
+    }
+
+    private void reevaluateLeaves(Tree firstParent, Tree secondParent, Tree first, Tree second,
+                                  LongArrayList changeMap) {
 
         int count = 0;
         Tree foundDstNode = null;
         Tree foundPosDstNode = null;
-        int pos = firstParent.getChildren().indexOf(pair.first);
+        int pos = firstParent.getChildren().indexOf(first);
 
         for (int i = 0; i < secondParent.getChildren().size(); i++) {
             Tree child = secondParent.getChildren().get(i);
-            if (child.getType() == pair.first.getType() && child.getLabel().equals(pair.first.getLabel())) {
+            if (child.getType() == first.getType() && child.getLabel().equals(first.getLabel())) {
                 count++;
                 foundDstNode = child;
                 if (i == pos) {
@@ -154,7 +158,7 @@ public class LeafMoveMatcherThetaE implements Matcher {
                 }
             }
         }
-        Mapping addedMappingKey = null;
+        long addedMappingKey = PackedMappings.NONE;
 
         if ((count == 1 && foundDstNode != null) || foundPosDstNode != null) {
             if (count != 1 && foundPosDstNode != null) {
@@ -164,37 +168,25 @@ public class LeafMoveMatcherThetaE implements Matcher {
 
                 Tree foundSrc = mappings.getSrcForDst(foundDstNode);
                 if (!foundSrc.getLabel().equals(foundDstNode.getLabel())) {
-                    mappings.removeMapping(pair.first, pair.second);
+                    mappings.removeMapping(first, second);
                     mappings.removeMapping(foundSrc, foundDstNode);
-                    changeMap.add(new Mapping(pair.first, foundDstNode));
-                    addedMappingKey = new Mapping(foundSrc, foundDstNode);
-                    if (foundDstNode != pair.second && foundSrc != pair.first) {
-                        changeMap.add(new Mapping(foundSrc, pair.second));
+                    changeMap.add(packer.pack(first, foundDstNode));
+                    addedMappingKey = packer.pack(foundSrc, foundDstNode);
+                    if (foundDstNode != second && foundSrc != first) {
+                        changeMap.add(packer.pack(foundSrc, second));
                     }
                 }
             } else {
 
-                mappings.removeMapping(pair.first, pair.second);
-                if (pair.first.getLabel().equals(foundDstNode.getLabel())) {
-                    LinkedList<Mapping> toRemove = new LinkedList<>();
-                    for (Mapping mapPair : changeMap) {
-                        if (mapPair.first == pair.first) {
-                            if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
-                                toRemove.add(mapPair);
-                            }
-                        } else if (mapPair.second == foundDstNode) {
-                            if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
-                                toRemove.add(mapPair);
-                            }
-                        }
-                    }
-                    changeMap.removeAll(toRemove);
+                mappings.removeMapping(first, second);
+                if (first.getLabel().equals(foundDstNode.getLabel())) {
+                    removeChanges(changeMap, first, foundDstNode);
                 }
-                changeMap.add(new Mapping(pair.first, foundDstNode));
+                changeMap.add(packer.pack(first, foundDstNode));
                 for (Tree child : firstParent.getChildren()) {
-                    if (child.isLeaf() && !mappings.isDstMapped(child) && child.getType() == pair.second.getType()
-                            && child.getLabel().equals(pair.second.getLabel())) {
-                        mappings.addMapping(child, pair.second);
+                    if (child.isLeaf() && !mappings.isDstMapped(child) && child.getType() == second.getType()
+                            && child.getLabel().equals(second.getLabel())) {
+                        mappings.addMapping(child, second);
                         break;
                     }
                 }
@@ -202,10 +194,10 @@ public class LeafMoveMatcherThetaE implements Matcher {
         }
         Tree foundSrcNode = null;
         Tree foundPosSrcNode = null;
-        pos = secondParent.getChildren().indexOf(pair.second);
+        pos = secondParent.getChildren().indexOf(second);
         for (int i = 0; i < firstParent.getChildren().size(); i++) {
             Tree child = firstParent.getChildren().get(i);
-            if (child.getType() == pair.second.getType() && child.getLabel().equals(pair.second.getLabel())) {
+            if (child.getType() == second.getType() && child.getLabel().equals(second.getLabel())) {
                 count++;
                 foundSrcNode = child;
                 if (i == pos) {
@@ -219,43 +211,31 @@ public class LeafMoveMatcherThetaE implements Matcher {
             } else if (foundSrcNode == null) {
                 foundSrcNode = foundPosSrcNode;
             }
-            if (addedMappingKey != null) {
-                changeMap.remove(addedMappingKey);
+            if (addedMappingKey != PackedMappings.NONE) {
+                changeMap.rem(addedMappingKey);
             }
             if (mappings.isSrcMapped(foundSrcNode)) {
                 Tree foundDst = mappings.getSrcForDst(foundSrcNode);
                 if (foundDst != null && foundSrcNode != null && !foundDst.getLabel().equals(foundSrcNode.getLabel())) {
-                    mappings.removeMapping(pair.first, pair.second);
+                    mappings.removeMapping(first, second);
                     mappings.removeMapping(foundSrcNode, foundDst);
-                    changeMap.add(new Mapping(foundSrcNode, pair.second));
-                    if (addedMappingKey == null && foundDst != null) {
-                        if (foundSrcNode != pair.first && foundDst != pair.second) {
-                            changeMap.add(new Mapping(pair.first, foundDst));
+                    changeMap.add(packer.pack(foundSrcNode, second));
+                    if (addedMappingKey == PackedMappings.NONE && foundDst != null) {
+                        if (foundSrcNode != first && foundDst != second) {
+                            changeMap.add(packer.pack(first, foundDst));
                         }
                     }
                 }
             } else {
-                mappings.removeMapping(pair.first, pair.second);
-                if (foundSrcNode.getLabel().equals(pair.second.getLabel())) {
-                    LinkedList<Mapping> toRemove = new LinkedList<>();
-                    for (Mapping mapPair : changeMap) {
-                        if (mapPair.first == foundSrcNode) {
-                            if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
-                                toRemove.add(mapPair);
-                            }
-                        } else if (mapPair.second == pair.second) {
-                            if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
-                                toRemove.add(mapPair);
-                            }
-                        }
-                    }
-                    changeMap.removeAll(toRemove);
+                mappings.removeMapping(first, second);
+                if (foundSrcNode.getLabel().equals(second.getLabel())) {
+                    removeChanges(changeMap, foundSrcNode, second);
                 }
-                changeMap.add(new Mapping(foundSrcNode, pair.second));
+                changeMap.add(packer.pack(foundSrcNode, second));
                 for (Tree child : secondParent.getChildren()) {
-                    if (child.isLeaf() && !mappings.isSrcMapped(child) && child.getType() == pair.first.getType()
-                            && child.getLabel().equals(pair.first.getLabel())) {
-                        mappings.addMapping(pair.first, child);
+                    if (child.isLeaf() && !mappings.isSrcMapped(child) && child.getType() == first.getType()
+                            && child.getLabel().equals(first.getLabel())) {
+                        mappings.addMapping(first, child);
                         break;
                     }
                 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.matchers.optimizations;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+
+/**
+ * Packs the mappings between a source and a destination AST into longs, the source
+ * node id being in the high bits and the destination node id in the low bits.
+ * The ids of the nodes are their post-order positions in their AST, so that sorting
+ * the packed mappings sorts them by source position, then by destination position.
+ * Nodes that do not belong to the ASTs receive ids after the ones of the AST nodes.
+ */
+final class PackedMappings {
+    static final long NONE = -1L;
+
+    private final Ids srcIds;
+    private final Ids dstIds;
+
+    PackedMappings(Tree src, Tree dst) {
+        srcIds = new Ids(src);
+        dstIds = new Ids(dst);
+    }
+
+    long pack(Tree src, Tree dst) {
+        return ((long) srcIds.id(src) << 32) | dstIds.id(dst);
+    }
+
+    Tree src(long mapping) {
+        return srcIds.node((int) (mapping >>> 32));
+    }
+
+    Tree dst(long mapping) {
+        return dstIds.node((int) mapping);
+    }
+
+    int srcId(Tree src) {
+        return srcIds.id(src);
+    }
+
+    int dstId(Tree dst) {
+        return dstIds.id(dst);
+    }
+
+    Tree srcNode(int id) {
+        return srcIds.node(id);
+    }
+
+    Tree dstNode(int id) {
+        return dstIds.node(id);
+    }
+
+    /**
+     * Return the number of nodes of the source AST.
+     */
+    int srcSize() {
+        return srcIds.nodes.length;
+    }
+
+    /**
+     * Return the number of nodes of the destination AST.
+     */
+    int dstSize() {
+        return dstIds.nodes.length;
+    }
+
+    static void sort(LongArrayList mappings) {
+        LongArrays.radixSort(mappings.elements(), 0, mappings.size());
+    }
+
+    private static final class Ids {
+        private final Tree[] nodes;
+        private final int offset;
+        private final List<Tree> foreignNodes = new ArrayList<>();
+        private final Map<Tree, Integer> foreignIds = new IdentityHashMap<>();
+
+        private Ids(Tree root) {
+            nodes = TreeUtils.postOrder(root).toArray(new Tree[0]);
+            offset = root.getMetrics().position - nodes.length + 1;
+        }
+
+        private int id(Tree t) {
+            int id = t.getMetrics().position - offset;
+            if (id >= 0 && id < nodes.length && nodes[id] == t) {
+                return id;
+            }
+            return foreignIds.computeIfAbsent(t, k -> {
+                foreignNodes.add(k);
+                return nodes.length + foreignNodes.size() - 1;
+            });
+        }
+
+        private Tree node(int id) {
+            return id < nodes.length ? nodes[id] : foreignNodes.get(id - nodes.length);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.matchers.optimizations;
+
+import java.util.Arrays;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.tree.Type;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * This implements a sparse variant of the longestCommonSequence optimization Theta B
+ * (see {@link LcsOptMatcherThetaB}), usable on large ASTs.
+ * Instead of filling a dense matrix over the post-orders of a mapped parent and its partner,
+ * the post-orders are split at the longest chain of non-crossing mapped pairs, and only the
+ * regions between two consecutive mapped pairs are compared. In each region, the longest
+ * common subsequence of the unmatched nodes is computed using the Hunt-Szymanski algorithm,
+ * which only considers the pairs of nodes having the same type.
+ * The nodes are identified by their post-order positions and their types by ints.
+ * The mappings can differ from the ones of {@link LcsOptMatcherThetaB} when there are
+ * several longest common subsequences, or when mapped pairs cross each other.
+ */
+public class SparseLcsOptMatcherThetaB implements Matcher {
+    private static final int NONE = -1;
+
+    private MappingStore mappings;
+
+    private Tree[] srcNodes;
+    private Tree[] dstNodes;
+
+    private int[] srcTypes;
+    private int[] dstTypes;
+
+    private int srcOffset;
+    private int dstOffset;
+
+    // Per type, the last unmatched destination node of the current region, and per destination node,
+    // the previous unmatched destination node of the same type.
+    private int[] lastOfType;
+    private int[] previousOfType;
+
+    // The smallest destination node ending a common subsequence of each length, and its link.
+    private int[] thresholds;
+    private int[] thresholdLinks;
+
+    private final IntArrayList linkSrcs = new IntArrayList();
+    private final IntArrayList linkDsts = new IntArrayList();
+    private final IntArrayList linkPrevious = new IntArrayList();
+
+    @Override
+    public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
+        this.mappings = mappings;
+        index(src, dst);
+        boolean[] checkedParents = new boolean[srcNodes.length];
+        for (Tree node : srcNodes) {
+            if (mappings.isSrcMapped(node) || node == src) {
+                continue;
+            }
+            Tree parent = node.getParent();
+            Tree partner = parent == src ? dst : mappings.getDstForSrc(parent);
+            while (partner == null) {
+                parent = parent.getParent();
+                partner = parent == src ? dst : mappings.getDstForSrc(parent);
+            }
+            int parentId = srcId(parent);
+            if (parentId != NONE && !checkedParents[parentId]) {
+                checkedParents[parentId] = true;
+                int partnerId = dstId(partner);
+                if (partnerId != NONE) {
+                    lcs(parentId, partnerId);
+                }
+            }
+        }
+        release();
+        return mappings;
+    }
+
+    private void index(Tree src, Tree dst) {
+        srcOffset = src.getMetrics().position - src.getMetrics().size + 1;
+        dstOffset = dst.getMetrics().position - dst.getMetrics().size + 1;
+        srcNodes = TreeUtils.postOrder(src).toArray(new Tree[0]);
+        dstNodes = TreeUtils.postOrder(dst).toArray(new Tree[0]);
+
+        Reference2IntOpenHashMap<Type> types = new Reference2IntOpenHashMap<>();
+        srcTypes = typeIds(srcNodes, types);
+        dstTypes = typeIds(dstNodes, types);
+
+        lastOfType = new int[types.size()];
+        Arrays.fill(lastOfType, NONE);
+        previousOfType = new int[dstNodes.length];
+        thresholds = new int[dstNodes.length];
+        thresholdLinks = new int[dstNodes.length];
+    }
+
+    private static int[] typeIds(Tree[] nodes, Reference2IntOpenHashMap<Type> types) {
+        int[] ids = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ids[i] = types.computeIfAbsent(nodes[i].getType(), t -> types.size());
+        }
+        return ids;
+    }
+
+    private void release() {
+        mappings = null;
+        srcNodes = null;
+        dstNodes = null;
+        srcTypes = null;
+        dstTypes = null;
+        lastOfType = null;
+        previousOfType = null;
+        thresholds = null;
+        thresholdLinks = null;
+        linkSrcs.clear();
+        linkDsts.clear();
+        linkPrevious.clear();
+    }
+
+    private int srcId(Tree t) {
+        return id(t, srcNodes, srcOffset);
+    }
+
+    private int dstId(Tree t) {
+        return id(t, dstNodes, dstOffset);
+    }
+
+    private static int id(Tree t, Tree[] nodes, int offset) {
+        int id = t.getMetrics().position - offset;
+        if (id >= 0 && id < nodes.length && nodes[id] == t) {
+            return id;
+        }
+        return NONE;
+    }
+
+    /**
+     * Match the unmatched nodes of the subtrees rooted at the given source and destination
+     * nodes, whose post-orders are the intervals of nodes ending at these nodes.
+     */
+    private void lcs(int parent, int partner) {
+        int srcStart = parent - srcNodes[parent].getMetrics().size + 1;
+        int dstStart = partner - dstNodes[partner].getMetrics().size + 1;
+
+        IntArrayList anchorSrcs = new IntArrayList();
+        IntArrayList anchorDsts = new IntArrayList();
+        for (int i = srcStart; i <= parent; i++) {
+            Tree mapped = mappings.getDstForSrc(srcNodes[i]);
+            if (mapped != null) {
+                int j = dstId(mapped);
+                if (j >= dstStart && j <= partner && srcTypes[i] == dstTypes[j]) {
+                    anchorSrcs.add(i);
+                    anchorDsts.add(j);
+                }
+            }
+        }
+
+        int[] chain = longestIncreasingChain(anchorDsts);
+        int previousSrc = srcStart - 1;
+        int previousDst = dstStart - 1;
+        for (int anchor : chain) {
+            int i = anchorSrcs.getInt(anchor);
+            int j = anchorDsts.getInt(anchor);
+            huntSzymanski(previousSrc + 1, i - 1, previousDst + 1, j - 1);
+            previousSrc = i;
+            previousDst = j;
+        }
+        huntSzymanski(previousSrc + 1, parent, previousDst + 1, partner);
+    }
+
+    /**
+     * Return the indexes of the longest strictly increasing subsequence of the given values.
+     */
+    private static int[] longestIncreasingChain(IntArrayList values) {
+        int[] tails = new int[values.size()];
+        int[] previous = new int[values.size()];
+        int length = 0;
+        for (int k = 0; k < values.size(); k++) {
+            int value = values.getInt(k);
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values.getInt(tails[middle]) < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[k] = low > 0 ? tails[low - 1] : NONE;
+            tails[low] = k;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        int[] chain = new int[length];
+        for (int k = length - 1, current = length > 0 ? tails[length - 1] : NONE; k >= 0; k--) {
+            chain[k] = current;
+            current = previous[current];
+        }
+        return chain;
+    }
+
+    /**
+     * Map the longest common subsequence of the unmatched nodes of the given intervals,
+     * two nodes being equal if they have the same type.
+     */
+    private void huntSzymanski(int srcFrom, int srcTo, int dstFrom, int dstTo) {
+        if (srcFrom > srcTo || dstFrom > dstTo) {
+            return;
+        }
+
+        for (int j = dstFrom; j <= dstTo; j++) {
+            if (!mappings.isDstMapped(dstNodes[j])) {
+                previousOfType[j] = lastOfType[dstTypes[j]];
+                lastOfType[dstTypes[j]] = j;
+            }
+        }
+
+        linkSrcs.clear();
+        linkDsts.clear();
+        linkPrevious.clear();
+        int length = 0;
+        for (int i = srcFrom; i <= srcTo; i++) {
+            Tree mapped = mappings.getDstForSrc(srcNodes[i]);
+            if (mapped != null) {
+                // As in Theta B, a mapped node is only equal to its partner.
+                int j = dstId(mapped);
+                if (j >= dstFrom && j <= dstTo && srcTypes[i] == dstTypes[j]) {
+                    length = extend(i, j, length);
+                }
+                continue;
+            }
+            // The candidates are visited in decreasing order so that a source node extends at most
+            // one subsequence of each length.
+            for (int j = lastOfType[srcTypes[i]]; j != NONE; j = previousOfType[j]) {
+                length = extend(i, j, length);
+            }
+        }
+
+        for (int j = dstFrom; j <= dstTo; j++) {
+            lastOfType[dstTypes[j]] = NONE;
+        }
+
+        for (int link = length > 0 ? thresholdLinks[length - 1] : NONE; link != NONE;
+                link = linkPrevious.getInt(link)) {
+            Tree src = srcNodes[linkSrcs.getInt(link)];
+            if (!mappings.isSrcMapped(src)) {
+                mappings.addMapping(src, dstNodes[linkDsts.getInt(link)]);
+            }
+        }
+    }
+
+    /**
+     * Extend the common subsequences with the given pair of nodes, and return their new maximum length.
+     */
+    private int extend(int i, int j, int length) {
+        int k = Arrays.binarySearch(thresholds, 0, length, j);
+        if (k >= 0) {
+            return length;
+        }
+        k = -k - 1;
+        linkSrcs.add(i);
+        linkDsts.add(j);
+        linkPrevious.add(k > 0 ? thresholdLinks[k - 1] : NONE);
+        thresholds[k] = j;
+        thresholdLinks[k] = linkSrcs.size() - 1;
+        return k == length ? length + 1 : length;
+    }
+}
@@ -0,0 +1,542 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.tree;
+
+import java.util.*;
+
+/**
+ * A compact and immutable representation of an AST, dedicated to read-only algorithms
+ * such as the matchers. The nodes are identified by their pre-order index, and all
+ * their attributes (type, label, structure, positions and metrics) are stored in parallel
+ * int arrays. The types and labels are stored once, in tables indexed by the type and label ids.
+ * The structure is encoded via the parent, first child and next sibling of each node
+ * (-1 meaning no such node), and the children of all the nodes are also stored contiguously
+ * in a single array to provide a random access to them.
+ *
+ * The nodes can also be accessed via a lightweight {@link Tree} view (see {@link #getRoot()}),
+ * so that the frozen trees can be given to any algorithm that does not modify the trees.
+ * The views are all created with the frozen tree and are unique for a given node, so that they can be
+ * shared by concurrent readers and used as keys of identity based structures. They hold no state except
+ * their id and their metrics, that are computed once from the arrays on the first call. Their children lists
+ * are computed from the arrays at each call, therefore the read-only algorithms should rather use
+ * the accessors of the frozen tree (such as {@link #height(Tree)}) in their hot paths. All the mutators of the views
+ * throw an {@link UnsupportedOperationException}, except the parent of the root that can be set
+ * (as done by the edit script generators on the destination AST). A frozen tree has no metadata,
+ * AST node or node property.
+ *
+ * @see #freeze(Tree)
+ */
+public final class FrozenTree {
+    /**
+     * The id of the missing nodes (parent of the root, first child of a leaf, ...).
+     */
+    public static final int NO_NODE = -1;
+
+    /**
+     * The label id of the nodes without a label.
+     */
+    public static final int NO_LABEL_ID = 0;
+
+    private final Type[] types;
+    private final String[] labels;
+
+    private final int[] typeIds;
+    private final int[] labelIds;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] childStarts;
+    private final int[] childIds;
+    private final int[] positions;
+    private final int[] lengths;
+    private final int[] sizes;
+    private final int[] heights;
+    private final int[] hashes;
+    private final int[] structureHashes;
+    private final long[] fingerprints;
+    private final long[] structureFingerprints;
+    private final int[] depths;
+
+    private final int depthOffset;
+
+    private final Node[] views;
+
+    private Tree rootParent;
+
+    /**
+     * Return a frozen copy of the given tree. The metrics of the given tree are reused (and computed
+     * if needed), therefore the nodes of the frozen tree have the same metrics as the original nodes,
+     * except their post-order position that is always relative to the given tree.
+     */
+    public static FrozenTree freeze(Tree root) {
+        return new FrozenTree(root);
+    }
+
+    private FrozenTree(Tree root) {
+        int size = root.getMetrics().size;
+        typeIds = new int[size];
+        labelIds = new int[size];
+        parents = new int[size];
+        firstChildren = new int[size];
+        nextSiblings = new int[size];
+        childStarts = new int[size + 1];
+        childIds = new int[size - 1];
+        positions = new int[size];
+        lengths = new int[size];
+        sizes = new int[size];
+        heights = new int[size];
+        hashes = new int[size];
+        structureHashes = new int[size];
+        fingerprints = new long[size];
+        structureFingerprints = new long[size];
+        depths = new int[size];
+        views = new Node[size];
+        depthOffset = root.getMetrics().depth;
+
+        Map<Type, Integer> typeTable = new HashMap<>();
+        Map<String, Integer> labelTable = new HashMap<>();
+        List<Type> typeList = new ArrayList<>();
+        List<String> labelList = new ArrayList<>();
+        labelTable.put(Tree.NO_LABEL, NO_LABEL_ID);
+        labelList.add(Tree.NO_LABEL);
+
+        // Iterative pre-order traversal, the stack contains the nodes and the ids of their parents.
+        Deque<Tree> trees = new ArrayDeque<>();
+        Deque<Integer> treeParents = new ArrayDeque<>();
+        int[] lastChildren = new int[size];
+        int[] childCounts = new int[size];
+        trees.push(root);
+        treeParents.push(NO_NODE);
+        int id = 0;
+        while (!trees.isEmpty()) {
+            Tree t = trees.pop();
+            int parent = treeParents.pop();
+            TreeMetrics metrics = t.getMetrics();
+
+            Integer typeId = typeTable.get(t.getType());
+            if (typeId == null) {
+                typeId = typeList.size();
+                typeTable.put(t.getType(), typeId);
+                typeList.add(t.getType());
+            }
+            Integer labelId = labelTable.get(t.getLabel());
+            if (labelId == null) {
+                labelId = labelList.size();
+                labelTable.put(t.getLabel(), labelId);
+                labelList.add(t.getLabel());
+            }
+
+            typeIds[id] = typeId;
+            labelIds[id] = labelId;
+            parents[id] = parent;
+            firstChildren[id] = NO_NODE;
+            nextSiblings[id] = NO_NODE;
+            lastChildren[id] = NO_NODE;
+            positions[id] = t.getPos();
+            lengths[id] = t.getLength();
+            sizes[id] = metrics.size;
+            heights[id] = metrics.height;
+            hashes[id] = metrics.hash;
+            structureHashes[id] = metrics.structureHash;
+            fingerprints[id] = metrics.fingerprint;
+            structureFingerprints[id] = metrics.structureFingerprint;
+            depths[id] = parent == NO_NODE ? 0 : depths[parent] + 1;
+            if (parent != NO_NODE) {
+                if (lastChildren[parent] == NO_NODE)
+                    firstChildren[parent] = id;
+                else
+                    nextSiblings[lastChildren[parent]] = id;
+                lastChildren[parent] = id;
+                childIds[childStarts[parent] + childCounts[parent]++] = id;
+            }
+
+            List<Tree> children = t.getChildren();
+            childStarts[id + 1] = childStarts[id] + children.size();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                trees.push(children.get(i));
+                treeParents.push(id);
+            }
+            id++;
+        }
+
+        types = typeList.toArray(new Type[0]);
+        labels = labelList.toArray(new String[0]);
+        for (int i = 0; i < size; i++)
+            views[i] = new Node(i);
+    }
+
+    /**
+     * Return the number of nodes of the frozen tree.
+     */
+    public int size() {
+        return typeIds.length;
+    }
+
+    /**
+     * Return the view of the root of the frozen tree.
+     */
+    public Tree getRoot() {
+        return getNode(0);
+    }
+
+    /**
+     * Return the view of the node with the given id.
+     */
+    public Tree getNode(int id) {
+        return views[id];
+    }
+
+    /**
+     * Return the id of the given view, or {@link #NO_NODE} if the given tree is not a view
+     * of a node of this frozen tree.
+     */
+    public int getId(Tree t) {
+        if (t instanceof Node && ((Node) t).owner() == this)
+            return ((Node) t).id;
+        return NO_NODE;
+    }
+
+    /**
+     * Return the table of the types, indexed by the type ids.
+     */
+    public Type[] getTypes() {
+        return types.clone();
+    }
+
+    /**
+     * Return the table of the labels, indexed by the label ids.
+     */
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    public Type getType(int id) {
+        return types[typeIds[id]];
+    }
+
+    public String getLabel(int id) {
+        return labels[labelIds[id]];
+    }
+
+    public int getTypeId(int id) {
+        return typeIds[id];
+    }
+
+    public int getLabelId(int id) {
+        return labelIds[id];
+    }
+
+    public int getParent(int id) {
+        return parents[id];
+    }
+
+    public int getFirstChild(int id) {
+        return firstChildren[id];
+    }
+
+    public int getNextSibling(int id) {
+        return nextSiblings[id];
+    }
+
+    public int getPos(int id) {
+        return positions[id];
+    }
+
+    public int getLength(int id) {
+        return lengths[id];
+    }
+
+    public int getSize(int id) {
+        return sizes[id];
+    }
+
+    public int getHeight(int id) {
+        return heights[id];
+    }
+
+    public int getHash(int id) {
+        return hashes[id];
+    }
+
+    public int getStructureHash(int id) {
+        return structureHashes[id];
+    }
+
+    public long getFingerprint(int id) {
+        return fingerprints[id];
+    }
+
+    public long getStructureFingerprint(int id) {
+        return structureFingerprints[id];
+    }
+
+    public int getDepth(int id) {
+        return depths[id];
+    }
+
+    public int getChildCount(int id) {
+        return childStarts[id + 1] - childStarts[id];
+    }
+
+    /**
+     * Return the id of the child of the given node at the given position.
+     */
+    public int getChild(int id, int position) {
+        return childIds[childStarts[id] + position];
+    }
+
+    /**
+     * Return the metrics of the given node. They are computed from the arrays on the first call,
+     * and then kept by the view of the node.
+     */
+    public TreeMetrics getMetrics(int id) {
+        return views[id].getMetrics();
+    }
+
+    private TreeMetrics computeMetrics(int id) {
+        return new TreeMetrics(sizes[id], heights[id], hashes[id], structureHashes[id],
+                fingerprints[id], structureFingerprints[id],
+                depths[id] + depthOffset, getPostOrderPosition(id));
+    }
+
+    /**
+     * Return the post-order position of the given node. Since the nodes are numbered in pre-order,
+     * the nodes preceding a node in post-order are its descendants and the non-ancestor nodes
+     * preceding it in pre-order.
+     */
+    public int getPostOrderPosition(int id) {
+        return id - depths[id] + sizes[id] - 1;
+    }
+
+    /**
+     * Indicates whether or not the first node is a descendant of the second one.
+     * Since the nodes are numbered in pre-order, the descendants of a node are
+     * the nodes that directly follow it.
+     */
+    public boolean isDescendantOf(int id, int ancestor) {
+        return id > ancestor && id < ancestor + sizes[ancestor];
+    }
+
+    /**
+     * Return the height of the given tree, read from the arrays if the given tree is a view
+     * of a frozen tree.
+     */
+    public static int height(Tree t) {
+        if (t instanceof Node)
+            return ((Node) t).owner().heights[((Node) t).id];
+        return t.getMetrics().height;
+    }
+
+    /**
+     * Return the size of the given tree, read from the arrays if the given tree is a view
+     * of a frozen tree.
+     */
+    public static int size(Tree t) {
+        if (t instanceof Node)
+            return ((Node) t).owner().sizes[((Node) t).id];
+        return t.getMetrics().size;
+    }
+
+    /**
+     * Return the fingerprint of the given tree, read from the arrays if the given tree is a view
+     * of a frozen tree.
+     */
+    public static long fingerprint(Tree t) {
+        if (t instanceof Node)
+            return ((Node) t).owner().fingerprints[((Node) t).id];
+        return t.getMetrics().fingerprint;
+    }
+
+    /**
+     * Return the post-order position of the given tree, read from the arrays if the given tree is a view
+     * of a frozen tree.
+     */
+    public static int position(Tree t) {
+        if (t instanceof Node)
+            return ((Node) t).owner().getPostOrderPosition(((Node) t).id);
+        return t.getMetrics().position;
+    }
+
+    private final class ChildList extends AbstractList<Tree> implements RandomAccess {
+        private final int start;
+        private final int size;
+
+        private ChildList(int id) {
+            start = childStarts[id];
+            size = childStarts[id + 1] - start;
+        }
+
+        @Override
+        public Tree get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            return getNode(childIds[start + index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class Node extends AbstractTree {
+        private final int id;
+
+        private Node(int id) {
+            this.id = id;
+        }
+
+        private FrozenTree owner() {
+            return FrozenTree.this;
+        }
+
+        private RuntimeException unsupportedOperation() {
+            return new UnsupportedOperationException("This method should not be called on a frozen tree");
+        }
+
+        @Override
+        public Tree getParent() {
+            return parents[id] == NO_NODE ? rootParent : getNode(parents[id]);
+        }
+
+        @Override
+        public List<Tree> getChildren() {
+            if (firstChildren[id] == NO_NODE)
+                return Collections.emptyList();
+            return new ChildList(id);
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return firstChildren[id] == NO_NODE;
+        }
+
+        @Override
+        public TreeMetrics getMetrics() {
+            // Racy but safe: the metrics are immutable, concurrent readers at worst compute equal instances.
+            TreeMetrics result = metrics;
+            if (result == null) {
+                result = computeMetrics(id);
+                metrics = result;
+            }
+            return result;
+        }
+
+        @Override
+        public void setMetrics(TreeMetrics metrics) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public Tree deepCopy() {
+            Tree copy = new DefaultTree(this);
+            for (Tree child : getChildren())
+                copy.addChild(child.deepCopy());
+            return copy;
+        }
+
+        @Override
+        public String getLabel() {
+            return labels[labelIds[id]];
+        }
+
+        @Override
+        public boolean hasLabel() {
+            return labelIds[id] != NO_LABEL_ID;
+        }
+
+        @Override
+        public int getPos() {
+            return positions[id];
+        }
+
+        @Override
+        public int getLength() {
+            return lengths[id];
+        }
+
+        @Override
+        public Type getType() {
+            return types[typeIds[id]];
+        }
+
+        @Override
+        public void setParent(Tree parent) {
+            if (id != 0)
+                throw unsupportedOperation();
+            rootParent = parent;
+        }
+
+        @Override
+        public void setParentAndUpdateChildren(Tree parent) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void setChildren(List<Tree> children) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void addChild(Tree t) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void insertChild(Tree t, int position) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void setLabel(String label) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void setPos(int pos) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void setLength(int length) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public void setType(Type type) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public Object getMetadata(String key) {
+            return null;
+        }
+
+        @Override
+        public Object setMetadata(String key, Object value) {
+            throw unsupportedOperation();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> getMetadata() {
+            return new EmptyEntryIterator();
+        }
+    }
+}
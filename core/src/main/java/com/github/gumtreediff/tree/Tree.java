@@ -145,7 +145,7 @@ public interface Tree {
     default List<Tree> searchSubtree(Tree subtree) {
         List<Tree> results = new ArrayList<>();
         for (Tree candidate : this.preOrder()) {
-            if (candidate.getMetrics().hash == subtree.getMetrics().hash)
+            if (candidate.getMetrics().fingerprint == subtree.getMetrics().fingerprint)
                 if (candidate.isIsomorphicTo(subtree))
                     results.add(candidate);
         }
@@ -162,6 +162,39 @@ public interface Tree {
         return trees;
     }
 
+    /**
+     * Returns an iterable on the descendants of the node, using a pre-order. Unlike
+     * {@link #getDescendants()}, the descendants are not copied in a list.
+     */
+    default Iterable<Tree> descendants() {
+        return () -> {
+            Iterator<Tree> it = TreeUtils.preOrderIterator(Tree.this);
+            it.next();
+            return it;
+        };
+    }
+
+    /**
+     * Returns the number of descendants of the node, using its metrics.
+     */
+    default int numberOfDescendants() {
+        return getMetrics().size - 1;
+    }
+
+    /**
+     * Indicates whether or not this node is a descendant of the node given in parameter.
+     * The test is done in constant time: the descendants of a node are the nodes whose post-order
+     * position lies just before the one of the node, in an interval of the size of the node.
+     * Therefore, both nodes must belong to the same AST.
+     *
+     * @see TreeMetrics#position
+     */
+    default boolean isDescendantOf(Tree tree) {
+        TreeMetrics metrics = tree.getMetrics();
+        int position = getMetrics().position;
+        return position < metrics.position && position > metrics.position - metrics.size;
+    }
+
     /**
      * Set the parent of this node. Be careful that the parent node won't have this node in its
      * children list.
@@ -20,16 +20,81 @@
 
 package com.github.gumtreediff.tree;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+/**
+ * Visitor computing the metrics of the nodes of an AST. The hashes and fingerprints are polynomial
+ * rolling hashes over the enter/leave sequence of the subtrees, built from hashes of the types
+ * (precomputed by each {@link Type}) and of the labels (computed once per distinct label).
+ * The powers of the bases spanned by each subtree are propagated from the children to their parent,
+ * so that no exponentiation is needed.
+ *
+ * @see TreeMetrics
+ */
 public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
     public static final String ENTER = "enter";
     public static final String LEAVE = "leave";
     public static final int BASE = 33;
 
+    /**
+     * The base of the 64-bit fingerprints. It is odd, so that its powers never vanish modulo 2^64.
+     */
+    public static final long FINGERPRINT_BASE = 0x9E3779B97F4A7C15L;
+
+    private static final int ENTER_HASH = ENTER.hashCode();
+    private static final int LEAVE_HASH = LEAVE.hashCode();
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long LEAVE_SALT = 0x632BE59BD9B4E019L;
+    private static final long NO_FINGERPRINT = 0L;
+
     int currentDepth = 0;
     int currentPosition = 0;
 
+    private final Function<Tree, TreeMetrics> previousMetrics;
+
+    private final boolean fingerprints;
+
+    private final Object2LongOpenHashMap<String> labelFingerprints = new Object2LongOpenHashMap<>();
+
+    // The powers of the bases spanned by the subtrees whose parent is not visited yet (BASE^(2 * size)),
+    // the children of a node being on top of the stack when the node is left.
+    private int[] hashPowers = new int[16];
+    private long[] fingerprintPowers = new long[16];
+    private int powers = 0;
+
+    public TreeMetricComputer() {
+        this(tree -> null);
+    }
+
+    /**
+     * Instantiate a computer reusing the size, height, hashes and fingerprints of the nodes
+     * having previous metrics, given by the provided function (returning null for the other nodes).
+     * This is only valid when the subtrees of these nodes are unchanged. The depths and positions
+     * are always computed.
+     */
+    public TreeMetricComputer(Function<Tree, TreeMetrics> previousMetrics) {
+        this(previousMetrics, true);
+    }
+
+    /**
+     * Instantiate a computer reusing the previous metrics given by the provided function,
+     * and computing the 64-bit fingerprints only if requested. Otherwise, the fingerprints
+     * of the nodes are their 32-bit hashes (see {@link TreeMetrics}), therefore the ASTs
+     * that are compared together must be computed in the same mode.
+     */
+    public TreeMetricComputer(Function<Tree, TreeMetrics> previousMetrics, boolean fingerprints) {
+        this.previousMetrics = previousMetrics;
+        this.fingerprints = fingerprints;
+        labelFingerprints.defaultReturnValue(NO_FINGERPRINT);
+    }
+
     @Override
     public void startInnerNode(Tree tree) {
         currentDepth++;
@@ -37,71 +102,115 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
 
     @Override
     public void visitLeaf(Tree tree) {
-        tree.setMetrics(new TreeMetrics(1, 0, leafHash(tree), leafStructureHash(tree), currentDepth, currentPosition));
-        currentPosition++;
+        computeMetrics(tree);
     }
 
     @Override
     public void endInnerNode(Tree tree) {
         currentDepth--;
-        int sumSize = 0;
-        int maxHeight = 0;
-        int currentHash = 0;
-        int currentStructureHash = 0;
-        for (Tree child : tree.getChildren()) {
-            TreeMetrics metrics = child.getMetrics();
-            int exponent = 2 * sumSize + 1;
-            currentHash += metrics.hash * hashFactor(exponent);
-            currentStructureHash += metrics.structureHash * hashFactor(exponent);
-            sumSize += metrics.size;
-            if (metrics.height > maxHeight)
-                maxHeight = metrics.height;
-        }
-        tree.setMetrics(new TreeMetrics(
-                sumSize + 1,
-                maxHeight + 1,
-                innerNodeHash(tree, 2 * sumSize + 1, currentHash),
-                innerNodeStructureHash(tree, 2 * sumSize + 1, currentStructureHash),
-                currentDepth, currentPosition));
-        currentPosition++;
+        computeMetrics(tree);
     }
 
-    private static int hashFactor(int exponent) {
-        return fastExponentiation(BASE, exponent);
+    private void computeMetrics(Tree tree) {
+        List<Tree> children = tree.getChildren();
+        int first = powers - children.size();
+        // The powers of the bases at the position of the next element of the enter/leave sequence.
+        int hashPower = BASE;
+        long fingerprintPower = FINGERPRINT_BASE;
+        TreeMetrics previous = previousMetrics.apply(tree);
+        if (previous != null) {
+            for (int i = first; i < powers; i++) {
+                hashPower *= hashPowers[i];
+                fingerprintPower *= fingerprintPowers[i];
+            }
+            tree.setMetrics(new TreeMetrics(previous.size, previous.height, previous.hash, previous.structureHash,
+                    previous.fingerprint, previous.structureFingerprint, currentDepth, currentPosition));
+        } else {
+            int sumSize = 0;
+            int maxHeight = 0;
+            int middleHash = 0;
+            int middleStructureHash = 0;
+            long middleFingerprint = 0;
+            long middleStructureFingerprint = 0;
+            for (int i = 0; i < children.size(); i++) {
+                TreeMetrics metrics = children.get(i).getMetrics();
+                middleHash += metrics.hash * hashPower;
+                middleStructureHash += metrics.structureHash * hashPower;
+                middleFingerprint += metrics.fingerprint * fingerprintPower;
+                middleStructureFingerprint += metrics.structureFingerprint * fingerprintPower;
+                hashPower *= hashPowers[first + i];
+                fingerprintPower *= fingerprintPowers[first + i];
+                sumSize += metrics.size;
+                if (metrics.height > maxHeight)
+                    maxHeight = metrics.height;
+            }
+
+            Type type = tree.getType();
+            String label = tree.getLabel();
+            int labelSeed = (31 * (31 + type.hashCode()) + Objects.hashCode(label)) * 31;
+            int hash = labelSeed + ENTER_HASH + middleHash + (labelSeed + LEAVE_HASH) * hashPower;
+            int structureHash = type.enterHash + middleStructureHash + type.leaveHash * hashPower;
+            int height = children.isEmpty() ? 0 : maxHeight + 1;
+            if (fingerprints) {
+                long enter = mix(type.fingerprint * FINGERPRINT_BASE + labelFingerprint(label));
+                long fingerprint = enter + middleFingerprint + leaveFingerprint(enter) * fingerprintPower;
+                long structureFingerprint = type.fingerprint + middleStructureFingerprint
+                        + type.leaveFingerprint * fingerprintPower;
+                tree.setMetrics(new TreeMetrics(sumSize + 1, height, hash, structureHash,
+                        fingerprint, structureFingerprint, currentDepth, currentPosition));
+            } else
+                tree.setMetrics(new TreeMetrics(sumSize + 1, height, hash, structureHash,
+                        currentDepth, currentPosition));
+        }
+
+        powers = first;
+        pushPowers(hashPower * BASE, fingerprintPower * FINGERPRINT_BASE);
+        currentPosition++;
     }
 
-    private static int fastExponentiation(int base, int exponent) {
-        if (exponent == 0)
-            return 1;
-        if (exponent == 1)
-            return base;
-        int result = 1;
-        while (exponent > 0) {
-            if ((exponent & 1) != 0)
-                result *= base;
-            exponent >>= 1;
-            base *= base;
+    private void pushPowers(int hashPower, long fingerprintPower) {
+        if (powers == hashPowers.length) {
+            hashPowers = Arrays.copyOf(hashPowers, 2 * powers);
+            fingerprintPowers = Arrays.copyOf(fingerprintPowers, 2 * powers);
         }
-        return result;
+        hashPowers[powers] = hashPower;
+        fingerprintPowers[powers] = fingerprintPower;
+        powers++;
     }
 
-    private static int innerNodeHash(Tree tree, int size, int middleHash) {
-        return Objects.hash(tree.getType(), tree.getLabel(), ENTER)
-                + middleHash
-                + Objects.hash(tree.getType(), tree.getLabel(), LEAVE) * hashFactor(size);
+    private long labelFingerprint(String label) {
+        long fingerprint = labelFingerprints.getLong(label);
+        if (fingerprint == NO_FINGERPRINT) {
+            fingerprint = fingerprint(label);
+            labelFingerprints.put(label, fingerprint);
+        }
+        return fingerprint;
     }
 
-    private static int innerNodeStructureHash(Tree tree, int size, int middleHash) {
-        return Objects.hash(tree.getType(), ENTER)
-               + middleHash
-               + Objects.hash(tree.getType(), LEAVE) * hashFactor(size);
+    /**
+     * Return the 64-bit fingerprint of the given string. The fingerprints of the types
+     * are computed once (see {@link Type#fingerprint}), the ones of the labels once per
+     * distinct label and computer.
+     */
+    static long fingerprint(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
     }
 
-    private static int leafHash(Tree tree) {
-        return innerNodeHash(tree, 1, 0);
+    /**
+     * Return the fingerprint of the leave element of a node whose enter element has the given fingerprint.
+     */
+    static long leaveFingerprint(long enterFingerprint) {
+        return mix(enterFingerprint + LEAVE_SALT);
     }
 
-    private static int leafStructureHash(Tree tree) {
-        return innerNodeStructureHash(tree, 1, 0);
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
     }
 }
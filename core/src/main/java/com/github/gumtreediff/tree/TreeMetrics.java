@@ -47,6 +47,17 @@ public class TreeMetrics {
      */
     public final int structureHash;
 
+    /**
+     * The 64-bit fingerprint of the subtree rooted at the node. Like {@link #hash}, two isomorphic
+     * subtrees have the same fingerprint, but collisions between non-isomorphic subtrees are much rarer.
+     */
+    public final long fingerprint;
+
+    /**
+     * The 64-bit fingerprint of the subtree rooted at the node, excluding labels.
+     */
+    public final long structureFingerprint;
+
     /**
      * The number of ancestors of a node.
      */
@@ -57,11 +68,22 @@ public class TreeMetrics {
      */
     public final int position;
 
+    /**
+     * Instantiate metrics whose fingerprints are the hashcodes, for trees whose
+     * fingerprints are not known.
+     */
     public TreeMetrics(int size, int height, int hash, int structureHash, int depth, int position) {
+        this(size, height, hash, structureHash, hash, structureHash, depth, position);
+    }
+
+    public TreeMetrics(int size, int height, int hash, int structureHash,
+                       long fingerprint, long structureFingerprint, int depth, int position) {
         this.size = size;
         this.height = height;
         this.hash = hash;
         this.structureHash = structureHash;
+        this.fingerprint = fingerprint;
+        this.structureFingerprint = structureFingerprint;
         this.depth = depth;
         this.position = position;
     }
@@ -21,6 +21,8 @@ package com.github.gumtreediff.tree;
 
 import static com.github.gumtreediff.tree.TypeSet.type;
 
+import java.util.Objects;
+
 /**
  * Class representing the types of AST nodes. The types should be unmutable and having
  * a unique reference, that is ensured via the TypeSet class which is responsible for
@@ -37,6 +39,24 @@ public final class Type {
      */
     public final String name;
 
+    /**
+     * The 64-bit fingerprints of the enter and leave elements of the nodes of this type,
+     * used by the subtree fingerprints.
+     *
+     * @see TreeMetrics#fingerprint
+     */
+    final long fingerprint;
+    final long leaveFingerprint;
+
+    /**
+     * The hashcodes of the enter and leave elements of the nodes of this type,
+     * used by the subtree structure hashes.
+     *
+     * @see TreeMetrics#structureHash
+     */
+    final int enterHash;
+    final int leaveHash;
+
     /**
      * The empty type.
      */
@@ -44,6 +64,10 @@ public final class Type {
 
     private Type(String value) {
         name = value;
+        fingerprint = TreeMetricComputer.fingerprint(value);
+        leaveFingerprint = TreeMetricComputer.leaveFingerprint(fingerprint);
+        enterHash = Objects.hash(this, TreeMetricComputer.ENTER);
+        leaveHash = Objects.hash(this, TreeMetricComputer.LEAVE);
     }
 
     /**
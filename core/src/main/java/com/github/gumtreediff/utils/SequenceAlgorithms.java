@@ -21,6 +21,7 @@
 package com.github.gumtreediff.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -142,9 +143,11 @@ public final class SequenceAlgorithms {
 
     /**
      * Returns the longest common subsequence between the two list of nodes. This version use
-     *     isomorphism to ensure equality.
+     *     isomorphism to ensure equality. The isomorphism is only checked on nodes having
+     *     the same fingerprint, therefore the metrics of the nodes must be up to date.
      *
      * @see Tree#isIsomorphicTo(Tree)
+     * @see com.github.gumtreediff.tree.TreeMetrics#fingerprint
      * @return a list of size 2 int arrays that corresponds
      *     to match of index in sequence 1 to index in sequence 2.
      */
@@ -152,7 +155,8 @@ public final class SequenceAlgorithms {
         int[][] lengths = new int[s0.size() + 1][s1.size() + 1];
         for (int i = 0; i < s0.size(); i++)
             for (int j = 0; j < s1.size(); j++)
-                if (s0.get(i).isIsomorphicTo(s1.get(j)))
+                if (s0.get(i).getMetrics().fingerprint == s1.get(j).getMetrics().fingerprint
+                        && s0.get(i).isIsomorphicTo(s1.get(j)))
                     lengths[i + 1][j + 1] = lengths[i][j] + 1;
                 else
                     lengths[i + 1][j + 1] = Math.max(lengths[i + 1][j], lengths[i][j + 1]);
@@ -162,9 +166,11 @@ public final class SequenceAlgorithms {
 
     /**
      * Returns the longest common subsequence between the two list of nodes. This version use
-     *     isomorphism to ensure equality.
+     *     isostructure to ensure equality. The isostructure is only checked on nodes having
+     *     the same structure fingerprint, therefore the metrics of the nodes must be up to date.
      *
      * @see Tree#isIsoStructuralTo(Tree)
+     * @see com.github.gumtreediff.tree.TreeMetrics#structureFingerprint
      * @return a list of size 2 int arrays that corresponds
      *     to match of index in sequence 1 to index in sequence 2.
      */
@@ -172,7 +178,8 @@ public final class SequenceAlgorithms {
         int[][] lengths = new int[s0.size() + 1][s1.size() + 1];
         for (int i = 0; i < s0.size(); i++)
             for (int j = 0; j < s1.size(); j++)
-                if (s0.get(i).isIsoStructuralTo(s1.get(j)))
+                if (s0.get(i).getMetrics().structureFingerprint == s1.get(j).getMetrics().structureFingerprint
+                        && s0.get(i).isIsoStructuralTo(s1.get(j)))
                     lengths[i + 1][j + 1] = lengths[i][j] + 1;
                 else
                     lengths[i + 1][j + 1] = Math.max(lengths[i + 1][j], lengths[i][j + 1]);
@@ -180,6 +187,79 @@ public final class SequenceAlgorithms {
         return extractIndexes(lengths, s0.size(), s1.size());
     }
 
+    /**
+     * Returns the longest common subsequence between two sequences whose elements are matched
+     *     at most once, in O(n log n). The matching is given by an array where the value at index
+     *     j is the index in sequence 1 of the element matched with the element j of sequence 2, or
+     *     -1 if this element is not matched. Since each element is matched at most once, the problem
+     *     is solved as a longest increasing subsequence.
+     *     Among the longest common subsequences, the returned one is the one found by the classical
+     *     dynamic programming algorithm which, when both are possible, skips an element of sequence 1
+     *     rather than an element of sequence 2: at each step, the matched element of sequence 1
+     *     is the last one that still allows a longest common subsequence.
+     *
+     * @return a list of size 2 int arrays that corresponds
+     *     to match of index in sequence 1 to index in sequence 2.
+     */
+    public static List<int[]> longestCommonSubsequenceOfMatching(int[] matches) {
+        int n = matches.length;
+        // lengths[j] is the length of the longest increasing subsequence starting at j.
+        int[] lengths = new int[n];
+        // tails[l] is the greatest match starting an increasing subsequence of length l,
+        // it is strictly decreasing with l.
+        int[] tails = new int[n + 1];
+        int max = 0;
+        for (int j = n - 1; j >= 0; j--) {
+            int i = matches[j];
+            if (i < 0)
+                continue;
+            int lo = 0;
+            int hi = max;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (tails[mid] > i)
+                    lo = mid;
+                else
+                    hi = mid - 1;
+            }
+            int length = lo + 1;
+            lengths[j] = length;
+            if (length > max) {
+                max = length;
+                tails[length] = i;
+            } else if (tails[length] < i)
+                tails[length] = i;
+        }
+
+        int[] starts = new int[max + 2];
+        for (int j = 0; j < n; j++)
+            if (lengths[j] > 0)
+                starts[lengths[j] + 1]++;
+        for (int l = 1; l <= max + 1; l++)
+            starts[l] += starts[l - 1];
+        int[] byLength = new int[starts[max + 1]];
+        int[] next = Arrays.copyOf(starts, max + 1);
+        for (int j = 0; j < n; j++)
+            if (lengths[j] > 0)
+                byLength[next[lengths[j]]++] = j;
+
+        List<int[]> indexes = new ArrayList<>(max);
+        int lastI = -1;
+        int lastJ = -1;
+        for (int l = max; l >= 1; l--) {
+            int best = -1;
+            for (int k = starts[l]; k < starts[l + 1]; k++) {
+                int j = byLength[k];
+                if (j > lastJ && matches[j] > lastI && (best == -1 || matches[j] > matches[best]))
+                    best = j;
+            }
+            lastI = matches[best];
+            lastJ = best;
+            indexes.add(new int[] {lastI, lastJ});
+        }
+        return indexes;
+    }
+
     private static List<int[]> extractIndexes(int[][] lengths, int length1, int length2) {
         List<int[]> indexes = new ArrayList<>();
 
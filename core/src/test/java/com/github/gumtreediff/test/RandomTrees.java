@@ -0,0 +1,53 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.tree.DefaultTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TypeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RandomTrees {
+    private RandomTrees() {}
+
+    /**
+     * Return a random tree with the given number of nodes, for the tests comparing an algorithm
+     * with a reference one. Each node is added as the last child of a random previous node.
+     * The types of the nodes are taken among t0 ... t(types - 1), and when labels is positive
+     * half of the nodes have a label taken among l0 ... l(labels - 1).
+     */
+    public static Tree randomTree(Random random, int size, int types, int labels) {
+        Tree root = new DefaultTree(TypeSet.type("t0"));
+        List<Tree> nodes = new ArrayList<>();
+        nodes.add(root);
+        for (int i = 1; i < size; i++) {
+            Tree t = new DefaultTree(TypeSet.type("t" + random.nextInt(types)));
+            if (labels > 0 && random.nextBoolean())
+                t.setLabel("l" + random.nextInt(labels));
+            nodes.get(random.nextInt(nodes.size())).addChild(t);
+            nodes.add(t);
+        }
+        return root;
+    }
+}
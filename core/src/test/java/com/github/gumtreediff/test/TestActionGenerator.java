@@ -113,6 +113,27 @@ public class TestActionGenerator {
         assertEquals("i", d.getNode().getLabel());
     }
 
+    @Test
+    public void testWithWideNode() {
+        Tree src = new DefaultTree(TypeSet.type("root"));
+        Tree dst = new DefaultTree(TypeSet.type("root"));
+        for (int i = 0; i < 100; i++)
+            src.addChild(new DefaultTree(TypeSet.type("leaf"), Integer.toString(i)));
+        for (int i = 99; i >= 0; i--)
+            dst.addChild(new DefaultTree(TypeSet.type("leaf"), Integer.toString(i)));
+        MappingStore ms = new MappingStore(src, dst);
+        ms.addMapping(src, dst);
+        for (int i = 0; i < 100; i++)
+            ms.addMapping(src.getChild(i), dst.getChild(99 - i));
+
+        EditScript actions = new ChawatheScriptGenerator().computeActions(ms);
+        assertEquals(99, actions.size());
+        for (Action a : actions) {
+            assertTrue(a instanceof Move);
+            assertTrue(a.getNode() != src.getChild(99));
+        }
+    }
+
     @Test
     public void testWithUnmappedRoot() {
         Tree src = new DefaultTree(TypeSet.type("foo"), "");
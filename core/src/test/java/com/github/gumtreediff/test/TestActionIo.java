@@ -33,6 +33,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestActionIo {
     private Pair<TreeContext, TreeContext> p;
@@ -72,4 +76,38 @@ public class TestActionIo {
     public void testBasicJsonActions() throws IOException {
         System.out.println(ActionsIoUtils.toJson(p.first, actions, ms));
     }
+
+    @Test
+    public void testStreamedJsonActions() throws Exception {
+        StringWriter w = new StringWriter();
+        try (ActionsIoUtils.ActionStreamWriter sink = ActionsIoUtils.toJsonStream(p.first, ms, w)) {
+            new ChawatheScriptGenerator().computeActions(ms, sink);
+        }
+        assertEquals(ActionsIoUtils.toJson(p.first, actions, ms).toString(), w.toString());
+    }
+
+    @Test
+    public void testStreamedXmlActions() throws Exception {
+        StringWriter w = new StringWriter();
+        try (ActionsIoUtils.ActionStreamWriter sink = ActionsIoUtils.toXmlStream(p.first, ms, w)) {
+            new ChawatheScriptGenerator().computeActions(ms, sink);
+        }
+        assertEquals(ActionsIoUtils.toXml(p.first, actions, ms).toString(), w.toString());
+    }
+
+    @Test
+    public void testStreamedJsonLinesActions() throws Exception {
+        StringWriter w = new StringWriter();
+        try (ActionsIoUtils.ActionStreamWriter sink = ActionsIoUtils.toJsonLinesStream(p.first, ms, w)) {
+            new ChawatheScriptGenerator().computeActions(ms, sink);
+        }
+        String[] lines = w.toString().split("\n");
+        assertEquals(ms.size() + actions.size(), lines.length);
+        assertTrue(lines[0].startsWith("{\"src\":"));
+        for (int i = 0; i < actions.size(); i++) {
+            String line = lines[ms.size() + i];
+            assertTrue(line.startsWith("{\"action\":\"" + actions.get(i).getName() + "\""), line);
+            assertTrue(line.endsWith("}"));
+        }
+    }
 }
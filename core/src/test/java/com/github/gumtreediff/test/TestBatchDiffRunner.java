@@ -0,0 +1,127 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.BatchDiffRunner;
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.SyntaxException;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBatchDiffRunner {
+    private static final List<Pair<File, File>> PAIRS = Arrays.asList(
+            pair("action_v0.xml", "action_v1.xml"),
+            pair("Dummy_v0.xml", "Dummy_v1.xml"),
+            pair("gumtree_v0.xml", "gumtree_v1.xml"),
+            pair("zs_v0.xml", "zs_v1.xml"),
+            pair("cd_v0.xml", "cd_v1.xml"));
+
+    @BeforeAll
+    public static void prepare() {
+        Matcher matcher = new CompositeMatchers.SimpleGumtree();
+        Matchers.getInstance().install(matcher.getClass(),
+                matcher.getClass().getAnnotation(com.github.gumtreediff.matchers.Register.class));
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+    }
+
+    @AfterAll
+    public static void clear() {
+        Matchers.getInstance().clear();
+        TreeGenerators.getInstance().clear();
+    }
+
+    private static Pair<File, File> pair(String src, String dst) {
+        return new Pair<>(new File("src/test/resources", src), new File("src/test/resources", dst));
+    }
+
+    @Test
+    public void testSequentialRunIsLargestFirst() throws Exception {
+        BatchDiffRunner runner = new BatchDiffRunner(1, "xml", "gumtree-simple", new GumtreeProperties());
+        List<Pair<File, File>> done = new ArrayList<>();
+        int failures = runner.run(PAIRS, (files, diff) -> done.add(files));
+        assertEquals(0, failures);
+        assertEquals(PAIRS.size(), done.size());
+        for (int i = 1; i < done.size(); i++)
+            assertTrue(size(done.get(i - 1)) >= size(done.get(i)));
+    }
+
+    @Test
+    public void testParallelRunComputesSameDiffs() throws Exception {
+        Map<Pair<File, File>, Integer> expected = new HashMap<>();
+        for (Pair<File, File> p : PAIRS)
+            expected.put(p, Diff.compute(p.first.getPath(), p.second.getPath(),
+                    "xml", "gumtree-simple").editScript.size());
+
+        BatchDiffRunner runner = new BatchDiffRunner(4, "xml", "gumtree-simple", new GumtreeProperties());
+        runner.setMaxConcurrentBytes(2048);
+        Map<Pair<File, File>, Integer> actual = new HashMap<>();
+        int failures = runner.run(PAIRS, (files, diff) -> actual.put(files, diff.editScript.size()));
+        assertEquals(0, failures);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testFailuresAreReported() throws Exception {
+        BatchDiffRunner runner = new BatchDiffRunner(2, (src, dst) -> {
+            if (src.getName().startsWith("zs"))
+                throw new SyntaxException(null, null, null);
+            if (src.getName().startsWith("cd"))
+                throw new StackOverflowError();
+            return Diff.compute(src.getPath(), dst.getPath(), "xml", "gumtree-simple");
+        });
+        List<Pair<File, File>> failed = new ArrayList<>();
+        int failures = runner.run(PAIRS, new BatchDiffRunner.DiffConsumer() {
+            @Override
+            public void accept(Pair<File, File> files, Diff diff) {}
+
+            @Override
+            public void failed(Pair<File, File> files, Throwable e) {
+                failed.add(files);
+            }
+        });
+        assertEquals(2, failures);
+        assertEquals(new HashSet<>(Arrays.asList(PAIRS.get(3), PAIRS.get(4))), new HashSet<>(failed));
+    }
+
+    @Test
+    public void testInvalidThreads() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchDiffRunner(0, "xml", "gumtree-simple", new GumtreeProperties()));
+    }
+
+    private static long size(Pair<File, File> pair) {
+        return pair.first.length() + pair.second.length();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.heuristic.gt.BucketPriorityTreeQueue;
+import com.github.gumtreediff.matchers.heuristic.gt.DefaultPriorityTreeQueue;
+import com.github.gumtreediff.matchers.heuristic.gt.PriorityTreeQueue;
+import com.github.gumtreediff.tree.Tree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBucketPriorityTreeQueue {
+    @Test
+    public void testPopOpenWithHeight() {
+        var tree = TreeLoader.getDummySrc();
+        var queue = new BucketPriorityTreeQueue(tree, 0, PriorityTreeQueue.HEIGHT_PRIORITY_CALCULATOR);
+        assertEquals(2, queue.currentPriority());
+        List<Tree> p = queue.popOpen();
+        assertEquals(1, p.size());
+        assertEquals(1, queue.currentPriority());
+        p = queue.popOpen();
+        assertEquals(0, queue.currentPriority());
+        assertEquals(1, p.size());
+        p = queue.popOpen();
+        assertTrue(queue.isEmpty());
+        assertEquals(3, p.size());
+        assertThrows(NoSuchElementException.class, queue::currentPriority);
+    }
+
+    @Test
+    public void testPopOpenWithSizeAndMinPriority() {
+        var tree = TreeLoader.getDummySrc();
+        var queue = new BucketPriorityTreeQueue(tree, 2, PriorityTreeQueue.SIZE_PRIORITY_CALCULATOR);
+        assertEquals(5, queue.currentPriority());
+        List<Tree> p = queue.popOpen();
+        assertEquals(1, p.size());
+        assertEquals(3, queue.currentPriority());
+        p = queue.popOpen();
+        assertEquals(1, p.size());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        var tree = TreeLoader.getDummySrc();
+        var queue = new BucketPriorityTreeQueue(tree, 0, PriorityTreeQueue.SIZE_PRIORITY_CALCULATOR);
+        queue.popOpen();
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        queue.open(tree);
+        assertEquals(3, queue.currentPriority());
+    }
+
+    @Test
+    public void testSameOrderThanDefaultQueue() {
+        Random random = new Random(1);
+        for (int run = 0; run < 10; run++) {
+            Tree root = RandomTrees.randomTree(random, 501, 1, 0);
+
+            for (var calculator : List.of(PriorityTreeQueue.HEIGHT_PRIORITY_CALCULATOR,
+                    PriorityTreeQueue.SIZE_PRIORITY_CALCULATOR)) {
+                var expected = new DefaultPriorityTreeQueue(root, 1, calculator);
+                var actual = new BucketPriorityTreeQueue(root, 1, calculator);
+                while (!expected.isEmpty()) {
+                    assertFalse(actual.isEmpty());
+                    assertEquals(expected.currentPriority(), actual.currentPriority());
+                    assertEquals(expected.popOpen(), actual.popOpen());
+                }
+                assertTrue(actual.isEmpty());
+            }
+        }
+    }
+}
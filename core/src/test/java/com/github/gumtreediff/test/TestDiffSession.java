@@ -0,0 +1,180 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.actions.DiffSession;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.actions.model.Insert;
+import com.github.gumtreediff.actions.model.TreeInsert;
+import com.github.gumtreediff.actions.model.Update;
+import com.github.gumtreediff.gen.IncrementalTreeGenerator;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TextEdit;
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.matchers.*;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TypeSet;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDiffSession {
+    private static final String MATCHER_ID = "gumtree-simple";
+
+    private static final String CONTENT = "a b c\nd e f\ng h i";
+
+    @BeforeAll
+    public static void prepare() {
+        Matcher matcher = new CompositeMatchers.SimpleGumtree();
+        Matchers.getInstance().install(matcher.getClass(),
+                matcher.getClass().getAnnotation(com.github.gumtreediff.matchers.Register.class));
+        TreeGenerators.getInstance().install(WordsTreeGenerator.class,
+                WordsTreeGenerator.class.getAnnotation(Register.class));
+        TreeGenerators.getInstance().install(IncrementalWordsTreeGenerator.class,
+                IncrementalWordsTreeGenerator.class.getAnnotation(Register.class));
+    }
+
+    @AfterAll
+    public static void clear() {
+        Matchers.getInstance().clear();
+        TreeGenerators.getInstance().clear();
+    }
+
+    @Test
+    public void testUpdate() throws IOException {
+        DiffSession session = new DiffSession(CONTENT, CONTENT, "words", MATCHER_ID, new GumtreeProperties());
+        assertEquals(0, session.getDiff().editScript.size());
+
+        Diff diff = session.edit(8, 1, "x");
+        assertEquals("a b c\nd x f\ng h i", session.getDstContent());
+        assertEquals(13, session.getReusedMappings());
+        assertEquals(1, diff.editScript.size());
+        Action a = diff.editScript.get(0);
+        assertTrue(a instanceof Update);
+        assertEquals("x", ((Update) a).getValue());
+        assertEquals(fullDiff(CONTENT, session.getDstContent()).editScript.size(), diff.editScript.size());
+    }
+
+    @Test
+    public void testInsert() throws IOException {
+        DiffSession session = new DiffSession(CONTENT, CONTENT, "words", MATCHER_ID, new GumtreeProperties());
+        Diff diff = session.edit(0, 0, "j k\n");
+        assertEquals(13, session.getReusedMappings());
+        assertEquals(1, diff.editScript.size());
+        assertTrue(diff.editScript.get(0) instanceof TreeInsert);
+        assertEquals(0, diff.editScript.get(0).getNode().getPos());
+
+        diff = session.edit(2, 1, "k l");
+        assertEquals("j k l\na b c\nd e f\ng h i", session.getDstContent());
+        assertEquals(1, diff.editScript.size());
+        assertEquals(3, diff.editScript.get(0).getNode().getChildren().size());
+        assertEquals(diff.dst.getRoot().getMetrics().hash,
+                fullDiff(CONTENT, session.getDstContent()).dst.getRoot().getMetrics().hash);
+    }
+
+    @Test
+    public void testIncrementalGenerator() throws IOException {
+        IncrementalWordsTreeGenerator.reparsed = 0;
+        DiffSession session = new DiffSession(CONTENT, CONTENT, "words-incremental",
+                MATCHER_ID, new GumtreeProperties());
+        session.edit(6, 0, "y ");
+        Diff diff = session.edit(16, 1, "z");
+        assertEquals(2, IncrementalWordsTreeGenerator.reparsed);
+        assertEquals("a b c\ny d e f\ng z i", session.getDstContent());
+        assertEquals(2, diff.editScript.size());
+        assertTrue(diff.editScript.get(0) instanceof Insert || diff.editScript.get(1) instanceof Insert);
+    }
+
+    @Test
+    public void testInvalidEdit() throws IOException {
+        DiffSession session = new DiffSession(CONTENT, CONTENT, "words", MATCHER_ID, new GumtreeProperties());
+        assertThrows(IllegalArgumentException.class, () -> session.edit(10, 20, ""));
+        assertThrows(IllegalArgumentException.class, () -> session.edit(-1, 0, ""));
+        assertEquals(CONTENT, session.getDstContent());
+        assertThrows(UnsupportedOperationException.class,
+                () -> new DiffSession(CONTENT, CONTENT, "unknown", MATCHER_ID, new GumtreeProperties()));
+    }
+
+    private static Diff fullDiff(String src, String dst) throws IOException {
+        return Diff.compute(new StringReader(src), new StringReader(dst), "words",
+                MATCHER_ID, new GumtreeProperties());
+    }
+
+    /**
+     * A tree generator producing a file node containing line nodes containing word nodes.
+     */
+    @Register(id = "words")
+    public static class WordsTreeGenerator extends TreeGenerator {
+        @Override
+        protected TreeContext generate(Reader r) throws IOException {
+            String content = new BufferedReader(r).lines().collect(Collectors.joining("\n"));
+            TreeContext ctx = new TreeContext();
+            Tree file = ctx.createTree(TypeSet.type("file"));
+            file.setPos(0);
+            file.setLength(content.length());
+            ctx.setRoot(file);
+            int pos = 0;
+            for (String line : content.split("\n", -1)) {
+                Tree l = ctx.createTree(TypeSet.type("line"));
+                l.setPos(pos);
+                l.setLength(line.length());
+                file.addChild(l);
+                int wordPos = pos;
+                for (String word : line.split(" ", -1)) {
+                    Tree w = ctx.createTree(TypeSet.type("word"), word);
+                    w.setPos(wordPos);
+                    w.setLength(word.length());
+                    l.addChild(w);
+                    wordPos += word.length() + 1;
+                }
+                pos += line.length() + 1;
+            }
+            return ctx;
+        }
+    }
+
+    @Register(id = "words-incremental")
+    public static class IncrementalWordsTreeGenerator extends WordsTreeGenerator
+            implements IncrementalTreeGenerator {
+        static int reparsed = 0;
+
+        @Override
+        public TreeContext generateReparsable(String content) throws IOException {
+            return generateFrom().string(content);
+        }
+
+        @Override
+        public TreeContext reparse(TreeContext previous, TextEdit edit, String content) throws IOException {
+            reparsed++;
+            return generateFrom().string(content);
+        }
+    }
+}
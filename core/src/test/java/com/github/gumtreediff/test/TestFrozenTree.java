@@ -0,0 +1,158 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.gumtreediff.actions.ChawatheScriptGenerator;
+import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Mapping;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.*;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.Test;
+
+public class TestFrozenTree {
+    @Test
+    public void testFreeze() {
+        Tree root = TreeLoader.getDummySrc();
+        FrozenTree frozen = FrozenTree.freeze(root);
+        assertEquals(5, frozen.size());
+        assertTrue(frozen.getRoot().isIsomorphicTo(root));
+        assertEquals(root.toTreeString(), frozen.getRoot().toTreeString());
+
+        Iterator<Tree> views = frozen.getRoot().preOrder().iterator();
+        int id = 0;
+        for (Tree t : root.preOrder()) {
+            Tree view = views.next();
+            assertSame(view, frozen.getNode(id));
+            assertEquals(id, frozen.getId(view));
+            assertEquals(t.getPos(), view.getPos());
+            assertEquals(t.getLength(), view.getLength());
+            assertEquals(t.getMetrics().size, view.getMetrics().size);
+            assertEquals(t.getMetrics().height, view.getMetrics().height);
+            assertEquals(t.getMetrics().hash, view.getMetrics().hash);
+            assertEquals(t.getMetrics().structureHash, view.getMetrics().structureHash);
+            assertEquals(t.getMetrics().fingerprint, view.getMetrics().fingerprint);
+            assertEquals(t.getMetrics().structureFingerprint, view.getMetrics().structureFingerprint);
+            assertEquals(t.getMetrics().depth, view.getMetrics().depth);
+            assertEquals(t.getMetrics().position, view.getMetrics().position);
+            assertEquals(t.hasLabel(), view.hasLabel());
+            assertEquals(t.getMetrics().height, FrozenTree.height(view));
+            assertEquals(t.getMetrics().size, FrozenTree.size(view));
+            assertEquals(t.getMetrics().fingerprint, FrozenTree.fingerprint(view));
+            assertEquals(t.getChildren().size(), frozen.getChildCount(id));
+            id++;
+        }
+        assertFalse(views.hasNext());
+        assertEquals(FrozenTree.NO_NODE, frozen.getId(root));
+    }
+
+    @Test
+    public void testStructure() {
+        FrozenTree frozen = FrozenTree.freeze(TreeLoader.getDummySrc());
+        assertEquals(FrozenTree.NO_NODE, frozen.getParent(0));
+        assertEquals(1, frozen.getFirstChild(0));
+        assertEquals(4, frozen.getNextSibling(1));
+        assertEquals(3, frozen.getNextSibling(2));
+        assertEquals(FrozenTree.NO_NODE, frozen.getNextSibling(4));
+        assertEquals(FrozenTree.NO_NODE, frozen.getFirstChild(4));
+        assertTrue(frozen.isDescendantOf(3, 1));
+        assertFalse(frozen.isDescendantOf(4, 1));
+        assertFalse(frozen.isDescendantOf(1, 1));
+        assertSame(frozen.getRoot(), frozen.getNode(1).getParent());
+        assertTrue(frozen.getRoot().isRoot());
+        assertTrue(frozen.getNode(4).isLeaf());
+        assertSame(frozen.getType(2), frozen.getTypes()[frozen.getTypeId(2)]);
+        assertEquals(2, frozen.getChildCount(0));
+        assertEquals(4, frozen.getChild(0, 1));
+        assertEquals(3, frozen.getChild(1, 1));
+        assertSame(frozen.getNode(3), frozen.getNode(1).getChild(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> frozen.getRoot().getChildren().get(2));
+    }
+
+    @Test
+    public void testConcurrentViews() throws Exception {
+        FrozenTree frozen = FrozenTree.freeze(RandomTrees.randomTree(new Random(42), 2000, 5, 10));
+        Callable<List<Tree>> views = () -> {
+            List<Tree> result = new ArrayList<>();
+            for (int id = 0; id < frozen.size(); id++)
+                result.add(frozen.getNode(id));
+            return result;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Tree>>> futures = executor.invokeAll(Collections.nCopies(4, views));
+            List<Tree> expected = futures.get(0).get();
+            for (Future<List<Tree>> future : futures) {
+                List<Tree> actual = future.get();
+                for (int id = 0; id < frozen.size(); id++)
+                    assertSame(expected.get(id), actual.get(id));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int id = 0; id < frozen.size(); id++)
+            assertSame(frozen.getMetrics(id), frozen.getNode(id).getMetrics());
+    }
+
+    @Test
+    public void testFrozenTreeIsUnmodifiable() {
+        Tree root = FrozenTree.freeze(TreeLoader.getDummySrc()).getRoot();
+        assertThrows(UnsupportedOperationException.class, () -> root.setLabel("foo"));
+        assertThrows(UnsupportedOperationException.class, () -> root.setPos(3));
+        assertThrows(UnsupportedOperationException.class, () -> root.setMetadata("foo", "bar"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> root.addChild(new DefaultTree(TypeSet.type("foo"))));
+        assertThrows(UnsupportedOperationException.class, () -> root.getChildren().remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> root.getChild(0).setParent(null));
+        Tree copy = root.deepCopy();
+        assertTrue(copy instanceof DefaultTree);
+        assertTrue(copy.isIsomorphicTo(root));
+    }
+
+    @Test
+    public void testMatchFrozenTrees() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore expected = new CompositeMatchers.ClassicGumtree().match(src, dst);
+
+        FrozenTree frozenSrc = FrozenTree.freeze(src);
+        FrozenTree frozenDst = FrozenTree.freeze(dst);
+        MappingStore actual = new CompositeMatchers.ClassicGumtree()
+                .match(frozenSrc.getRoot(), frozenDst.getRoot());
+        assertEquals(expected.size(), actual.size());
+        List<Tree> srcs = TreeUtils.preOrder(src);
+        List<Tree> dsts = TreeUtils.preOrder(dst);
+        for (Mapping m : actual)
+            assertTrue(expected.has(srcs.get(frozenSrc.getId(m.first)), dsts.get(frozenDst.getId(m.second))));
+
+        EditScript script = new ChawatheScriptGenerator().computeActions(actual);
+        assertEquals(new ChawatheScriptGenerator().computeActions(expected).size(), script.size());
+    }
+}
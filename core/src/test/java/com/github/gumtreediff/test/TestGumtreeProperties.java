@@ -131,10 +131,19 @@ class TestGumtreeProperties {
         matcher.configure(properties);
         assertEquals(nl, matcher.getSizeThreshold());
 
+        assertEquals("lean-zs", matcher.getLastChanceMatcher());
+        properties.put(ConfigurationOptions.bu_lastchance, "zs");
+        properties.put(ConfigurationOptions.bu_maxted, 0.5);
+        matcher.configure(properties);
+        assertEquals("zs", matcher.getLastChanceMatcher());
+        assertEquals(0.5, matcher.getMaxDistance(), 0);
+
         Set<ConfigurationOptions> options = matcher.getApplicableOptions();
-        assertEquals(2, options.size());
+        assertEquals(4, options.size());
         assertTrue(options.contains(ConfigurationOptions.bu_minsim));
         assertTrue(options.contains(ConfigurationOptions.bu_minsize));
+        assertTrue(options.contains(ConfigurationOptions.bu_lastchance));
+        assertTrue(options.contains(ConfigurationOptions.bu_maxted));
     }
 
     @Test
@@ -200,7 +209,7 @@ class TestGumtreeProperties {
         assertEquals(2, optionsFromGreedySubMatcher);
 
         int optionsFromGreedyBottomUpMatcher = opGreedyBottomUp.get().getApplicableOptions().size();
-        assertEquals(2, optionsFromGreedyBottomUpMatcher);
+        assertEquals(4, optionsFromGreedyBottomUpMatcher);
 
         assertEquals((optionsFromGreedySubMatcher + optionsFromGreedyBottomUpMatcher),
                 composite.getApplicableOptions().size());
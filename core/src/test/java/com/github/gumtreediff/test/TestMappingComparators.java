@@ -29,6 +29,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,4 +64,41 @@ public class TestMappingComparators {
                 new MappingComparators.AbsolutePositionDistanceMappingComparator();
         assertEquals(0, ac.compare(mappings.get(0), mappings.get(1)));
     }
+
+    @Test
+    public void testSortWithFullComparison() {
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            Tree src = randomTree(random);
+            Tree dst = randomTree(random);
+            MappingStore ms = new MappingStore(src, dst);
+            List<Tree> srcs = src.getDescendants();
+            List<Tree> dsts = dst.getDescendants();
+            for (int i = 0; i < 20; i++) {
+                Tree s = srcs.get(random.nextInt(srcs.size()));
+                Tree d = dsts.get(random.nextInt(dsts.size()));
+                if (ms.areBothUnmapped(s, d))
+                    ms.addMapping(s, d);
+            }
+
+            // Enough candidates to compute the keys in parallel.
+            List<Mapping> candidates = new ArrayList<>();
+            for (int i = 0; i < 100; i++)
+                candidates.add(new Mapping(srcs.get(random.nextInt(srcs.size())),
+                        dsts.get(random.nextInt(dsts.size()))));
+            List<Mapping> expected = new ArrayList<>(candidates);
+            expected.sort(new MappingComparators.FullMappingComparator(ms));
+            MappingComparators.sortWithFullComparison(candidates, ms);
+            assertEquals(expected, candidates);
+        }
+    }
+
+    private static Tree randomTree(Random random) {
+        Tree root = RandomTrees.randomTree(random, 61, 3, 0);
+        for (Tree t : root.getDescendants()) {
+            t.setPos(random.nextInt(10));
+            t.setLength(random.nextInt(10));
+        }
+        return root;
+    }
 }
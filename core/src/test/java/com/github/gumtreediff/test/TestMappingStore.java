@@ -19,6 +19,7 @@
 
 package com.github.gumtreediff.test;
 
+import com.github.gumtreediff.matchers.ArrayMappingStore;
 import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.MultiMappingStore;
@@ -29,6 +30,7 @@ import com.github.gumtreediff.tree.TypeSet;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,6 +72,62 @@ public class TestMappingStore {
         assertTrue(ms.has(t3, t4));
     }
 
+    @Test
+    public void testArrayMappingStore() {
+        Tree t1 = new DefaultTree(TypeSet.type("foo"));
+        Tree t2 = new DefaultTree(TypeSet.type("foo"));
+        Tree t3 = new DefaultTree(TypeSet.type("foo"));
+        Tree t4 = new DefaultTree(TypeSet.type("foo"));
+        t3.setParentAndUpdateChildren(t1);
+        t4.setParentAndUpdateChildren(t2);
+        MappingStore ms = new ArrayMappingStore(t1, t2);
+        assertEquals(0, ms.size());
+        assertFalse(ms.isSrcMapped(t1));
+        assertFalse(ms.isDstMapped(t2));
+        assertNull(ms.getDstForSrc(t3));
+        assertNull(ms.getSrcForDst(t4));
+        ms.addMapping(t1, t2);
+        assertEquals(1, ms.size());
+        assertTrue(ms.isSrcMapped(t1));
+        assertTrue(ms.isDstMapped(t2));
+        assertFalse(ms.isSrcMapped(t3));
+        assertTrue(ms.has(t1, t2));
+        assertTrue(ms.hasUnmappedSrcChildren(t1));
+        ms.addMapping(t3, t4);
+        assertEquals(2, ms.size());
+        assertFalse(ms.hasUnmappedSrcChildren(t1));
+        assertEquals(t4, ms.getDstForSrc(t3));
+        assertEquals(t3, ms.getSrcForDst(t4));
+        Iterator<Mapping> it = ms.iterator();
+        assertEquals(new Mapping(t3, t4), it.next());
+        assertEquals(new Mapping(t1, t2), it.next());
+        assertFalse(it.hasNext());
+        ms.removeMapping(t1, t2);
+        assertEquals(1, ms.size());
+        assertFalse(ms.isSrcMapped(t1));
+        assertFalse(ms.isDstMapped(t2));
+
+        Tree t5 = new DefaultTree(TypeSet.type("bar"));
+        ms.addMapping(t1, t5);
+        assertEquals(2, ms.size());
+        assertTrue(ms.has(t1, t5));
+        assertEquals(t1, ms.getSrcForDst(t5));
+        ms.addMapping(t1, t2);
+        assertEquals(2, ms.size());
+        assertTrue(ms.has(t1, t2));
+
+        MappingStore copy = new ArrayMappingStore(ms);
+        assertEquals(2, copy.size());
+        assertTrue(copy.has(t1, t2));
+        assertTrue(copy.has(t3, t4));
+
+        ms.removeMapping(t3, t5);
+        assertEquals(1, ms.size());
+        assertFalse(ms.isSrcMapped(t3));
+        ms.removeMapping(t5, t2);
+        assertFalse(ms.isDstMapped(t2));
+    }
+
     @Test
     public void testMultiMappingStore() {
         MultiMappingStore ms = new MultiMappingStore();
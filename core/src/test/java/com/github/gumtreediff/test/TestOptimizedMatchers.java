@@ -21,13 +21,22 @@
 package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.optimizations.LcsOptMatcherThetaB;
+import com.github.gumtreediff.matchers.optimizations.LeafMoveMatcherThetaE;
+import com.github.gumtreediff.matchers.optimizations.SparseLcsOptMatcherThetaB;
+import com.github.gumtreediff.tree.DefaultTree;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.utils.Pair;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TypeSet;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestOptimizedMatchers {
@@ -74,4 +83,88 @@ public class TestOptimizedMatchers {
         assertTrue(mappings.has(src.getChild(0).getChild(2), dst.getChild(1)));
     }
 
+    @Test
+    public void testClassicGumtreeThetaSparseMatcher() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getZsSlidePair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore mappings = new CompositeMatchers.ClassicGumtreeThetaSparse().match(src, dst);
+        assertEquals(new CompositeMatchers.ClassicGumtreeTheta().match(src, dst).asSet(), mappings.asSet());
+    }
+
+    @Test
+    public void testSparseLcsThetaBWithFixtures() {
+        var pairs = List.of(TreeLoader.getGumtreePair(), TreeLoader.getZsCustomPair(), TreeLoader.getZsSlidePair(),
+                TreeLoader.getDummyPair(), TreeLoader.getCdCustomPair());
+        for (Pair<TreeContext, TreeContext> trees : pairs) {
+            Pair<MappingStore, MappingStore> mappings = thetaB(trees);
+            assertEquals(mappings.first.asSet(), mappings.second.asSet());
+        }
+
+        // The moves of the action pair make mapped pairs cross, the sparse variant only
+        // uses the longest chain of non-crossing ones and finds fewer mappings.
+        Pair<MappingStore, MappingStore> mappings = thetaB(TreeLoader.getActionPair());
+        assertTrue(mappings.second.size() < mappings.first.size());
+        for (Mapping m : mappings.second)
+            assertTrue(m.first.hasSameType(m.second));
+    }
+
+    /**
+     * Return the mappings of Theta B and of its sparse variant, run after the classic GumTree.
+     */
+    private static Pair<MappingStore, MappingStore> thetaB(Pair<TreeContext, TreeContext> trees) {
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore mappings = new CompositeMatchers.ClassicGumtree().match(src, dst);
+        return new Pair<>(new LcsOptMatcherThetaB().match(src, dst, new MappingStore(mappings)),
+                new SparseLcsOptMatcherThetaB().match(src, dst, new MappingStore(mappings)));
+    }
+
+    @Test
+    public void testSparseLcsThetaB() {
+        Tree src = new DefaultTree(TypeSet.type("r"));
+        src.addChild(new DefaultTree(TypeSet.type("a"), "x"));
+        src.addChild(new DefaultTree(TypeSet.type("b"), "m"));
+        src.addChild(new DefaultTree(TypeSet.type("a"), "y"));
+        src.addChild(new DefaultTree(TypeSet.type("c")));
+        Tree dst = new DefaultTree(TypeSet.type("r"));
+        dst.addChild(new DefaultTree(TypeSet.type("a"), "z"));
+        dst.addChild(new DefaultTree(TypeSet.type("a"), "y"));
+        dst.addChild(new DefaultTree(TypeSet.type("b"), "m"));
+        dst.addChild(new DefaultTree(TypeSet.type("c")));
+        dst.addChild(new DefaultTree(TypeSet.type("a"), "t"));
+
+        MappingStore mappings = new MappingStore(src, dst);
+        mappings.addMapping(src, dst);
+        mappings.addMapping(src.getChild(1), dst.getChild(2));
+        new SparseLcsOptMatcherThetaB().match(src, dst, mappings);
+        assertEquals(4, mappings.size());
+        // The nodes before and after the mapped b nodes are matched separately.
+        assertTrue(mappings.has(src.getChild(0), dst.getChild(0)));
+        assertTrue(mappings.has(src.getChild(3), dst.getChild(3)));
+        assertFalse(mappings.isSrcMapped(src.getChild(2)));
+    }
+
+    @Test
+    public void testLeafMoveThetaE() {
+        Tree src = new DefaultTree(TypeSet.type("r"));
+        src.addChild(new DefaultTree(TypeSet.type("a"), "x"));
+        src.addChild(new DefaultTree(TypeSet.type("a"), "y"));
+        src.addChild(new DefaultTree(TypeSet.type("b"), "z"));
+        Tree dst = new DefaultTree(TypeSet.type("r"));
+        dst.addChild(new DefaultTree(TypeSet.type("b"), "z"));
+        dst.addChild(new DefaultTree(TypeSet.type("a"), "y"));
+        dst.addChild(new DefaultTree(TypeSet.type("a"), "x"));
+
+        MappingStore mappings = new MappingStore(src, dst);
+        mappings.addMapping(src, dst);
+        mappings.addMapping(src.getChild(0), dst.getChild(1));
+        mappings.addMapping(src.getChild(1), dst.getChild(2));
+        mappings.addMapping(src.getChild(2), dst.getChild(0));
+        new LeafMoveMatcherThetaE().match(src, dst, mappings);
+        assertEquals(4, mappings.size());
+        assertTrue(mappings.has(src.getChild(0), dst.getChild(2)));
+        assertTrue(mappings.has(src.getChild(1), dst.getChild(1)));
+        assertTrue(mappings.has(src.getChild(2), dst.getChild(0)));
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Mapping;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.PartitionedCompositeMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
+import com.github.gumtreediff.tree.DefaultTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TypeSet;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPartitionedCompositeMatcher {
+    @Test
+    public void testPartitionedMatching() {
+        Tree src = classTree(new Random(1), false);
+        Tree dst = classTree(new Random(1), true);
+        MappingStore sequential = new CompositeMatchers.ClassicGumtree().match(src, dst);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MappingStore previous = null;
+            for (int i = 0; i < 5; i++) {
+                PartitionedCompositeMatcher matcher = new CompositeMatchers.PartitionedClassicGumtree();
+                matcher.setPool(pool);
+                matcher.setMinPartitionSize(8);
+                MappingStore mappings = matcher.match(src, dst);
+                for (Mapping m : mappings) {
+                    assertTrue(m.first.hasSameType(m.second));
+                    assertSame(m.first, mappings.getSrcForDst(m.second));
+                }
+                assertTrue(mappings.has(src, dst));
+                assertEquals(sequential.asSet(), mappings.asSet());
+                if (previous != null)
+                    assertEquals(previous.asSet(), mappings.asSet());
+                previous = mappings;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFixtures() {
+        var pairs = List.of(TreeLoader.getActionPair(), TreeLoader.getGumtreePair(), TreeLoader.getZsCustomPair(),
+                TreeLoader.getZsSlidePair(), TreeLoader.getCdCustomPair());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Pair<TreeContext, TreeContext> trees : pairs) {
+                Tree src = trees.first.getRoot();
+                Tree dst = trees.second.getRoot();
+                MappingStore sequential = new CompositeMatchers.ClassicGumtree().match(src, dst);
+                PartitionedCompositeMatcher matcher = new CompositeMatchers.PartitionedClassicGumtree();
+                matcher.setPool(pool);
+                matcher.setMinPartitionSize(1);
+                assertEquals(sequential.asSet(), matcher.match(src, dst).asSet());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSinglePartition() {
+        Tree src = classTree(new Random(2), false);
+        Tree dst = classTree(new Random(2), true);
+        MappingStore sequential = new CompositeMatchers.ClassicGumtree().match(src, dst);
+        PartitionedCompositeMatcher matcher = new CompositeMatchers.PartitionedClassicGumtree();
+        matcher.setMinPartitionSize(src.getMetrics().size);
+        assertEquals(sequential.asSet(), matcher.match(src, dst).asSet());
+    }
+
+    @Test
+    public void testStageFactories() {
+        Tree src = classTree(new Random(3), false);
+        Tree dst = classTree(new Random(3), true);
+        GreedyBottomUpMatcher bottomUp = new GreedyBottomUpMatcher();
+        bottomUp.setSimThreshold(0.2);
+        MappingStore sequential = new CompositeMatchers.CompositeMatcher(new GreedySubtreeMatcher(), bottomUp)
+                .match(src, dst);
+
+        AtomicInteger instances = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // The setter state of the instances built by the factory is retained.
+            PartitionedCompositeMatcher matcher = new PartitionedCompositeMatcher(new GreedySubtreeMatcher(), () -> {
+                instances.incrementAndGet();
+                GreedyBottomUpMatcher stage = new GreedyBottomUpMatcher();
+                stage.setSimThreshold(0.2);
+                return stage;
+            });
+            matcher.setPool(pool);
+            matcher.setMinPartitionSize(8);
+            assertEquals(sequential.asSet(), matcher.match(src, dst).asSet());
+            assertTrue(instances.get() > 2);
+        } finally {
+            pool.shutdown();
+        }
+
+        // The stages do not need a constructor without parameters.
+        Matcher stage = (s, d, mappings) -> mappings;
+        assertTrue(new PartitionedCompositeMatcher(new GreedySubtreeMatcher(), () -> stage).match(src, dst).size() > 0);
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedCompositeMatcher(null));
+    }
+
+    private static Tree classTree(Random random, boolean modified) {
+        Tree root = new DefaultTree(TypeSet.type("CompilationUnit"));
+        Tree type = new DefaultTree(TypeSet.type("TypeDeclaration"));
+        root.addChild(type);
+        for (int i = 0; i < 40; i++) {
+            Tree method = new DefaultTree(TypeSet.type("MethodDeclaration"));
+            method.addChild(new DefaultTree(TypeSet.type("SimpleName"), "m" + i));
+            Tree body = new DefaultTree(TypeSet.type("Block"));
+            method.addChild(body);
+            for (int j = 0; j < 6; j++) {
+                Tree statement = new DefaultTree(TypeSet.type("ExpressionStatement"));
+                Tree call = new DefaultTree(TypeSet.type("MethodInvocation"));
+                call.addChild(new DefaultTree(TypeSet.type("SimpleName"), "f" + random.nextInt(5)));
+                String argument = "x" + random.nextInt(20);
+                if (modified && j == 2)
+                    argument = "y" + i;
+                call.addChild(new DefaultTree(TypeSet.type("SimpleName"), argument));
+                statement.addChild(call);
+                body.addChild(statement);
+            }
+            type.addChild(method);
+        }
+        return root;
+    }
+}
@@ -21,12 +21,18 @@
 package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.optimal.rted.RtedAlgorithm;
 import com.github.gumtreediff.matchers.optimal.rted.RtedMatcher;
+import com.github.gumtreediff.matchers.optimal.rted.RtedWorkspace;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.utils.Pair;
 import com.github.gumtreediff.tree.TreeContext;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -46,4 +52,60 @@ public class TestRtedMatcher {
         assertTrue(mappings.has(src.getChild(0).getChild(2), dst.getChild(2)));
     }
 
+    @Test
+    public void testDistance() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getZsSlidePair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        // Two deletions and one insertion.
+        assertEquals(3D, RtedMatcher.distance(src, dst), 0D);
+        assertEquals(0D, RtedMatcher.distance(src, src), 0D);
+    }
+
+    @Test
+    public void testReusedWorkspace() {
+        Random random = new Random(7);
+        RtedWorkspace workspace = new RtedWorkspace();
+        for (int run = 0; run < 40; run++) {
+            // Alternate large and small trees, so that the workspace is reused with smaller sizes.
+            int size = run % 2 == 0 ? 60 : 10;
+            Tree src = RandomTrees.randomTree(random, size + random.nextInt(size), 3, 4);
+            Tree dst = RandomTrees.randomTree(random, size + random.nextInt(size), 3, 4);
+
+            RtedAlgorithm fresh = new RtedAlgorithm(1D, 1D, 1D);
+            RtedAlgorithm reused = new RtedAlgorithm(1D, 1D, 1D, workspace);
+            assertEquals(fresh.computeTreeDist(src, dst), reused.computeTreeDist(src, dst), 0D);
+            assertEquals(mapping(fresh), mapping(reused));
+        }
+    }
+
+    @Test
+    public void testWorkspaceIsTrimmed() {
+        Random random = new Random(11);
+        Tree src = RandomTrees.randomTree(random, 30, 3, 4);
+        Tree dst = RandomTrees.randomTree(random, 30, 3, 4);
+        new RtedMatcher().match(src, dst);
+        long small = RtedWorkspace.forCurrentThread().capacity();
+        assertTrue(small > 0);
+
+        Tree largeSrc = RandomTrees.randomTree(random, 600, 3, 4);
+        Tree largeDst = RandomTrees.randomTree(random, 600, 3, 4);
+        RtedWorkspace untrimmed = new RtedWorkspace();
+        new RtedAlgorithm(1D, 1D, 1D, untrimmed).computeTreeDist(largeSrc, largeDst);
+        assertTrue(untrimmed.capacity() > RtedWorkspace.MAX_RETAINED_CELLS);
+        new RtedMatcher().match(largeSrc, largeDst);
+        assertTrue(RtedWorkspace.forCurrentThread().capacity() <= RtedWorkspace.MAX_RETAINED_CELLS);
+        RtedMatcher.distance(largeSrc, largeDst);
+        assertTrue(RtedWorkspace.forCurrentThread().capacity() <= RtedWorkspace.MAX_RETAINED_CELLS);
+
+        RtedWorkspace.forCurrentThread().release();
+        assertEquals(0, RtedWorkspace.forCurrentThread().capacity());
+    }
+
+    private static List<String> mapping(RtedAlgorithm algorithm) {
+        List<String> mapping = new ArrayList<>();
+        for (int[] m : algorithm.computeEditMapping())
+            mapping.add(m[0] + "-" + m[1]);
+        return mapping;
+    }
 }
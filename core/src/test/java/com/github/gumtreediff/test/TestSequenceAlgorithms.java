@@ -28,8 +28,11 @@ import com.github.gumtreediff.utils.SequenceAlgorithms;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class TestSequenceAlgorithms {
     @Test
@@ -84,4 +87,49 @@ public class TestSequenceAlgorithms {
         String lcs = SequenceAlgorithms.longestCommonSequence(s1, s2);
         assertEquals("ef", lcs);
     }
+
+    @Test
+    public void testLcssOfMatching() {
+        assertArrayEquals(new int[][] { {1, 0}, {2, 2}, {3, 4} },
+                SequenceAlgorithms.longestCommonSubsequenceOfMatching(new int[] {1, 0, 2, -1, 3}).toArray());
+        assertArrayEquals(new int[][] { {2, 0} },
+                SequenceAlgorithms.longestCommonSubsequenceOfMatching(new int[] {2, 1, 0}).toArray());
+        assertEquals(0, SequenceAlgorithms.longestCommonSubsequenceOfMatching(new int[0]).size());
+
+        Random random = new Random(42);
+        for (int test = 0; test < 500; test++) {
+            int size = random.nextInt(60);
+            int[] matches = new int[size];
+            List<Integer> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++)
+                rows.add(i);
+            Collections.shuffle(rows, random);
+            for (int j = 0; j < size; j++)
+                matches[j] = random.nextInt(5) == 0 ? -1 : rows.get(j);
+            assertArrayEquals(dynamicLcs(matches, size).toArray(),
+                    SequenceAlgorithms.longestCommonSubsequenceOfMatching(matches).toArray());
+        }
+    }
+
+    private static List<int[]> dynamicLcs(int[] matches, int m) {
+        int n = matches.length;
+        int[][] opt = new int[m + 1][n + 1];
+        for (int i = m - 1; i >= 0; i--)
+            for (int j = n - 1; j >= 0; j--)
+                if (matches[j] == i) opt[i][j] = opt[i + 1][j + 1] + 1;
+                else opt[i][j] = Math.max(opt[i + 1][j], opt[i][j + 1]);
+
+        List<int[]> lcs = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < m && j < n) {
+            if (matches[j] == i) {
+                lcs.add(new int[] {i, j});
+                i++;
+                j++;
+            } else if (opt[i + 1][j] >= opt[i][j + 1]) i++;
+            else j++;
+        }
+        return lcs;
+    }
 }
@@ -53,6 +53,20 @@ public class TestSimilarityMetrics {
         assertEquals(0.75D, SimilarityMetrics.overlapSimilarity(ms.src, ms.dst, ms));
     }
 
+    @Test
+    public void testSimilarityOfSubtrees() {
+        MappingStore ms = getTestData();
+        Tree src = ms.src.getChild(0);
+        Tree dst = ms.dst.getChild(0);
+        assertEquals(1D, SimilarityMetrics.diceSimilarity(src, dst, ms));
+        // The descendants of src are mapped outside the second child of the destination.
+        assertEquals(0D, SimilarityMetrics.diceSimilarity(src, ms.dst.getChild(1), ms));
+        ms.removeMapping(src.getChild(0), dst.getChild(0));
+        ms.addMapping(src.getChild(0), ms.dst.getChild(2));
+        assertEquals(0.5D, SimilarityMetrics.diceSimilarity(src, dst, ms));
+        assertEquals(0.5D, SimilarityMetrics.jaccardSimilarity(ms.src, ms.dst, ms));
+    }
+
     private static MappingStore getTestData() {
         Tree t1 = TreeLoader.getDummySrc();
         Tree t2 = TreeLoader.getDummySrc();
@@ -21,8 +21,10 @@
 package com.github.gumtreediff.test;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import com.github.gumtreediff.tree.*;
 import org.junit.jupiter.api.Test;
@@ -53,6 +55,22 @@ public class TestTree {
         assertEquals(0, results.size());
     }
 
+    @Test
+    public void testDescendants() {
+        Tree root = TreeLoader.getDummySrc();
+        List<Tree> descendants = new ArrayList<>();
+        for (Tree t : root.descendants())
+            descendants.add(t);
+        assertEquals(root.getDescendants(), descendants);
+        assertEquals(4, root.numberOfDescendants());
+        assertEquals(0, root.getChild("0.0").numberOfDescendants());
+        assertFalse(root.getChild("0.0").descendants().iterator().hasNext());
+
+        for (Tree t : root.preOrder())
+            for (Tree u : root.preOrder())
+                assertEquals(u.getDescendants().contains(t), t.isDescendantOf(u));
+    }
+
     @Test
     public void testIsRoot() {
         Tree tree = new DefaultTree(TypeSet.type("a"));
@@ -309,4 +327,34 @@ public class TestTree {
             }
         }
     }
+
+    @Test
+    public void testReusedMetrics() {
+        Tree root = TreeLoader.getDummySrc();
+        Tree copy = root.deepCopy();
+        Map<Tree, TreeMetrics> previous = new IdentityHashMap<>();
+        Iterator<Tree> originals = root.getChild(0).preOrder().iterator();
+        for (Tree t : copy.getChild(0).preOrder())
+            previous.put(t, originals.next().getMetrics());
+        TreeVisitor.visitTree(copy, new TreeMetricComputer(previous::get));
+
+        Iterator<Tree> copies = copy.preOrder().iterator();
+        for (Tree t : root.preOrder()) {
+            TreeMetrics expected = t.getMetrics();
+            TreeMetrics actual = copies.next().getMetrics();
+            assertEquals(expected.size, actual.size);
+            assertEquals(expected.height, actual.height);
+            assertEquals(expected.hash, actual.hash);
+            assertEquals(expected.fingerprint, actual.fingerprint);
+            assertEquals(expected.depth, actual.depth);
+            assertEquals(expected.position, actual.position);
+        }
+
+        // The hashes of the nodes having previous metrics are not recomputed.
+        Tree leaf = copy.getChild(0).getChild(0);
+        previous.put(leaf, new TreeMetrics(1, 0, 42, 42, 0, 0));
+        TreeVisitor.visitTree(copy, new TreeMetricComputer(previous::get));
+        assertEquals(42, leaf.getMetrics().hash);
+        assertEquals(root.getChild(0).getChild(0).getMetrics().position, leaf.getMetrics().position);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TreeCache;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTreeCache {
+    private static final String V0 = "src/test/resources/action_v0.xml";
+    private static final String V1 = "src/test/resources/action_v1.xml";
+
+    @BeforeAll
+    public static void prepareTreeGenerator() {
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+    }
+
+    @AfterAll
+    public static void clear() {
+        TreeGenerators.getInstance().setCache(null);
+        TreeGenerators.getInstance().clear();
+    }
+
+    @Test
+    public void testMemoryCache() throws IOException {
+        TreeCache cache = new TreeCache();
+        TreeGenerators.getInstance().setCache(cache);
+        TreeContext first = TreeGenerators.getInstance().getTree(V0, "xml");
+        TreeContext second = TreeGenerators.getInstance().getTree(V0, "xml");
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertNotSame(first.getRoot(), second.getRoot());
+        assertTrue(first.getRoot().isIsomorphicTo(second.getRoot()));
+        assertEquals(first.getRoot().getPos(), second.getRoot().getPos());
+        assertEquals(first.getRoot().getLength(), second.getRoot().getLength());
+
+        second.getRoot().getChild(0).setLabel("modified");
+        TreeContext third = TreeGenerators.getInstance().getTree(V0, "xml");
+        assertEquals(2, cache.getHits());
+        assertTrue(first.getRoot().isIsomorphicTo(third.getRoot()));
+        assertEquals(1, cache.size());
+        assertEquals(first.getRoot().getMetrics().size, cache.getNodes());
+    }
+
+    @Test
+    public void testReaderCache() throws IOException {
+        TreeCache cache = new TreeCache();
+        TreeGenerators.getInstance().setCache(cache);
+        String content = Files.readString(Path.of(V0));
+        TreeContext first = TreeGenerators.getInstance().getTree(new StringReader(content), "xml");
+        TreeContext second = TreeGenerators.getInstance().getTree(new StringReader(content), "xml");
+        TreeContext third = TreeGenerators.getInstance().getTree(V0, "xml");
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertTrue(first.getRoot().isIsomorphicTo(second.getRoot()));
+        assertTrue(first.getRoot().isIsomorphicTo(third.getRoot()));
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        TreeCache cache = new TreeCache(1);
+        TreeGenerators.getInstance().setCache(cache);
+        TreeGenerators.getInstance().getTree(V0, "xml");
+        TreeGenerators.getInstance().getTree(V1, "xml");
+        assertEquals(1, cache.size());
+        TreeGenerators.getInstance().getTree(V1, "xml");
+        TreeGenerators.getInstance().getTree(V0, "xml");
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testDiskCache() throws IOException {
+        Path folder = Files.createTempDirectory("gumtree-cache");
+        try {
+            TreeCache cache = new TreeCache(TreeCache.DEFAULT_MAX_NODES, folder);
+            TreeGenerators.getInstance().setCache(cache);
+            TreeContext first = TreeGenerators.getInstance().getTree(V0, "xml");
+            assertEquals(1, cache.getMisses());
+
+            TreeCache other = new TreeCache(TreeCache.DEFAULT_MAX_NODES, folder);
+            TreeGenerators.getInstance().setCache(other);
+            TreeContext second = TreeGenerators.getInstance().getTree(V0, "xml");
+            assertEquals(0, other.getMisses());
+            assertEquals(1, other.getDiskHits());
+            assertTrue(first.getRoot().isIsomorphicTo(second.getRoot()));
+        } finally {
+            try (Stream<Path> files = Files.walk(folder)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
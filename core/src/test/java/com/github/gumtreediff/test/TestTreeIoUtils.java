@@ -30,8 +30,13 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.*;
 public class TestTreeIoUtils {
@@ -67,6 +72,48 @@ public class TestTreeIoUtils {
         assertTrue(tc.getRoot().isIsomorphicTo(tca.getRoot()));
     }
 
+    @Test
+    public void testBinarySerializeTree() throws Exception {
+        TreeContext tc = getTreeContext();
+        tc.getRoot().getChild(0).setMetadata("foo", "bar");
+        tc.export("foo");
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        TreeIoUtils.toBinary(tc).writeTo(bos);
+        byte[] content = bos.toByteArray();
+        assertTrue(TreeIoUtils.isBinary(content));
+        assertTrue(content.length < TreeIoUtils.toXml(tc).toString().length() / 4);
+
+        TreeContext tca = TreeIoUtils.fromBinary().bytes(content);
+        assertTrue(tc.getRoot().isIsomorphicTo(tca.getRoot()));
+        assertEquals(0, tca.getRoot().getPos());
+        assertEquals(1000, tca.getRoot().getLength());
+        assertEquals(21, tca.getRoot().getChild(0).getChild(1).getPos());
+        assertEquals(10, tca.getRoot().getChild(0).getChild(1).getLength());
+        assertEquals(51, tca.getRoot().getChild(1).getPos());
+        assertEquals(900, tca.getRoot().getChild(1).getLength());
+        assertNull(tca.getRoot().getChild(0).getMetadata("foo"));
+        assertSame(tca.getRoot().getChild(0).getChild(0).getType(), tca.getRoot().getChild(0).getChild(1).getType());
+
+        TreeIoUtils.BinaryTreeReader reader = TreeIoUtils.fromBinary();
+        reader.getUnserializers().add("foo", x -> x);
+        assertEquals("bar", reader.bytes(content).getRoot().getChild(0).getMetadata("foo"));
+
+        Path file = Files.createTempFile("gumtree", ".gtb");
+        try {
+            TreeIoUtils.toBinary(tc).writeTo(file.toFile());
+            assertTrue(tc.getRoot().isIsomorphicTo(TreeIoUtils.fromBinary().file(file).getRoot()));
+        } finally {
+            Files.delete(file);
+        }
+
+        assertThrows(UnsupportedOperationException.class, () -> TreeIoUtils.toBinary(tc).writeTo(new StringWriter()));
+        assertArrayEquals(content, Base64.getDecoder().decode(TreeIoUtils.toBinary(tc).toString()));
+        assertFalse(TreeIoUtils.isBinary(TreeIoUtils.toXml(tc).toString().getBytes()));
+        assertThrows(IOException.class, () -> TreeIoUtils.fromBinary().bytes("<root/>".getBytes()));
+        assertThrows(IOException.class, () -> TreeIoUtils.fromBinary().bytes(Arrays.copyOf(content, 10)));
+    }
+
     @Test
     public void testLineReader() throws IOException {
         LineReader lr = new LineReader(new StringReader("foo\nbar\nbaz\n"));
@@ -78,6 +78,44 @@ public class TestTreeUtils {
     public static final int H_EO = 96748324;
     public static final int H_EL = 102927107;
 
+    @Test
+    public void testFingerprint() {
+        Tree root = TreeLoader.getDummySrc();
+        Tree copy = TreeLoader.getDummySrc();
+        assertEquals(root.getMetrics().fingerprint, copy.getMetrics().fingerprint);
+        assertEquals(root.getMetrics().structureFingerprint, copy.getMetrics().structureFingerprint);
+        assertNotEquals(root.getChild("0.0").getMetrics().fingerprint,
+                root.getChild("0.1").getMetrics().fingerprint);
+
+        Tree relabeled = TreeLoader.getDummySrc();
+        relabeled.getChild("0.0").setLabel("foo");
+        assertNotEquals(root.getMetrics().fingerprint, relabeled.getMetrics().fingerprint);
+        assertEquals(root.getMetrics().structureFingerprint, relabeled.getMetrics().structureFingerprint);
+
+        // Swapping two children changes the fingerprint of the parent.
+        Tree swapped = TreeLoader.getDummySrc();
+        Tree child = swapped.getChild(0);
+        swapped.getChildren().remove(0);
+        swapped.addChild(child);
+        assertNotEquals(root.getMetrics().fingerprint, swapped.getMetrics().fingerprint);
+        assertNotEquals(root.getMetrics().structureFingerprint, swapped.getMetrics().structureFingerprint);
+    }
+
+    @Test
+    public void testMetricsWithoutFingerprints() {
+        Tree root = TreeLoader.getDummySrc();
+        Tree copy = TreeLoader.getDummySrc();
+        TreeVisitor.visitTree(copy, new TreeMetricComputer(t -> null, false));
+        Iterator<Tree> copies = copy.preOrder().iterator();
+        for (Tree t : root.preOrder()) {
+            TreeMetrics metrics = copies.next().getMetrics();
+            assertEquals(t.getMetrics().hash, metrics.hash);
+            assertEquals(t.getMetrics().structureHash, metrics.structureHash);
+            assertEquals(metrics.hash, metrics.fingerprint);
+            assertEquals(metrics.structureHash, metrics.structureFingerprint);
+        }
+    }
+
     @Test
     public void testHash() {
         Tree root = TreeLoader.getDummySrc();
@@ -22,14 +22,22 @@ package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.optimal.zs.LeanZsMatcher;
 import com.github.gumtreediff.matchers.optimal.zs.ZsMatcher;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.utils.Pair;
 import com.github.gumtreediff.tree.TreeContext;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class TestZsMatcher {
     @Test
@@ -61,4 +69,73 @@ public class TestZsMatcher {
         assertTrue(mappings.has(src.getChild("0.1"), dst.getChild("1.0")));
         assertTrue(mappings.has(src.getChild("0.2"), dst.getChild(2)));
     }
+
+    @Test
+    public void testLeanVariantWithExamples() {
+        var pairs = List.of(TreeLoader.getZsCustomPair(), TreeLoader.getZsSlidePair());
+        for (Pair<TreeContext, TreeContext> trees : pairs) {
+            Tree src = trees.first.getRoot();
+            Tree dst = trees.second.getRoot();
+            assertEquals(new ZsMatcher().match(src, dst).asSet(), new LeanZsMatcher().match(src, dst).asSet());
+        }
+    }
+
+    @Test
+    public void testLeanVariantWithRandomTrees() {
+        Random random = new Random(3);
+        LeanZsMatcher lean = new LeanZsMatcher();
+        for (int run = 0; run < 30; run++) {
+            Tree src = RandomTrees.randomTree(random, 5 + random.nextInt(60), 3, 5);
+            Tree dst = RandomTrees.randomTree(random, 5 + random.nextInt(60), 3, 5);
+            // The same thread reuses the matrices of the previous (possibly larger) runs.
+            assertEquals(new ZsMatcher().match(src, dst).asSet(), lean.match(src, dst).asSet());
+            assertEquals(new ZsMatcher().match(src.getChild(0), dst).asSet(),
+                    lean.match(src.getChild(0), dst).asSet());
+        }
+    }
+
+    @Test
+    public void testLeanVariantWithLargeTrees() {
+        Random random = new Random(5);
+        // Larger than the matrices kept for reuse.
+        Tree src = RandomTrees.randomTree(random, 520, 3, 5);
+        Tree dst = RandomTrees.randomTree(random, 520, 3, 5);
+        assertEquals(new ZsMatcher().match(src, dst).asSet(),
+                new LeanZsMatcher(LeanZsMatcher.DEFAULT_MAX_DISTANCE, 100).match(src, dst).asSet());
+
+        Tree hugeSrc = RandomTrees.randomTree(random, 50000, 3, 0);
+        Tree hugeDst = RandomTrees.randomTree(random, 50000, 3, 0);
+        assertThrows(IllegalArgumentException.class, () -> new LeanZsMatcher().match(hugeSrc, hugeDst));
+    }
+
+    @Test
+    public void testLeanVariantReusesMatrices() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        Random random = new Random(7);
+        Tree src = RandomTrees.randomTree(random, 999, 3, 0);
+        Tree dst = RandomTrees.randomTree(random, 999, 3, 0);
+        LeanZsMatcher lean = new LeanZsMatcher();
+        int expected = lean.match(src, dst).size();
+        long before = allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+        assertEquals(expected, lean.match(src, dst).size());
+        long allocated = allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        // A single distance matrix would take 8 MB.
+        assertTrue(allocated < 1000L * 1000L, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void testLeanVariantEarlyExit() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getZsCustomPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        int bound = LeanZsMatcher.lowerBound(src, dst);
+        int size = src.getMetrics().size + dst.getMetrics().size;
+        assertTrue(bound > 0);
+        assertTrue(new LeanZsMatcher((double) bound / size).match(src, dst).size() > 0);
+        assertTrue(new LeanZsMatcher((bound - 0.5) / size).match(src, dst).size() == 0);
+    }
 }
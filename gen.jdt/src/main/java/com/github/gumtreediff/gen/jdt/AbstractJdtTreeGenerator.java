@@ -35,6 +35,13 @@ import java.io.IOException;
 import java.io.Reader;
 import java.util.Map;
 
+/**
+ * Base class of the JDT tree generators. The generated ASTs do not reference the JDT DOM:
+ * each node only records the structural property locating it in its parent
+ * (see {@link com.github.gumtreediff.tree.Tree#getNodeProperty()}), which is a descriptor shared
+ * by all the DOMs giving the id of the property and the class of its children. Therefore,
+ * the DOM can be garbage collected as soon as the generation is over.
+ */
 public abstract class AbstractJdtTreeGenerator extends TreeGenerator {
     private static final String JAVA_VERSION = JavaCore.latestSupportedJavaVersion();
 
@@ -40,6 +40,26 @@ public class TestJdtGenerator {
         assertEquals(10, tree.getMetrics().size);
     }
 
+    @Test
+    public void testNodeProperties() throws IOException {
+        String input = "class Foo { void foo() { if (a) b(); else c(); } }";
+        Tree tree = new JdtTreeGenerator().generateFrom().string(input).getRoot();
+        assertNull(tree.getNodeProperty());
+        assertEquals("types", tree.getChild(0).getNodeProperty().getId());
+        Type ifStatement = AbstractJdtVisitor.nodeAsSymbol(ASTNode.IF_STATEMENT);
+        Tree ifTree = null;
+        for (Tree t : tree.preOrder())
+            if (t.getType() == ifStatement)
+                ifTree = t;
+        assertNotNull(ifTree);
+        assertEquals("statements", ifTree.getNodeProperty().getId());
+        assertEquals("expression", ifTree.getChild(0).getNodeProperty().getId());
+        assertEquals("thenStatement", ifTree.getChild(1).getNodeProperty().getId());
+        assertEquals("elseStatement", ifTree.getChild(2).getNodeProperty().getId());
+        for (Tree t : tree.preOrder())
+            assertNull(t.getASTNode());
+    }
+
     @Test
     public void testJava5Syntax() throws IOException {
         String input = "public class Foo<A> { public List<A> foo; public void foo() "
@@ -18,102 +18,161 @@
  */
 package com.github.gumtreediff.gen.treesitterng;
 
+import com.github.gumtreediff.gen.IncrementalTreeGenerator;
+import com.github.gumtreediff.gen.TextEdit;
 import com.github.gumtreediff.gen.TreeGenerator;
-import com.github.gumtreediff.tree.Tree;
-import com.github.gumtreediff.tree.TreeContext;
-import com.github.gumtreediff.tree.TypeSet;
+import com.github.gumtreediff.tree.*;
 import com.github.gumtreediff.utils.Pair;
 import org.treesitter.*;
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
+/**
+ * Base class of the tree-sitter-ng generators. The generators are thread-safe: each thread
+ * reuses its own parser for each language, and the rules of each language are compiled once
+ * and shared by all the threads. The parsers of a thread are kept until the thread ends, or until
+ * {@link #close()} is called on this thread (e.g. before returning it to a pool).
+ * The generators are incremental: the tree-sitter tree is kept in the metadata of the ASTs generated
+ * by {@link #generateReparsable(String)} and {@link #reparse(TreeContext, List, String)}, and reused
+ * when reparsing the content after some edits. The other ASTs do not keep it, to save memory.
+ *
+ * @see LanguageRules
+ */
+public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator
+        implements IncrementalTreeGenerator, AutoCloseable {
 
     private static final String RULES_FILE = "rules.yml";
 
-    private static final String YAML_IGNORED = "ignored";
-    private static final String YAML_LABEL_IGNORED = "label_ignored";
-    private static final String YAML_FLATTENED = "flattened";
-    private static final String YAML_ALIASED = "aliased";
+    private static final String PARSE_STATE = "treesitterng_parse";
 
     private static final Map<String, Map<String, Object>> RULES;
 
+    private static final Map<String, LanguageRules> COMPILED_RULES = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Map<String, TSParser>> PARSERS = ThreadLocal.withInitial(HashMap::new);
+
     static {
         Yaml yaml = new Yaml();
         RULES = yaml.load(Thread.currentThread().getContextClassLoader().getResourceAsStream(RULES_FILE));
     }
 
+    /**
+     * The result of a parsing, kept to reparse incrementally the content after some edits.
+     * The tree-sitter tree is never edited, copies are edited instead.
+     */
+    private static final class ParseState {
+        final String language;
+
+        final SourceText text;
+
+        final TSTree tree;
+
+        ParseState(String language, SourceText text, TSTree tree) {
+            this.language = language;
+            this.text = text;
+            this.tree = tree;
+        }
+    }
+
     @Override
-    protected TreeContext generate(Reader r) {
-        TSParser parser = new TSParser();
-        TSLanguage language = getTreeSitterLanguage();
-        parser.setLanguage(language);
-        BufferedReader bufferedReader = new BufferedReader(r);
-        List<String> contentLines = bufferedReader.lines().toList();
-        String content = String.join(System.lineSeparator(), contentLines);
-        TSTree tree = parser.parseString(null, content);
-        Map<String, Object> currentRule = RULES.getOrDefault(getLanguageName(), new HashMap<>());
-        return generateFromTreeSitterTree(contentLines, currentRule, tree);
-    }
-
-    private static String getLabel(List<String> contentLines, TSNode node) {
-        int startRow = node.getStartPoint().getRow();
-        int startColumn = node.getStartPoint().getColumn();
-        int endRow = node.getEndPoint().getRow();
-        int endColumn = node.getEndPoint().getColumn();
-        List<String> substringLines;
-        // tree-sitter handles string by byte array, so we need this.
-        String startRowStr = contentLines.get(startRow);
-        byte[] startRowBytes = startRowStr.getBytes();
-        if (startRow == endRow) {
-            // endColumn == startRowBytes.length + 1 when the label in tree-sitter contains line separator
-            if (endColumn == startRowBytes.length + 1) {
-                substringLines = Collections.singletonList(startRowStr);
-            }
-            else {
-                substringLines = Collections.singletonList(new String(
-                        startRowBytes, startColumn, endColumn - startColumn));
-            }
+    protected TreeContext generate(Reader r) throws IOException {
+        return generate(SourceText.read(r), false);
+    }
+
+    private TreeContext generate(SourceText text, boolean reparsable) {
+        TSTree tree = parse(null, text);
+        return generateFromTreeSitterTree(text, getRules(), tree, null, reparsable);
+    }
+
+    @Override
+    public TreeContext generateReparsable(String content) throws IOException {
+        return generate(SourceText.read(new StringReader(content)), true);
+    }
+
+    @Override
+    public TreeContext reparse(TreeContext previous, TextEdit edit, String content) throws IOException {
+        return reparse(previous, Collections.singletonList(edit), content);
+    }
+
+    /**
+     * Return the AST of the given content, which is the result of applying the given edits, in order,
+     * to the content from which the previous AST has been generated. Each edit is expressed in the
+     * coordinates of the text produced by the edits preceding it. tree-sitter reuses the unchanged
+     * nodes of the previous parsing, and the subtrees of the previous AST located outside of the ranges
+     * changed by the edits are copied, along with their metrics, instead of being rebuilt.
+     * The content is fully parsed when the previous AST has not been generated by
+     * {@link #generateReparsable(String)} or by a reparsing with this generator, or when the edits
+     * do not produce the given content. The returned AST can be reparsed in turn.
+     */
+    public TreeContext reparse(TreeContext previous, List<TextEdit> edits, String content) throws IOException {
+        SourceText text = SourceText.read(new StringReader(content));
+        Object metadata = previous.getMetadata(PARSE_STATE);
+        if (!(metadata instanceof ParseState) || previous.getRoot() == null
+                || !((ParseState) metadata).language.equals(getLanguageName()))
+            return generate(text, true);
+
+        ParseState state = (ParseState) metadata;
+        TSTree edited = state.tree.copy();
+        EditedText before = new EditedText(state.text);
+        StringBuilder expected = new StringBuilder(state.text.getContent());
+        for (TextEdit edit : edits) {
+            if (edit.getEndOffset() > expected.length())
+                return generate(text, true);
+            before = new EditedText(before, edit);
+            edited.edit(before.toInputEdit());
+            expected.replace(edit.offset, edit.getEndOffset(), edit.text);
         }
-        else {
-            substringLines = new ArrayList<>();
-            String endRowStr = contentLines.get(endRow);
-            byte[] endRowBytes = endRowStr.getBytes();
-            String startLineSubstring;
-            if (startColumn > startRowBytes.length) {
-                // usually, line separator is not the start char of a tree node label
-                // if this situation happened, just put an empty string at start
-                startLineSubstring = "";
-            } else {
-                startLineSubstring = new String(startRowBytes, 0, startColumn);
-            }
-            List<String> middleLines = contentLines.subList(startRow + 1, endRow);
-            String endLineSubstring;
-            if (endColumn > endRowStr.length()) {
-                endLineSubstring = endRowStr;
-            }
-            else {
-                endLineSubstring = new String(endRowBytes, 0, endColumn);
-            }
-            substringLines.add(startLineSubstring);
-            substringLines.addAll(middleLines);
-            substringLines.add(endLineSubstring);
+        // The line separators of the content are normalized, which can shift the offsets of the edits.
+        if (!text.getContent().contentEquals(expected))
+            return generate(text, true);
+
+        TSTree tree = parse(edited, text);
+        LanguageRules rules = getRules();
+        Reuse reuse = new Reuse(TSTree.getChangedRanges(edited, tree));
+        reuse.collect(rules, edited.getRootNode(), previous.getRoot());
+        return generateFromTreeSitterTree(text, rules, tree, reuse, true);
+    }
+
+    private TSTree parse(TSTree previous, SourceText text) {
+        TSParser parser = PARSERS.get().computeIfAbsent(getLanguageName(), name -> {
+            TSParser p = new TSParser();
+            p.setLanguage(getTreeSitterLanguage());
+            return p;
+        });
+        try {
+            return parser.parseString(previous, text.getContent());
+        } catch (RuntimeException e) {
+            // An interrupted parse would otherwise be resumed by the next one.
+            parser.reset();
+            throw e;
         }
-        return String.join(System.lineSeparator(), substringLines);
     }
 
-    private static int calculateOffset(List<String> contentLines, TSPoint point) {
-        int startRow = point.getRow();
-        int startColumn = point.getColumn();
-        int offset = 0;
-        for (int i = 0; i < startRow; i++) {
-            offset += contentLines.get(i).length() + System.lineSeparator().length();
+    /**
+     * Release the parser of the language of this generator kept by the current thread. The native
+     * memory of the parser is freed when it is collected. A new parser is created if the current
+     * thread parses this language again.
+     */
+    @Override
+    public void close() {
+        Map<String, TSParser> parsers = PARSERS.get();
+        TSParser parser = parsers.remove(getLanguageName());
+        if (parser != null) {
+            parser.reset();
+        }
+        if (parsers.isEmpty()) {
+            PARSERS.remove();
         }
-        offset += startColumn;
-        return offset;
+    }
+
+    private LanguageRules getRules() {
+        return COMPILED_RULES.computeIfAbsent(getLanguageName(),
+                name -> LanguageRules.compile(RULES.getOrDefault(name, new HashMap<>()), getTreeSitterLanguage()));
     }
 
     /**
@@ -152,57 +211,54 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
         return null;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Convert the given node, whose content is located in the given lines, using the given rules.
+     * The generators use a content encoded once and compiled rules instead, see
+     * {@link #tsNode2GumTree(SourceText, LanguageRules, TreeContext, TSNode)}.
+     */
     protected static Pair<Tree, Boolean> tsNode2GumTree(
             List<String> contentLines, Map<String, Object> currentRule, TreeContext context, TSNode node) {
-        String type = node.getType();
-        if (currentRule.containsKey(YAML_IGNORED)) {
-            List<String> ignores = (List<String>) currentRule.get(YAML_IGNORED);
-            if (matchNodeOrAncestorTypes(ignores, node) != null) {
-                return null;
-            }
-        }
-        boolean ignoreLabel = false;
-        if (currentRule.containsKey(YAML_LABEL_IGNORED)) {
-            List<String> ignores = (List<String>) currentRule.get(YAML_LABEL_IGNORED);
-            if (matchNodeOrAncestorTypes(ignores, node) != null) {
-                ignoreLabel = true;
-            }
-        }
-        if (currentRule.containsKey(YAML_ALIASED)) {
-            Map<String, String> alias = (Map<String, String>) currentRule.get(YAML_ALIASED);
-            String matchedTypes = matchNodeOrAncestorTypes(alias.keySet(), node);
-            if (matchedTypes != null) {
-                type = alias.get(matchedTypes);
-            }
-        }
-        boolean flatten = false;
-        if (currentRule.containsKey(YAML_FLATTENED)) {
-            List<String> flattenList = (List<String>) currentRule.get(YAML_FLATTENED);
-            if (matchNodeOrAncestorTypes(flattenList, node) != null) {
-                flatten = true;
-            }
+        return tsNode2GumTree(new SourceText(String.join(System.lineSeparator(), contentLines)),
+                new LanguageRules(currentRule, new String[0]), context, node);
+    }
+
+    protected static Pair<Tree, Boolean> tsNode2GumTree(
+            SourceText text, LanguageRules rules, TreeContext context, TSNode node) {
+        int id = rules.idOf(node);
+        if (rules.isIgnored(node, id)) {
+            return null;
         }
+        boolean ignoreLabel = rules.isLabelIgnored(node, id);
+        Type type = typeOf(rules, node, id);
+        boolean flatten = rules.isFlattened(node, id);
         Tree tree;
         // attach label for non ignore-label leafs or flattened nodes
         if ((node.getChildCount() == 0 && !ignoreLabel) || flatten) {
-            String label = getLabel(contentLines, node);
-            tree = context.createTree(TypeSet.type(type), label);
+            // tree-sitter locates the nodes using byte offsets in the UTF-8 encoded content.
+            String label = text.text(node.getStartByte(), node.getEndByte());
+            tree = context.createTree(type, label);
         }
         else {
-            tree = context.createTree(TypeSet.type(type));
+            tree = context.createTree(type);
         }
-        tree.setPos(calculateOffset(contentLines, node.getStartPoint()));
-        int endOffset = calculateOffset(contentLines, node.getEndPoint());
-        tree.setLength(endOffset - tree.getPos());
+        tree.setPos(text.charOffset(node.getStartByte()));
+        tree.setLength(text.charOffset(node.getEndByte()) - tree.getPos());
         return new Pair<>(tree, flatten);
     }
 
-    private static TreeContext generateFromTreeSitterTree(
-            List<String> contentLines, Map<String, Object> currentRule, TSTree tree) {
+    private static Type typeOf(LanguageRules rules, TSNode node, int id) {
+        Type alias = rules.aliasOf(node, id);
+        if (alias != null) {
+            return alias;
+        }
+        return id >= 0 ? rules.typeOf(id) : TypeSet.type(node.getType());
+    }
+
+    private TreeContext generateFromTreeSitterTree(
+            SourceText text, LanguageRules rules, TSTree tree, Reuse reuse, boolean reparsable) {
         TSNode rootNode = tree.getRootNode();
         TreeContext context = new TreeContext();
-        Pair<Tree, Boolean> rootPair = tsNode2GumTree(contentLines, currentRule, context, rootNode);
+        Pair<Tree, Boolean> rootPair = tsNode2GumTree(text, rules, context, rootNode);
         if (rootPair == null) {
             return context;
         }
@@ -221,7 +277,12 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
             int childCount = tsNodeNow.getChildCount();
             for (int i = 0; i < childCount; i++) {
                 TSNode child = tsNodeNow.getChild(i);
-                Pair<Tree, Boolean> childTree = tsNode2GumTree(contentLines, currentRule, context, child);
+                Tree copy = reuse == null ? null : reuse.copy(rules, text, context, child);
+                if (copy != null) {
+                    treeNow.first.addChild(copy);
+                    continue;
+                }
+                Pair<Tree, Boolean> childTree = tsNode2GumTree(text, rules, context, child);
                 if (childTree != null) {
                     treeNow.first.addChild(childTree.first);
                     tsNodeStack.push(child);
@@ -229,9 +290,220 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
                 }
             }
         }
+        if (reuse != null) {
+            TreeVisitor.visitTree(context.getRoot(), new TreeMetricComputer(reuse.metrics::get));
+        }
+        if (reparsable) {
+            context.setMetadata(PARSE_STATE, new ParseState(getLanguageName(), text, tree));
+        }
         return context;
     }
 
+    /**
+     * A text obtained by applying edits to a parsed text, locating the edits for tree-sitter.
+     * Its byte offsets and points are deduced from the ones of the parsed text and from the edits,
+     * so that the intermediate texts are neither built nor encoded.
+     */
+    private static final class EditedText {
+        private final SourceText source;
+
+        private final EditedText previous;
+
+        private final TextEdit edit;
+
+        private final int startByte;
+
+        private final int oldEndByte;
+
+        private final int newEndByte;
+
+        private final TSPoint startPoint;
+
+        private final TSPoint oldEndPoint;
+
+        private final TSPoint newEndPoint;
+
+        EditedText(SourceText source) {
+            this.source = source;
+            this.previous = null;
+            this.edit = null;
+            this.startByte = 0;
+            this.oldEndByte = 0;
+            this.newEndByte = 0;
+            this.startPoint = null;
+            this.oldEndPoint = null;
+            this.newEndPoint = null;
+        }
+
+        /**
+         * Locate the given edit of the given text, the edit must be located inside the text.
+         */
+        EditedText(EditedText previous, TextEdit edit) {
+            this.source = null;
+            this.previous = previous;
+            this.edit = edit;
+            this.startByte = previous.byteOffset(edit.offset);
+            this.oldEndByte = previous.byteOffset(edit.getEndOffset());
+            this.newEndByte = startByte + SourceText.utf8Length(edit.text, edit.text.length());
+            this.startPoint = previous.pointOf(startByte);
+            this.oldEndPoint = previous.pointOf(oldEndByte);
+            this.newEndPoint = SourceText.advance(startPoint, edit.text, Integer.MAX_VALUE);
+        }
+
+        TSInputEdit toInputEdit() {
+            return new TSInputEdit(startByte, oldEndByte, newEndByte, startPoint, oldEndPoint, newEndPoint);
+        }
+
+        int byteOffset(int charOffset) {
+            if (source != null) {
+                return source.byteOffset(charOffset);
+            }
+            if (charOffset <= edit.offset) {
+                return previous.byteOffset(charOffset);
+            }
+            if (charOffset >= edit.offset + edit.text.length()) {
+                return previous.byteOffset(charOffset - edit.getDelta()) + newEndByte - oldEndByte;
+            }
+            return startByte + SourceText.utf8Length(edit.text, charOffset - edit.offset);
+        }
+
+        TSPoint pointOf(int byteOffset) {
+            if (source != null) {
+                return source.pointOf(byteOffset);
+            }
+            if (byteOffset <= startByte) {
+                return previous.pointOf(byteOffset);
+            }
+            if (byteOffset < newEndByte) {
+                return SourceText.advance(startPoint, edit.text, byteOffset - startByte);
+            }
+            TSPoint point = previous.pointOf(byteOffset - newEndByte + oldEndByte);
+            if (point.getRow() == oldEndPoint.getRow()) {
+                return new TSPoint(newEndPoint.getRow(),
+                        point.getColumn() - oldEndPoint.getColumn() + newEndPoint.getColumn());
+            }
+            return new TSPoint(point.getRow() - oldEndPoint.getRow() + newEndPoint.getRow(), point.getColumn());
+        }
+    }
+
+    /**
+     * The subtrees of a previous AST that can be reused after an incremental parsing. The tree-sitter
+     * nodes of the edited previous tree and of the new tree are located using the same byte offsets.
+     * A node that is not changed by the edits and is outside of the changed ranges has an identical
+     * counterpart in the new tree, having the same range and type, whose AST is therefore the same.
+     */
+    private static final class Reuse {
+        private final TSRange[] changes;
+
+        private final Map<Long, Tree> subtrees = new HashMap<>();
+
+        private final Map<Tree, TreeMetrics> metrics = new IdentityHashMap<>();
+
+        Reuse(TSRange[] changes) {
+            this.changes = changes;
+        }
+
+        private static long key(TSNode node) {
+            return ((long) node.getStartByte() << 32) | node.getEndByte();
+        }
+
+        private boolean isUnchanged(TSNode node) {
+            int start = node.getStartByte();
+            int end = node.getEndByte();
+            for (TSRange change : changes) {
+                if (start <= change.getEndByte() && change.getStartByte() <= end) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Walk the edited previous tree-sitter tree along with the previous AST, to index the subtrees
+         * of the unchanged nodes by range. Nothing is reused if the AST does not match the tree.
+         */
+        void collect(LanguageRules rules, TSNode root, Tree previousRoot) {
+            if (previousRoot.getType() != typeOf(rules, root, rules.idOf(root))) {
+                return;
+            }
+            Deque<TSNode> nodes = new ArrayDeque<>();
+            Deque<Tree> trees = new ArrayDeque<>();
+            nodes.push(root);
+            trees.push(previousRoot);
+            while (!nodes.isEmpty()) {
+                TSNode node = nodes.pop();
+                Tree tree = trees.pop();
+                if (rules.isFlattened(node, rules.idOf(node))) {
+                    continue;
+                }
+                int next = 0;
+                int childCount = node.getChildCount();
+                for (int i = 0; i < childCount; i++) {
+                    TSNode child = node.getChild(i);
+                    int id = rules.idOf(child);
+                    if (rules.isIgnored(child, id)) {
+                        continue;
+                    }
+                    if (next >= tree.getChildren().size()
+                            || tree.getChild(next).getType() != typeOf(rules, child, id)) {
+                        subtrees.clear();
+                        return;
+                    }
+                    Tree subtree = tree.getChild(next++);
+                    if (child.getStartByte() == child.getEndByte()) {
+                        continue; // Empty nodes have no reliable key, and are cheap to rebuild.
+                    }
+                    if (!child.hasChanges() && isUnchanged(child)) {
+                        subtrees.put(key(child), subtree);
+                    }
+                    else {
+                        nodes.push(child);
+                        trees.push(subtree);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Return a copy of the previous subtree of the given node of the new tree, or null
+         * if the node has to be rebuilt.
+         */
+        Tree copy(LanguageRules rules, SourceText text, TreeContext context, TSNode node) {
+            if (subtrees.isEmpty()) {
+                return null;
+            }
+            Tree previous = subtrees.get(key(node));
+            if (previous == null || !isUnchanged(node) || previous.getType() != typeOf(rules, node, rules.idOf(node))) {
+                return null;
+            }
+            int delta = text.charOffset(node.getStartByte()) - previous.getPos();
+            Tree root = copyNode(previous, delta, context);
+            Deque<Tree> originals = new ArrayDeque<>();
+            Deque<Tree> copies = new ArrayDeque<>();
+            originals.push(previous);
+            copies.push(root);
+            while (!originals.isEmpty()) {
+                Tree original = originals.pop();
+                Tree copy = copies.pop();
+                for (Tree child : original.getChildren()) {
+                    Tree childCopy = copyNode(child, delta, context);
+                    copy.addChild(childCopy);
+                    originals.push(child);
+                    copies.push(childCopy);
+                }
+            }
+            return root;
+        }
+
+        private Tree copyNode(Tree original, int delta, TreeContext context) {
+            Tree copy = context.createTree(original.getType(), original.getLabel());
+            copy.setPos(original.getPos() + delta);
+            copy.setLength(original.getLength());
+            metrics.put(copy, original.getMetrics());
+            return copy;
+        }
+    }
+
     protected abstract TSLanguage getTreeSitterLanguage();
 
     protected abstract String getLanguageName();
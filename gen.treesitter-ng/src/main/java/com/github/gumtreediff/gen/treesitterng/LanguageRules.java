@@ -0,0 +1,214 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+import com.github.gumtreediff.tree.Type;
+import com.github.gumtreediff.tree.TypeSet;
+import org.treesitter.TSLanguage;
+import org.treesitter.TSNode;
+
+import java.util.*;
+
+/**
+ * The rules of a language (see rules.yml) compiled for the symbols of its tree-sitter grammar.
+ * Each node type is identified by an id, computed once from the symbol table of the grammar.
+ * Each rule set is compiled into a trie whose paths are the type ids of a node and of its
+ * ancestors, the type of the node coming first. The instances are immutable, and therefore
+ * shared by the generators running in different threads.
+ *
+ * @see AbstractTreeSitterNgGenerator#matchNodeOrAncestorTypes(Collection, TSNode)
+ */
+class LanguageRules {
+    private static final String YAML_IGNORED = "ignored";
+    private static final String YAML_LABEL_IGNORED = "label_ignored";
+    private static final String YAML_FLATTENED = "flattened";
+    private static final String YAML_ALIASED = "aliased";
+
+    private static final int NO_ID = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final List<Type> types = new ArrayList<>();
+
+    private final int[] symbolIds;
+
+    private final Trie<Boolean> ignored;
+
+    private final Trie<Boolean> labelIgnored;
+
+    private final Trie<Boolean> flattened;
+
+    private final Trie<Type> aliased;
+
+    /**
+     * Compile the given rules for the symbols of the given grammar.
+     */
+    static LanguageRules compile(Map<String, Object> rules, TSLanguage language) {
+        String[] symbols = new String[language.symbolCount()];
+        for (int i = 0; i < symbols.length; i++)
+            symbols[i] = language.symbolName(i);
+        return new LanguageRules(rules, symbols);
+    }
+
+    @SuppressWarnings("unchecked")
+    LanguageRules(Map<String, Object> rules, String[] symbols) {
+        symbolIds = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++)
+            symbolIds[i] = symbols[i] == null ? NO_ID : idOf(symbols[i], true);
+
+        ignored = new Trie<>();
+        for (String rule : (List<String>) rules.getOrDefault(YAML_IGNORED, Collections.emptyList()))
+            ignored.add(path(rule), Boolean.TRUE);
+        labelIgnored = new Trie<>();
+        for (String rule : (List<String>) rules.getOrDefault(YAML_LABEL_IGNORED, Collections.emptyList()))
+            labelIgnored.add(path(rule), Boolean.TRUE);
+        flattened = new Trie<>();
+        for (String rule : (List<String>) rules.getOrDefault(YAML_FLATTENED, Collections.emptyList()))
+            flattened.add(path(rule), Boolean.TRUE);
+        aliased = new Trie<>();
+        Map<String, String> aliases = (Map<String, String>) rules.getOrDefault(YAML_ALIASED, Collections.emptyMap());
+        for (Map.Entry<String, String> alias : aliases.entrySet())
+            aliased.add(path(alias.getKey()), TypeSet.type(alias.getValue()));
+    }
+
+    private int idOf(String name, boolean create) {
+        Integer id = ids.get(name);
+        if (id != null)
+            return id;
+        if (!create)
+            return NO_ID;
+        ids.put(name, types.size());
+        types.add(TypeSet.type(name));
+        return types.size() - 1;
+    }
+
+    /**
+     * Return the type ids of the given rule, from the last type of the rule to the first one.
+     * The types absent from the grammar get new ids, so that they never match any node.
+     */
+    private int[] path(String rule) {
+        String[] names = rule.split(" ");
+        int[] path = new int[names.length];
+        for (int i = 0; i < names.length; i++)
+            path[names.length - 1 - i] = idOf(names[i], true);
+        return path;
+    }
+
+    /**
+     * Return the type id of the given node.
+     */
+    int idOf(TSNode node) {
+        int symbol = node.getSymbol();
+        if (symbol >= 0 && symbol < symbolIds.length && symbolIds[symbol] != NO_ID)
+            return symbolIds[symbol];
+        return idOf(node.getType(), false);
+    }
+
+    /**
+     * Return the type of the node having the given type id.
+     */
+    Type typeOf(int id) {
+        return types.get(id);
+    }
+
+    boolean isIgnored(TSNode node, int id) {
+        return ignored.match(this, node, id) != null;
+    }
+
+    boolean isLabelIgnored(TSNode node, int id) {
+        return labelIgnored.match(this, node, id) != null;
+    }
+
+    boolean isFlattened(TSNode node, int id) {
+        return flattened.match(this, node, id) != null;
+    }
+
+    /**
+     * Return the alias of the given node, or null if it has no alias.
+     */
+    Type aliasOf(TSNode node, int id) {
+        return aliased.match(this, node, id);
+    }
+
+    private static final class Trie<V> {
+        private static final int[] NO_KEYS = new int[0];
+
+        private int[] keys = NO_KEYS;
+
+        private Trie<V>[] children;
+
+        private V value;
+
+        private boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(int[] path, V value) {
+            Trie<V> trie = this;
+            for (int id : path) {
+                int i = Arrays.binarySearch(trie.keys, id);
+                if (i < 0) {
+                    i = -i - 1;
+                    int[] keys = new int[trie.keys.length + 1];
+                    Trie<V>[] children = new Trie[keys.length];
+                    System.arraycopy(trie.keys, 0, keys, 0, i);
+                    System.arraycopy(trie.keys, i, keys, i + 1, trie.keys.length - i);
+                    if (trie.children != null) {
+                        System.arraycopy(trie.children, 0, children, 0, i);
+                        System.arraycopy(trie.children, i, children, i + 1, trie.keys.length - i);
+                    }
+                    keys[i] = id;
+                    children[i] = new Trie<>();
+                    trie.keys = keys;
+                    trie.children = children;
+                }
+                trie = trie.children[i];
+            }
+            trie.value = value;
+        }
+
+        private Trie<V> child(int id) {
+            int i = Arrays.binarySearch(keys, id);
+            return i < 0 ? null : children[i];
+        }
+
+        /**
+         * Return the value of the shortest rule matching the given node and its ancestors.
+         */
+        private V match(LanguageRules rules, TSNode node, int id) {
+            if (isEmpty())
+                return null;
+            Trie<V> trie = child(id);
+            while (trie != null) {
+                if (trie.value != null)
+                    return trie.value;
+                if (trie.isEmpty())
+                    return null;
+                node = node.getParent();
+                if (node.isNull())
+                    return null;
+                trie = trie.child(rules.idOf(node));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+import org.treesitter.TSPoint;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The content parsed by the tree-sitter-ng generators. Since tree-sitter locates the nodes
+ * using offsets in the UTF-8 encoding of the content, the content is encoded once, and an
+ * index maps these byte offsets to the char offsets used by GumTree. The index is only built
+ * when the content contains non-ASCII characters, the offsets being the same otherwise.
+ * The line separators are replaced by the system line separator, and the last one is removed.
+ */
+final class SourceText {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String content;
+
+    private final byte[] bytes;
+
+    private final int[] charOffsets;
+
+    // The byte offsets of the starts of the lines, only indexed when needed by an incremental parsing.
+    private volatile int[] lineStarts;
+
+    SourceText(String content) {
+        this.content = content;
+        this.bytes = content.getBytes(StandardCharsets.UTF_8);
+        this.charOffsets = bytes.length == content.length() ? null : charOffsets(content, bytes.length);
+    }
+
+    /**
+     * Read the content of the given reader, normalizing its line separators.
+     */
+    static SourceText read(Reader r) throws IOException {
+        String separator = System.lineSeparator();
+        StringBuilder b = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        boolean afterCarriageReturn = false;
+        boolean pendingSeparator = false;
+        int read;
+        while ((read = r.read(buffer)) != -1) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c != '\n' && c != '\r') {
+                    if (pendingSeparator) {
+                        b.append(separator);
+                        pendingSeparator = false;
+                    }
+                    afterCarriageReturn = false;
+                    continue;
+                }
+                b.append(buffer, start, i - start);
+                start = i + 1;
+                if (c == '\n' && afterCarriageReturn) {
+                    afterCarriageReturn = false;
+                    continue;
+                }
+                if (pendingSeparator)
+                    b.append(separator);
+                pendingSeparator = true;
+                afterCarriageReturn = c == '\r';
+            }
+            b.append(buffer, start, read - start);
+        }
+        return new SourceText(b.toString());
+    }
+
+    private static int[] charOffsets(String content, int length) {
+        int[] offsets = new int[length + 1];
+        int offset = 0;
+        for (int i = 0; i < content.length(); i++) {
+            int size = utf8Size(content, i);
+            for (int j = 0; j < size; j++)
+                offsets[offset++] = i;
+            if (size == 4)
+                i++;
+        }
+        offsets[length] = content.length();
+        return offsets;
+    }
+
+    /**
+     * Return the size of the UTF-8 encoding of the char at the given index, or of the surrogate pair
+     * starting at this index (in which case the size is 4).
+     */
+    static int utf8Size(CharSequence s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80)
+            return 1;
+        else if (c < 0x800)
+            return 2;
+        else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1)))
+            return 4;
+        else if (Character.isSurrogate(c))
+            return 1; // Unpaired surrogates are encoded as a replacement byte.
+        else
+            return 3;
+    }
+
+    /**
+     * Return the size of the UTF-8 encoding of the given number of chars of the given string.
+     */
+    static int utf8Length(CharSequence s, int chars) {
+        int length = 0;
+        for (int i = 0; i < chars; i++) {
+            int size = utf8Size(s, i);
+            length += size;
+            if (size == 4)
+                i++;
+        }
+        return length;
+    }
+
+    /**
+     * Return the point reached after the given number of bytes of the UTF-8 encoding
+     * of the given string, starting from the given point.
+     */
+    static TSPoint advance(TSPoint start, CharSequence s, int bytes) {
+        int row = start.getRow();
+        int column = start.getColumn();
+        int consumed = 0;
+        for (int i = 0; i < s.length() && consumed < bytes; i++) {
+            int size = utf8Size(s, i);
+            consumed += size;
+            if (s.charAt(i) == '\n') {
+                row++;
+                column = 0;
+            }
+            else
+                column += size;
+            if (size == 4)
+                i++;
+        }
+        return new TSPoint(row, column);
+    }
+
+    String getContent() {
+        return content;
+    }
+
+    /**
+     * Return the char offset corresponding to the given UTF-8 byte offset.
+     */
+    int charOffset(int byteOffset) {
+        return charOffsets == null ? byteOffset : charOffsets[byteOffset];
+    }
+
+    /**
+     * Return the UTF-8 byte offset corresponding to the given char offset.
+     */
+    int byteOffset(int charOffset) {
+        if (charOffsets == null)
+            return charOffset;
+        int low = 0;
+        int high = bytes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (charOffsets[middle] < charOffset)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Return the point (row and byte column) of the given UTF-8 byte offset, as used by tree-sitter.
+     * The starts of the lines are indexed on the first call.
+     */
+    TSPoint pointOf(int byteOffset) {
+        int[] starts = lineStarts;
+        if (starts == null) {
+            starts = lineStarts(bytes);
+            lineStarts = starts;
+        }
+        int row = Arrays.binarySearch(starts, byteOffset);
+        if (row < 0)
+            row = -row - 2;
+        return new TSPoint(row, byteOffset - starts[row]);
+    }
+
+    private static int[] lineStarts(byte[] bytes) {
+        int lines = 1;
+        for (byte b : bytes)
+            if (b == '\n')
+                lines++;
+        int[] starts = new int[lines];
+        int line = 1;
+        for (int i = 0; i < bytes.length; i++)
+            if (bytes[i] == '\n')
+                starts[line++] = i + 1;
+        return starts;
+    }
+
+    /**
+     * Return the text located between the given UTF-8 byte offsets.
+     */
+    String text(int startByte, int endByte) {
+        return new String(bytes, startByte, endByte - startByte, StandardCharsets.UTF_8);
+    }
+}
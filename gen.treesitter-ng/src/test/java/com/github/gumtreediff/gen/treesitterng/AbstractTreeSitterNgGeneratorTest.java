@@ -18,10 +18,13 @@
  */
 package com.github.gumtreediff.gen.treesitterng;
 
+import com.github.gumtreediff.tree.Type;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.github.gumtreediff.gen.treesitterng.AbstractTreeSitterNgGenerator.matchNodeOrAncestorTypes;
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,5 +59,20 @@ public class AbstractTreeSitterNgGeneratorTest {
         assertNull(matchNodeOrAncestorTypes(ruleSet, depth1Node1));
         assertEquals("root depth1Node0 depth2Node0", matchNodeOrAncestorTypes(ruleSet, depth2Node0));
         assertEquals("depth2Node1", matchNodeOrAncestorTypes(ruleSet, depth2Node1));
+
+        Map<String, String> aliases = new HashMap<>();
+        for (String rule : ruleSet)
+            aliases.put(rule, "alias " + rule);
+        Map<String, Object> rules = new HashMap<>();
+        rules.put("ignored", ruleSet);
+        rules.put("aliased", aliases);
+        LanguageRules compiled = new LanguageRules(rules, new String[] {"root", "depth1Node0"});
+        for (MockTypeOnlyTreeSitterNode node : List.of(root, depth1Node0, depth1Node1, depth2Node0, depth2Node1)) {
+            String expected = matchNodeOrAncestorTypes(ruleSet, node);
+            int id = compiled.idOf(node);
+            assertEquals(expected != null, compiled.isIgnored(node, id));
+            Type alias = compiled.aliasOf(node, id);
+            assertEquals(expected == null ? null : "alias " + expected, alias == null ? null : alias.name);
+        }
     }
 }
\ No newline at end of file
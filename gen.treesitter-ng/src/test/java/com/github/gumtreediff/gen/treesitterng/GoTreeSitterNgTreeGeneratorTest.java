@@ -24,6 +24,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -39,4 +44,38 @@ public class GoTreeSitterNgTreeGeneratorTest {
                 + "}");
         assertEquals(20, src.getRoot().getMetrics().size);
     }
+
+    @Test
+    public void testConcurrentGeneration() throws Exception {
+        String content = "package main\n"
+                + "import \"fmt\"\n"
+                + "func main() {\n"
+                + "    fmt.Println(\"hello world\")\n"
+                + "}";
+        String expected = generator.generateFrom().string(content).getRoot().toTreeString();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+                results.add(pool.submit(() -> generator.generateFrom().string(content).getRoot().toTreeString()));
+            for (Future<String> result : results)
+                assertEquals(expected, result.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        String content = "package main\n"
+                + "func main() {\n"
+                + "}";
+        String expected = generator.generateFrom().string(content).getRoot().toTreeString();
+        generator.close();
+        generator.close();
+        // A new parser is created after closing.
+        try (GoTreeSitterNgTreeGenerator g = new GoTreeSitterNgTreeGenerator()) {
+            assertEquals(expected, g.generateFrom().string(content).getRoot().toTreeString());
+        }
+    }
 }
\ No newline at end of file
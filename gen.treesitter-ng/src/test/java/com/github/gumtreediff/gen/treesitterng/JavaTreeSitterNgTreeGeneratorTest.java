@@ -18,11 +18,13 @@
  */
 package com.github.gumtreediff.gen.treesitterng;
 
+import com.github.gumtreediff.gen.TextEdit;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeContext;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -84,5 +86,27 @@ public class JavaTreeSitterNgTreeGeneratorTest {
                 "class Foo { void foo() { a ^= b; } }").getRoot();
         assertTrue(TreeSitterNgTestUtils.onlyOneUpdate(src, dst));
     }
-    
+
+    @Test
+    public void testReparse() throws IOException {
+        String before = "class Foo {\n"
+                + "    String é = \"ça\";\n"
+                + "    void foo() { a = b; }\n"
+                + "    void bar() { c(\"😀\"); }\n"
+                + "}";
+        TreeContext previous = generator.generateReparsable(before);
+
+        // The edits span several lines and follow non-ASCII characters.
+        TextEdit first = new TextEdit(before.indexOf("a = b;"), 6, "a = b;\n        d(\"è\");");
+        TextEdit second = new TextEdit(before.indexOf("\"ça\""), 4, "\"ça\" + \"là\"");
+        String after = second.apply(first.apply(before));
+        TreeContext reparsed = generator.reparse(previous, List.of(first, second), after);
+        assertTrue(TreeSitterNgTestUtils.sameTrees(generator.generateFrom().string(after).getRoot(),
+                reparsed.getRoot()));
+
+        TextEdit third = new TextEdit(after.indexOf("c(\"😀\")"), 1, "e");
+        String last = third.apply(after);
+        assertTrue(TreeSitterNgTestUtils.sameTrees(generator.generateFrom().string(last).getRoot(),
+                generator.reparse(reparsed, third, last).getRoot()));
+    }
 }
\ No newline at end of file
@@ -53,6 +53,12 @@ public class MockTypeOnlyTreeSitterNode extends TSNode {
         return type;
     }
 
+    @Override
+    public int getSymbol() {
+        // Unknown symbol, the type is used instead.
+        return -1;
+    }
+
     @Override
     public MockTypeOnlyTreeSitterNode getParent() {
         return parent;
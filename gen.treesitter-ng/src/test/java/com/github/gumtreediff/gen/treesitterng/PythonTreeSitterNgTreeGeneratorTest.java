@@ -18,14 +18,19 @@
  */
 package com.github.gumtreediff.gen.treesitterng;
 
+import com.github.gumtreediff.gen.TextEdit;
+import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeContext;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PythonTreeSitterNgTreeGeneratorTest {
     private final PythonTreeSitterNgTreeGenerator generator = new PythonTreeSitterNgTreeGenerator();
@@ -42,6 +47,41 @@ public class PythonTreeSitterNgTreeGeneratorTest {
         assertEquals(12, src.getRoot().getMetrics().size);
     }
 
+    @Test
+    public void testNonAsciiPositions() throws IOException {
+        TreeContext src = generator.generateFrom().string("é = 1\r\nb = 2\n");
+        Tree first = src.getRoot().getChild("0.0.0");
+        assertEquals("é", first.getLabel());
+        assertEquals(0, first.getPos());
+        assertEquals(1, first.getLength());
+        Tree second = src.getRoot().getChild("1.0.0");
+        assertEquals("b", second.getLabel());
+        assertEquals(5 + System.lineSeparator().length(), second.getPos());
+        assertEquals(1, second.getLength());
+    }
+
+    @Test
+    public void testReparse() throws IOException {
+        String before = "def foo(x):\n    return x + 1\n\ndef bar(y):\n    return y * 2\n";
+        TreeContext previous = generator.generateReparsable(before);
+        String previousTree = previous.getRoot().toTreeString();
+        // The parser state is only kept when asked for.
+        assertFalse(generator.generateFrom().string(before).getMetadata().hasNext());
+
+        TextEdit first = new TextEdit(before.indexOf("y * 2"), 5, "bar(y - 1)");
+        TextEdit second = new TextEdit(before.indexOf("x + 1"), 0, "2 * ");
+        String after = second.apply(first.apply(before));
+        TreeContext reparsed = generator.reparse(previous, List.of(first, second), after);
+        TreeContext expected = generator.generateFrom().string(after);
+
+        assertTrue(TreeSitterNgTestUtils.sameTrees(expected.getRoot(), reparsed.getRoot()));
+        assertEquals(previousTree, previous.getRoot().toTreeString());
+
+        TextEdit third = new TextEdit(after.indexOf("foo"), 3, "baz");
+        assertEquals(generator.generateFrom().string(third.apply(after)).getRoot().toTreeString(),
+                generator.reparse(reparsed, third, third.apply(after)).getRoot().toTreeString());
+    }
+
     @ParameterizedTest
     @ValueSource(strings = { "<", "<=", ">", ">=", "==", "!=" })
     public void testComparisonOperators(String operator) throws IOException {
@@ -25,6 +25,9 @@ import com.github.gumtreediff.actions.model.Update;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.optimal.TopDownMatcher;
 import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeMetrics;
+
+import java.util.Iterator;
 
 public class TreeSitterNgTestUtils {
     public static boolean onlyOneUpdate(Tree src, Tree dst) {
@@ -34,4 +37,21 @@ public class TreeSitterNgTestUtils {
         EditScript s = g.computeActions(ms);
         return s.size() == 1 && s.get(0) instanceof Update;
     }
+
+    /**
+     * Indicates whether or not the given ASTs have the same nodes, with the same positions and metrics.
+     */
+    public static boolean sameTrees(Tree expected, Tree actual) {
+        if (!expected.toTreeString().equals(actual.toTreeString()))
+            return false;
+        Iterator<Tree> actualTrees = actual.preOrder().iterator();
+        for (Tree t : expected.preOrder()) {
+            TreeMetrics metrics = actualTrees.next().getMetrics();
+            if (t.getMetrics().hash != metrics.hash || t.getMetrics().fingerprint != metrics.fingerprint
+                    || t.getMetrics().size != metrics.size || t.getMetrics().depth != metrics.depth
+                    || t.getMetrics().position != metrics.position)
+                return false;
+        }
+        return true;
+    }
 }
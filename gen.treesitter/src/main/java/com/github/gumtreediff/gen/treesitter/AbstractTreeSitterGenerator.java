@@ -21,7 +21,6 @@ package com.github.gumtreediff.gen.treesitter;
 
 import com.github.gumtreediff.gen.ExternalProcessTreeGenerator;
 import com.github.gumtreediff.gen.SyntaxException;
-import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeContext;
 
@@ -35,8 +34,7 @@ public abstract class AbstractTreeSitterGenerator extends ExternalProcessTreeGen
 
     @Override
     protected TreeContext generate(Reader r) throws IOException {
-        String output = readStandardOutput(r);
-        TreeContext context = TreeIoUtils.fromXml().generateFrom().string(output);
+        TreeContext context = readTree(r);
 
         for (Tree t : context.getRoot().preOrder())
             if (t.getType().name.equals("ERROR"))